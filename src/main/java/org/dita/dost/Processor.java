@@ -8,6 +8,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.helper.DefaultExecutor;
 import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.log.LoggerListener;
 import org.dita.dost.util.Configuration.Mode;
@@ -21,18 +22,20 @@ import java.util.Map;
 import java.util.Vector;
 
 /**
- * DITA-OT processer. Not thread-safe, but can be reused.
+ * DITA-OT processer. Not thread-safe, but can be reused. Separate processors can be run concurrently.
  */
 public final class Processor {
 
     private final File ditaDir;
     private final Map<String, String> args;
+    private final Project template;
     private Logger logger;
     private boolean cleanOnFailure = true;
     private boolean createDebugLog = true;
 
-    Processor(final File ditaDir, final String transtype, final Map<String, String> args) {
+    Processor(final File ditaDir, final String transtype, final Map<String, String> args, final Project template) {
         this.ditaDir = ditaDir;
+        this.template = template;
         this.args = new HashMap<>(args);
         this.args.put("dita.dir", ditaDir.getAbsolutePath());
         this.args.put("transtype", transtype);
@@ -203,7 +206,10 @@ public final class Processor {
             }
 
             project.fireBuildStarted();
-            project.init();
+            // copy core definitions from the template instead of loading them again
+            template.initSubProject(project);
+            project.setExecutor(new DefaultExecutor());
+            project.initProperties();
             project.setBaseDir(ditaDir);
             project.setKeepGoingMode(false);
             for (final Map.Entry<String, String> arg : args.entrySet()) {
@@ -225,7 +231,9 @@ public final class Processor {
                 try {
                     FileUtils.forceDelete(tempDir);
                 } catch (final IOException ex) {
-                    logger.error("Failed to delete temporary directory " + tempDir);
+                    if (logger != null) {
+                        logger.error("Failed to delete temporary directory " + tempDir);
+                    }
                 }
             }
         }
@@ -260,21 +268,17 @@ public final class Processor {
 
     private File getTempDir() {
         final File baseTempDir = new File(args.get("base.temp.dir"));
-        File tempDir;
-        for (int i = 0; i < 10; i++) {
-            tempDir = new File(baseTempDir, Long.toString(System.currentTimeMillis()));
-            if (!tempDir.exists()) {
-                try {
-                    FileUtils.forceMkdir(tempDir);
-                    return tempDir;
-                } catch (IOException e) {
-                    // Ignore
-                }
-            }
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                // Ignore
+        try {
+            FileUtils.forceMkdir(baseTempDir);
+        } catch (final IOException e) {
+            throw new RuntimeException("Unable to create temporary directory", e);
+        }
+        final String name = Long.toString(System.currentTimeMillis());
+        for (int i = 0; i < 100; i++) {
+            final File tempDir = new File(baseTempDir, i == 0 ? name : (name + "_" + i));
+            // mkdir fails if the directory exists, concurrent processors never share a temporary directory
+            if (tempDir.mkdir()) {
+                return tempDir;
             }
         }
         throw new RuntimeException("Unable to create temporary directory");
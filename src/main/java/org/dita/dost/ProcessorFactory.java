@@ -1,19 +1,27 @@
 package org.dita.dost;
 
+import org.apache.tools.ant.Project;
 import org.dita.dost.util.Configuration;
 
 import java.io.File;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * DITA-OT processer factory. Not thread-safe, but can be reused.
+ * DITA-OT processer factory. Thread-safe and can be reused.
+ *
+ * <p>Processors created by the factory can be run concurrently. Each run has its own Ant project, temporary
+ * directory and job configuration, while compiled stylesheets and the catalog resolver are shared. Task and type
+ * definitions of the Ant core are loaded once into a template project and copied to the project of each run.</p>
  */
 public final class ProcessorFactory {
 
     private final File ditaDir;
-    private final Map<String, String> args = new HashMap<>();
+    private final Map<String, String> args = new ConcurrentHashMap<>();
+    /** Initialized Ant project used as a template for processor projects, created lazily. */
+    private volatile Project template;
 
     private ProcessorFactory(final File ditaDir) {
         this.ditaDir = ditaDir;
@@ -57,7 +65,28 @@ public final class ProcessorFactory {
         if (!Configuration.transtypes.contains(transtype)) {
             throw new IllegalArgumentException("Transtype " + transtype + " not supported");
         }
-        return new Processor(ditaDir, transtype, Collections.unmodifiableMap(args));
+        return new Processor(ditaDir, transtype, Collections.unmodifiableMap(new HashMap<>(args)), getTemplate());
+    }
+
+    /**
+     * Get template project. The template is only read after initialization, so it can be shared by processors.
+     *
+     * @return initialized template project
+     */
+    private Project getTemplate() {
+        Project res = template;
+        if (res == null) {
+            synchronized (this) {
+                res = template;
+                if (res == null) {
+                    res = new Project();
+                    res.setCoreLoader(Processor.class.getClassLoader());
+                    res.init();
+                    template = res;
+                }
+            }
+        }
+        return res;
     }
 
 }
@@ -7,6 +7,7 @@
  */
 package org.dita.dost.ant;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Location;
@@ -21,6 +22,7 @@ import org.dita.dost.module.AbstractPipelineModule;
 import org.dita.dost.module.ModuleFactory;
 import org.dita.dost.module.XmlFilterModule;
 import org.dita.dost.module.XmlFilterModule.FilterPair;
+import org.dita.dost.module.XmlFilterPipeModule;
 import org.dita.dost.module.XsltModule;
 import org.dita.dost.pipeline.PipelineHashIO;
 import org.dita.dost.util.Constants;
@@ -57,6 +59,8 @@ public final class ExtensibleAntInvoker extends Task {
     private final ArrayList<ModuleElem> modules;
     /** Temporary directory. */
     private File tempDir;
+    /** Run adjacent SAX filter stages in a single pass. */
+    private boolean fuse;
 
     /**
      * Constructor.
@@ -93,6 +97,17 @@ public final class ExtensibleAntInvoker extends Task {
         attrs.put(ANT_INVOKER_PARAM_TEMPDIR, tempdir.getAbsolutePath());
     }
 
+    /**
+     * Set SAX stage fusion. If enabled, SAX pipe elements are run in the same pass with the preceding SAX pipe
+     * element, XSLT element or module that supports it, and each file is parsed and serialized only once.
+     *
+     * @param fuse run adjacent SAX filter stages in a single pass
+     * @since 3.2
+     */
+    public void setFuse(final boolean fuse) {
+        this.fuse = fuse;
+    }
+
     /**
      * Handle nested parameters. Add the key/value to the pipeline hash, unless
      * the "if" attribute is set and refers to a unset property.
@@ -155,15 +170,18 @@ public final class ExtensibleAntInvoker extends Task {
 
         final Job job = getJob(tempDir, getProject());
         try {
-            for (final ModuleElem m: modules) {
-                m.setProject(getProject());
-                m.setLocation(getLocation());
+            for (final List<ModuleElem> group: groupModules()) {
+                for (final ModuleElem m: group) {
+                    m.setProject(getProject());
+                    m.setLocation(getLocation());
+                }
                 final PipelineHashIO pipelineInput = new PipelineHashIO();
                 for (final Map.Entry<String, String> e: attrs.entrySet()) {
                     pipelineInput.setAttribute(e.getKey(), e.getValue());
                 }
-                AbstractPipelineModule mod = getPipelineModule(m, pipelineInput);
+                final AbstractPipelineModule mod = getPipelineModule(group, pipelineInput);
                 long start = System.currentTimeMillis();
+                mod.setParallel(group.stream().allMatch(m -> m.parallel));
                 mod.setLogger(logger);
                 mod.setJob(job);
                 mod.execute(pipelineInput);
@@ -175,6 +193,26 @@ public final class ExtensibleAntInvoker extends Task {
         }
     }
 
+    /**
+     * Create pipeline module for a module group. SAX pipe elements after the first element of the group are run in
+     * the pass of the first module.
+     */
+    private AbstractPipelineModule getPipelineModule(final List<ModuleElem> group, final PipelineHashIO pipelineInput)
+            throws DITAOTException {
+        if (group.get(0) instanceof SaxPipeElem) {
+            return getSaxPipeModule(group.stream().map(m -> (SaxPipeElem) m).collect(Collectors.toList()));
+        }
+        final AbstractPipelineModule module = getPipelineModule(group.get(0), pipelineInput);
+        if (group.size() > 1) {
+            final List<SaxPipeElem> elems = group.subList(1, group.size()).stream()
+                    .map(m -> (SaxPipeElem) m)
+                    .collect(Collectors.toList());
+            logger.debug("Fuse " + elems.size() + " SAX pipes into " + module.getClass().getSimpleName());
+            ((XmlFilterPipeModule) module).setProcessingPipe(getSaxPipe(elems));
+        }
+        return module;
+    }
+
     private AbstractPipelineModule getPipelineModule(final ModuleElem m, final PipelineHashIO pipelineInput) throws DITAOTException {
         if (m instanceof XsltElem) {
             final XsltElem xm = (XsltElem) m;
@@ -196,6 +234,8 @@ public final class ExtensibleAntInvoker extends Task {
             module.setFilenameParam(xm.filenameparameter);
             module.setFiledirParam(xm.filedirparameter);
             module.setReloadstylesheet(xm.reloadstylesheet);
+            module.setIncremental(xm.incremental);
+            module.setManifestDir(xm.manifestdir);
             module.setXMLCatalog(xm.xmlcatalog);
             if (xm.mapper != null) {
                 module.setMapper(xm.mapper.getImplementation());
@@ -219,17 +259,7 @@ public final class ExtensibleAntInvoker extends Task {
             }
             return module;
         } else if (m instanceof SaxPipeElem) {
-            final SaxPipeElem fm = (SaxPipeElem) m;
-            final XmlFilterModule module = new XmlFilterModule();
-            final List<FileInfoFilterElem> predicates = new ArrayList<>(fm.getFormat());
-            predicates.addAll(m.fileInfoFilters);
-            module.setFileInfoFilter(combine(predicates));
-            try {
-                module.setProcessingPipe(fm.getFilters());
-            } catch (final InstantiationException | IllegalAccessException e) {
-                throw new BuildException(e);
-            }
-            return module;
+            return getSaxPipeModule(Collections.singletonList((SaxPipeElem) m));
         } else {
             for (final ParamElem p : m.params) {
                 if (!p.isValid()) {
@@ -247,6 +277,86 @@ public final class ExtensibleAntInvoker extends Task {
         }
     }
 
+    /**
+     * Group modules for execution. If fusion is enabled, SAX pipe elements are grouped with the preceding SAX pipe
+     * element, XSLT element or {@link XmlFilterPipeModule} module so that they can be run in a single parse and
+     * serialize pass per file.
+     *
+     * @return module groups in execution order
+     */
+    @VisibleForTesting
+    List<List<ModuleElem>> groupModules() {
+        final List<List<ModuleElem>> res = new ArrayList<>();
+        List<ModuleElem> group = null;
+        for (final ModuleElem m: modules) {
+            if (fuse && m instanceof SaxPipeElem && group != null && isFusible(group.get(0))) {
+                group.add(m);
+            } else {
+                group = new ArrayList<>();
+                group.add(m);
+                res.add(group);
+            }
+        }
+        return res;
+    }
+
+    private static boolean isFusible(final ModuleElem m) {
+        return m instanceof SaxPipeElem
+                || m instanceof XsltElem
+                || (m.getImplementation() != null
+                    && XmlFilterPipeModule.class.isAssignableFrom(m.getImplementation()));
+    }
+
+    /**
+     * Create XML filter module for SAX pipe elements. Filters of multiple elements are chained into a single pipe
+     * and each filter is only applied to files selected by its own SAX pipe element.
+     *
+     * @param elems SAX pipe elements in document order
+     * @return XML filter module
+     */
+    private XmlFilterModule getSaxPipeModule(final List<SaxPipeElem> elems) {
+        final XmlFilterModule module = new XmlFilterModule();
+        if (elems.size() == 1) {
+            module.setFileInfoFilter(getFileInfoFilter(elems.get(0)));
+            module.setProcessingPipe(elems.get(0).getFilters());
+        } else {
+            logger.debug("Fuse " + elems.size() + " SAX pipes into a single pass");
+            final List<Predicate<FileInfo>> fileInfoFilters = elems.stream()
+                    .map(ExtensibleAntInvoker::getFileInfoFilter)
+                    .collect(Collectors.toList());
+            module.setFileInfoFilter(f -> fileInfoFilters.stream().anyMatch(filter -> filter.test(f)));
+            module.setProcessingPipe(getSaxPipe(elems));
+        }
+        return module;
+    }
+
+    /**
+     * Chain filters of SAX pipe elements into a single pipe. Each filter is only applied to files selected by its
+     * own SAX pipe element.
+     *
+     * @param elems SAX pipe elements in document order
+     * @return SAX filter pipe
+     */
+    @SuppressWarnings("deprecation")
+    static List<FilterPair> getSaxPipe(final List<SaxPipeElem> elems) {
+        final List<FilterPair> pipe = new ArrayList<>();
+        for (final SaxPipeElem fm: elems) {
+            final Predicate<FileInfo> fileInfoFilter = getFileInfoFilter(fm);
+            for (final FilterPair p: fm.getFilters()) {
+                final Predicate<FileInfo> predicate = fileInfoFilter.and(p.predicate);
+                // Keep shared filter instance so that thread safety checks still see it
+                pipe.add(p.filter != null ? new FilterPair(p.filter, predicate) : new FilterPair(p.factory, predicate));
+            }
+        }
+        return pipe;
+    }
+
+    private static Predicate<FileInfo> getFileInfoFilter(final SaxPipeElem elem) {
+        final List<FileInfoFilterElem> predicates = new ArrayList<>(elem.getFormat());
+        predicates.addAll(elem.fileInfoFilters);
+        return combine(predicates);
+    }
+
     private static Predicate<FileInfo> combine(final Collection<FileInfoFilterElem> filters) {
         final List<Predicate<FileInfo>> res = filters.stream()
                 .map(FileInfoFilterElem::toFilter)
@@ -330,11 +440,22 @@ public final class ExtensibleAntInvoker extends Task {
         public final Collection<FileInfoFilterElem> fileInfoFilters = new ArrayList<>();
         private Project project;
         private Location location;
+        private boolean parallel;
 
         public void setClass(final Class<? extends AbstractPipelineModule> cls) {
             this.cls = cls;
         }
 
+        /**
+         * Set parallel processing.
+         *
+         * @param parallel process files in parallel
+         * @since 3.2
+         */
+        public void setParallel(final boolean parallel) {
+            this.parallel = parallel;
+        }
+
         public void addConfiguredParam(final ParamElem p) {
             params.add(p);
         }
@@ -384,6 +505,8 @@ public final class ExtensibleAntInvoker extends Task {
         private String filedirparameter;
         private XMLCatalog xmlcatalog;
         private boolean reloadstylesheet;
+        private boolean incremental;
+        private File manifestdir;
 
         // Ant setters
 
@@ -414,6 +537,26 @@ public final class ExtensibleAntInvoker extends Task {
             this.reloadstylesheet = reloadstylesheet;
         }
 
+        /**
+         * Set incremental mode.
+         *
+         * @param incremental skip files that are unchanged since previous build
+         * @since 3.2
+         */
+        public void setIncremental(final boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        /**
+         * Set directory for incremental build manifests.
+         *
+         * @param manifestdir manifest directory
+         * @since 3.2
+         */
+        public void setManifestdir(final File manifestdir) {
+            this.manifestdir = manifestdir;
+        }
+
         public void setIn(final File in) {
             this.in = in;
         }
@@ -524,7 +667,8 @@ public final class ExtensibleAntInvoker extends Task {
     }
 
     /**
-     * Nested pipeline SAX filter pipe element configuration.
+     * Nested pipeline SAX filter pipe element configuration. If the pipeline enables fusion, adjacent SAX filter pipe
+     * elements are run in a single pass, where each file is parsed and serialized once.
      * @author jelovirt
      */
     public static class SaxPipeElem extends ModuleElem {
@@ -543,29 +687,44 @@ public final class ExtensibleAntInvoker extends Task {
             filters.add(filter);
         }
 
-        public List<FilterPair> getFilters() throws IllegalAccessException, InstantiationException {
+        public List<FilterPair> getFilters() {
             final List<FilterPair> res = new ArrayList<>(filters.size());
             for (final XmlFilterElem f: filters) {
                 if (isValid(getProject(), getLocation(), f.getIf(), f.getUnless())) {
-                    final AbstractXMLFilter fc = f.getImplementation().newInstance();
+                    final Class<? extends AbstractXMLFilter> cls = f.getImplementation();
+                    final Map<String, String> params = new HashMap<>();
                     for (final ParamElem p : f.params) {
                         if (!p.isValid()) {
                             throw new BuildException("Incomplete parameter");
                         }
                         if (isValid(getProject(), getLocation(), p.getIf(), p.getUnless())) {
-                            fc.setParam(p.getName(), p.getValue());
+                            params.put(p.getName(), p.getValue());
                         }
                     }
                     final List<FileInfoFilterElem> predicates = new ArrayList<>(f.fileInfoFilters);
                     predicates.addAll(getFormat());
                     assert !predicates.isEmpty();
                     Predicate<FileInfo> fs = combine(predicates);
-                    res.add(new FilterPair(fc, fs));
+                    res.add(new FilterPair(() -> newFilter(cls, params), fs));
                 }
             }
             return res;
         }
 
+        private static AbstractXMLFilter newFilter(final Class<? extends AbstractXMLFilter> cls,
+                                                   final Map<String, String> params) {
+            final AbstractXMLFilter fc;
+            try {
+                fc = cls.newInstance();
+            } catch (final InstantiationException | IllegalAccessException e) {
+                throw new BuildException(e);
+            }
+            for (final Map.Entry<String, String> p : params.entrySet()) {
+                fc.setParam(p.getKey(), p.getValue());
+            }
+            return fc;
+        }
+
         public List<FileInfoFilterElem> getFormat() {
             return (format != null ? format : asList(ATTR_FORMAT_VALUE_DITA, ATTR_FORMAT_VALUE_DITAMAP)).stream()
                     .map(f -> {
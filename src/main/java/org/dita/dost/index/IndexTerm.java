@@ -33,8 +33,8 @@ public final class IndexTerm implements Comparable<IndexTerm> {
         }
     }
 
-    /** The locale of  the indexterm, used for sorting. */
-    private static Locale termLocale = null;
+    /** The locale of  the indexterm, used for sorting. Each build thread has its own locale. */
+    private static final ThreadLocal<Locale> termLocale = new ThreadLocal<>();
 
     /** The name of the indexterm. */
     private String termName = null;
@@ -54,6 +54,12 @@ public final class IndexTerm implements Comparable<IndexTerm> {
     /** The sub indexterms contained by this indexterm. */
     private List<IndexTerm> subTerms = null;
 
+    /** Index of sub indexterms by term full name and term key, created lazily. */
+    private Map<List<String>, IndexTerm> subTermIndex = null;
+
+    /** Term locale used to generate sub term index full names. */
+    private Locale subTermIndexLocale = null;
+
     /** The prefix added to the term name (such as IndexTermPrefix.SEE or IndexTermPrefix.SEE_Also). */
     private IndexTermPrefix termPrefix = null;
 
@@ -83,21 +89,25 @@ public final class IndexTerm implements Comparable<IndexTerm> {
     }
 
     /**
-     * Get the global locale of indexterm.
+     * Get the locale of indexterm for the current thread.
      *
      * @return Locale language
      */
     public static Locale getTermLocale() {
-        return termLocale;
+        return termLocale.get();
     }
 
     /**
-     * Set the global locale of indexterm.
+     * Set the locale of indexterm for the current thread.
      *
-     * @param locale locale
+     * @param locale locale, {@code null} to clear
      */
     public static void setTermLocale(final Locale locale) {
-        termLocale = locale;
+        if (locale == null) {
+            termLocale.remove();
+        } else {
+            termLocale.set(locale);
+        }
     }
 
     /**
@@ -181,33 +191,49 @@ public final class IndexTerm implements Comparable<IndexTerm> {
      * @param term index term to be added
      */
     public void addSubTerm(final IndexTerm term) {
-        int i = 0;
-        final int subTermNum = subTerms.size();
-
         if (IndexTermPrefix.SEE != term.getTermPrefix() && IndexTermPrefix.SEE_ALSO != term.getTermPrefix()) {
             //if the term is not "index-see" or "index-see-also"
             leaf = false;
         }
 
-        for (; i < subTermNum; i++) {
-            final IndexTerm subTerm = subTerms.get(i);
-
-            if (subTerm.equals(term)) {
-                return;
-            }
-
+        final List<String> key = getIndexKey(term);
+        final Map<List<String>, IndexTerm> index = getSubTermIndex();
+        final IndexTerm subTerm = index.get(key);
+        if (subTerm == null) {
+            subTerms.add(term);
+            index.put(key, term);
+        } else if (!subTerm.equals(term)) {
             // Add targets when same term name and same term key
-            if (subTerm.getTermFullName().equals(term.getTermFullName())
-                    && subTerm.getTermKey().equals(term.getTermKey())) {
-                subTerm.addTargets(term.getTargetList());
-                subTerm.addSubTerms(term.getSubTerms());
-                return;
-            }
+            subTerm.addTargets(term.getTargetList());
+            subTerm.addSubTerms(term.getSubTerms());
         }
+    }
 
-        if (i == subTermNum) {
-            subTerms.add(term);
+    /**
+     * Get index key of a term.
+     *
+     * @param term index term
+     * @return list of term full name and term key
+     */
+    static List<String> getIndexKey(final IndexTerm term) {
+        return Arrays.asList(term.getTermFullName(), term.getTermKey());
+    }
+
+    /**
+     * Get sub term index. Term full names depend on term locale, so the index is rebuilt if the locale has changed.
+     *
+     * @return sub term index
+     */
+    private Map<List<String>, IndexTerm> getSubTermIndex() {
+        final Locale locale = getTermLocale();
+        if (subTermIndex == null || !Objects.equals(locale, subTermIndexLocale)) {
+            subTermIndex = new HashMap<>();
+            for (final IndexTerm subTerm : subTerms) {
+                subTermIndex.putIfAbsent(getIndexKey(subTerm), subTerm);
+            }
+            subTermIndexLocale = locale;
         }
+        return subTermIndex;
     }
 
     /**
@@ -276,16 +302,62 @@ public final class IndexTerm implements Comparable<IndexTerm> {
      * Sort all the subterms iteratively.
      */
     public void sortSubTerms() {
-        final int subTermNum = subTerms.size();
+        sortSubTerms(DITAOTCollator.getInstance(getTermLocale()));
+    }
 
-        if (subTerms != null && subTermNum > 0) {
-            Collections.sort(subTerms);
+    /**
+     * Sort all the subterms iteratively.
+     *
+     * @param collator collator for term keys
+     */
+    void sortSubTerms(final DITAOTCollator collator) {
+        if (subTerms != null && !subTerms.isEmpty()) {
+            sort(subTerms, collator);
             for (final IndexTerm subTerm : subTerms) {
-                subTerm.sortSubTerms();
+                subTerm.sortSubTerms(collator);
             }
         }
     }
 
+    /**
+     * Sort terms by term key. Collation keys are computed once per term and the sort is stable.
+     *
+     * @param terms terms to sort in place
+     * @param collator collator for term keys
+     */
+    static void sort(final List<IndexTerm> terms, final DITAOTCollator collator) {
+        if (terms.size() < 2) {
+            return;
+        }
+        final List<SortKey> keys = new ArrayList<>(terms.size());
+        for (final IndexTerm term : terms) {
+            keys.add(new SortKey(collator.getCollationKey(term.getTermKey()), term));
+        }
+        Collections.sort(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            terms.set(i, keys.get(i).term);
+        }
+    }
+
+    /**
+     * Index term with a precomputed collation key.
+     */
+    private static final class SortKey implements Comparable<SortKey> {
+        final Comparable key;
+        final IndexTerm term;
+
+        SortKey(final Comparable key, final IndexTerm term) {
+            this.key = key;
+            this.term = term;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compareTo(final SortKey o) {
+            return key.compareTo(o.key);
+        }
+    }
+
     /**
      * Compare the given indexterm with current term.
      *
@@ -294,7 +366,7 @@ public final class IndexTerm implements Comparable<IndexTerm> {
      */
     @Override
     public int compareTo(final IndexTerm obj) {
-        return DITAOTCollator.getInstance(termLocale).compare(termKey, obj.getTermKey());
+        return DITAOTCollator.getInstance(getTermLocale()).compare(termKey, obj.getTermKey());
     }
 
     /**
@@ -378,12 +450,13 @@ public final class IndexTerm implements Comparable<IndexTerm> {
         if (termPrefix == null) {
             return termName;
         } else {
-            if (termLocale == null) {
+            final Locale locale = getTermLocale();
+            if (locale == null) {
                 return termPrefix.message + STRING_BLANK + termName;
             } else {
                 final String key = "IndexTerm." + termPrefix.message.toLowerCase().trim().replace(' ', '-');
-                final String msg = Messages.getString(key, termLocale);
-                if (rtlLocaleList.contains(termLocale.toString())) {
+                final String msg = Messages.getString(key, locale);
+                if (rtlLocaleList.contains(locale.toString())) {
                     return termName + STRING_BLANK + msg;
                 } else {
                     return msg + STRING_BLANK + termName;
@@ -402,6 +475,8 @@ public final class IndexTerm implements Comparable<IndexTerm> {
             if (term.getTermPrefix() == IndexTermPrefix.SEE) {
                 //if the only subterm is index-see update it to index-see-also
                 term.setTermPrefix(IndexTermPrefix.SEE_ALSO);
+                // full name of the sub term changed
+                subTermIndex = null;
             }
 //            subTerms.set(0, term);
         }
@@ -11,14 +11,12 @@ package org.dita.dost.index;
 import static org.dita.dost.util.Constants.*;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Locale;
+import java.util.*;
 
 import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.pipeline.PipelineHashIO;
+import org.dita.dost.util.DITAOTCollator;
 import org.dita.dost.writer.AbstractExtendDitaWriter;
 import org.dita.dost.writer.AbstractWriter;
 import org.dita.dost.writer.IDitaTranstypeIndexWriter;
@@ -35,6 +33,10 @@ public final class IndexTermCollection {
     private static IndexTermCollection collection = null;
     /** The list of all index term. */
     private final List<IndexTerm> termList = new ArrayList<>(16);
+    /** Index of terms by term full name and term key. */
+    private final Map<List<String>, IndexTerm> termIndex = new HashMap<>();
+    /** Term locale used to generate term index full names. */
+    private Locale termIndexLocale;
 
     /** The type of index term. */
     private String indexType = null;
@@ -97,27 +99,34 @@ public final class IndexTermCollection {
      * @param term index term
      */
     public void addTerm(final IndexTerm term) {
-        int i = 0;
-        final int termNum = termList.size();
-
-        for (; i < termNum; i++) {
-            final IndexTerm indexTerm = termList.get(i);
-            if (indexTerm.equals(term)) {
-                return;
-            }
-
+        final List<String> key = IndexTerm.getIndexKey(term);
+        final Map<List<String>, IndexTerm> index = getTermIndex();
+        final IndexTerm indexTerm = index.get(key);
+        if (indexTerm == null) {
+            termList.add(term);
+            index.put(key, term);
+        } else if (!indexTerm.equals(term)) {
             // Add targets when same term name and same term key
-            if (indexTerm.getTermFullName().equals(term.getTermFullName())
-                    && indexTerm.getTermKey().equals(term.getTermKey())) {
-                indexTerm.addTargets(term.getTargetList());
-                indexTerm.addSubTerms(term.getSubTerms());
-                break;
-            }
+            indexTerm.addTargets(term.getTargetList());
+            indexTerm.addSubTerms(term.getSubTerms());
         }
+    }
 
-        if (i == termNum) {
-            termList.add(term);
+    /**
+     * Get term index. Term full names depend on term locale, so the index is rebuilt if the locale has changed.
+     *
+     * @return term index
+     */
+    private Map<List<String>, IndexTerm> getTermIndex() {
+        final Locale locale = IndexTerm.getTermLocale();
+        if (!Objects.equals(locale, termIndexLocale)) {
+            termIndex.clear();
+            for (final IndexTerm term : termList) {
+                termIndex.putIfAbsent(IndexTerm.getIndexKey(term), term);
+            }
+            termIndexLocale = locale;
         }
+        return termIndex;
     }
 
     /**
@@ -133,20 +142,35 @@ public final class IndexTermCollection {
      * Sort term list extracted from dita files base on Locale.
      */
     public void sort() {
+        sort(false);
+    }
+
+    /**
+     * Sort term list extracted from dita files base on Locale.
+     *
+     * @param parallel sort sub-terms of top level terms in parallel
+     * @since 3.2
+     */
+    public void sort(final boolean parallel) {
         if (IndexTerm.getTermLocale() == null ||
                 IndexTerm.getTermLocale().getLanguage().trim().length() == 0) {
             IndexTerm.setTermLocale(new Locale(LANGUAGE_EN,
                     COUNTRY_US));
         }
 
+        final DITAOTCollator collator = DITAOTCollator.getInstance(IndexTerm.getTermLocale());
         /*
          * Sort all the terms recursively
          */
-        for (final IndexTerm term : termList) {
-            term.sortSubTerms();
+        if (parallel) {
+            termList.parallelStream().forEach(term -> term.sortSubTerms(collator));
+        } else {
+            for (final IndexTerm term : termList) {
+                term.sortSubTerms(collator);
+            }
         }
 
-        Collections.sort(termList);
+        IndexTerm.sort(termList, collator);
     }
 
     /**
@@ -0,0 +1,310 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.invoker;
+
+import org.dita.dost.platform.Integrator;
+import org.dita.dost.reader.GrammarPoolManager;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Properties;
+
+import static org.dita.dost.util.Constants.GEN_CONF_PROPERTIES;
+
+/**
+ * Long-lived build worker for the command line launcher.
+ *
+ * <p>The daemon listens on a loopback socket and runs builds submitted by {@link Main} in its own JVM, so that
+ * loaded classes, JIT compiled code, compiled stylesheets, catalogs and grammars are kept between builds. Each
+ * build gets its own {@link Main} instance and Ant project, and its log is sent back to the client that submitted
+ * it. Builds are run one at a time, because Ant redirects the system streams for the duration of a build.
+ * The client resolves relative file parameters and other relative paths against its own working directory before
+ * it submits the build.</p>
+ *
+ * <p>The grammar pool is preloaded with the DTDs declared in the catalog and locked. Grammars that were not
+ * preloaded are removed after each build.</p>
+ *
+ * <p>The port and an access token are written to a daemon file in the user's home directory. The daemon stops
+ * when plug-in configuration changes, and clients fall back to running the build in their own process.</p>
+ *
+ * @since 3.2
+ */
+final class Daemon {
+
+    private static final int PROTOCOL_VERSION = 3;
+    /** Response: build exit code. */
+    private static final byte EXIT = 0;
+    /** Response: output stream content. */
+    private static final byte OUT = 1;
+    /** Response: error stream content. */
+    private static final byte ERR = 2;
+    /** Response: daemon cannot run the build. */
+    private static final byte UNAVAILABLE = 3;
+    private static final int CONNECT_TIMEOUT = 1000;
+    /** Timeout for reading the request, so that a client that does not send one does not block later builds. */
+    private static final int REQUEST_TIMEOUT = 10000;
+
+    private final File ditaDir;
+    private final File daemonFile;
+    private final ClassLoader coreLoader;
+    private final String token;
+    private final long configurationLastModified;
+
+    /**
+     * Create new daemon.
+     *
+     * @param ditaDir DITA-OT installation directory
+     * @param coreLoader classloader used for core classes, may be {@code null}
+     */
+    Daemon(final File ditaDir, final ClassLoader coreLoader) {
+        this.ditaDir = ditaDir;
+        this.daemonFile = getDaemonFile(ditaDir);
+        this.coreLoader = coreLoader;
+        final byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        final StringBuilder buf = new StringBuilder();
+        for (final byte b : bytes) {
+            buf.append(String.format("%02x", b));
+        }
+        this.token = buf.toString();
+        this.configurationLastModified = getConfigurationLastModified();
+    }
+
+    /**
+     * Accept and run builds until configuration changes or the process is stopped.
+     *
+     * @throws IOException if opening server socket or writing daemon file failed
+     */
+    void run() throws IOException {
+        final int grammars = GrammarPoolManager.preload(ditaDir);
+        GrammarPoolManager.lock();
+        System.out.println("Preloaded " + grammars + " DTD grammars");
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            writeDaemonFile(server.getLocalPort());
+            Runtime.getRuntime().addShutdownHook(new Thread(daemonFile::delete));
+            System.out.println("Build daemon listening on port " + server.getLocalPort());
+            while (true) {
+                try (Socket socket = server.accept()) {
+                    handle(socket);
+                } catch (final IOException e) {
+                    System.err.println("Failed to run build request: " + e.getMessage());
+                }
+                if (isStale()) {
+                    System.out.println("Plug-in configuration changed, stopping build daemon");
+                    break;
+                }
+            }
+        } finally {
+            daemonFile.delete();
+        }
+    }
+
+    private void handle(final Socket socket) throws IOException {
+        socket.setSoTimeout(REQUEST_TIMEOUT);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        if (in.readInt() != PROTOCOL_VERSION
+                || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), in.readUTF().getBytes(StandardCharsets.UTF_8))
+                || isStale()) {
+            out.writeByte(UNAVAILABLE);
+            out.flush();
+            return;
+        }
+        final Main main = Main.readRequest(in);
+        socket.setSoTimeout(0);
+        final PrintStream stdout = new PrintStream(new FrameOutputStream(out, OUT), true);
+        final PrintStream stderr = new PrintStream(new FrameOutputStream(out, ERR), true);
+        main.setOutput(stdout, stderr);
+
+        final int priority = Thread.currentThread().getPriority();
+        final int exitCode;
+        try {
+            exitCode = main.execute(coreLoader);
+        } finally {
+            Thread.currentThread().setPriority(priority);
+            GrammarPoolManager.removeTransientGrammars();
+        }
+        stdout.flush();
+        stderr.flush();
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Submit build to a running daemon.
+     *
+     * @param ditaDir DITA-OT installation directory
+     * @param request build to run
+     * @param out stream to write build output to
+     * @param err stream to write build errors to
+     * @return build exit code, {@code null} if no daemon was available to run the build
+     */
+    static Integer submit(final File ditaDir, final Main request, final PrintStream out, final PrintStream err) {
+        final File daemonFile = getDaemonFile(ditaDir);
+        if (!daemonFile.exists()) {
+            return null;
+        }
+        final Properties props = new Properties();
+        try (InputStream in = new FileInputStream(daemonFile)) {
+            props.load(in);
+        } catch (final IOException e) {
+            return null;
+        }
+        final int port;
+        try {
+            port = Integer.parseInt(props.getProperty("port"));
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+        final String token = props.getProperty("token", "");
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT);
+            final DataOutputStream dst = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            dst.writeInt(PROTOCOL_VERSION);
+            dst.writeUTF(token);
+            request.writeRequest(dst);
+            dst.flush();
+
+            final DataInputStream src = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            boolean started = false;
+            try {
+                while (true) {
+                    final byte type = src.readByte();
+                    switch (type) {
+                        case OUT:
+                        case ERR:
+                            started = true;
+                            final byte[] buf = new byte[src.readInt()];
+                            src.readFully(buf);
+                            (type == OUT ? out : err).write(buf);
+                            break;
+                        case EXIT:
+                            final int exitCode = src.readInt();
+                            out.flush();
+                            err.flush();
+                            return exitCode;
+                        default:
+                            return null;
+                    }
+                }
+            } catch (final IOException e) {
+                if (!started) {
+                    return null;
+                }
+                err.println("Error: Lost connection to build daemon: " + e.getMessage());
+                return 1;
+            }
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get daemon file for a DITA-OT installation.
+     *
+     * @param ditaDir DITA-OT installation directory
+     * @return daemon file
+     */
+    private static File getDaemonFile(final File ditaDir) {
+        final String id = Integer.toHexString(ditaDir.getAbsolutePath().hashCode());
+        return new File(System.getProperty("user.home"), ".dita-ot" + File.separator + "daemon-" + id + ".properties");
+    }
+
+    private void writeDaemonFile(final int port) throws IOException {
+        final File dir = daemonFile.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir);
+        }
+        final File tmp = new File(dir, daemonFile.getName() + ".tmp");
+        tmp.delete();
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(tmp.toPath(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        final Properties props = new Properties();
+        props.setProperty("port", Integer.toString(port));
+        props.setProperty("token", token);
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            props.store(out, null);
+        }
+        if (daemonFile.exists() && !daemonFile.delete()) {
+            throw new IOException("Failed to delete " + daemonFile);
+        }
+        if (!tmp.renameTo(daemonFile)) {
+            throw new IOException("Failed to rename " + tmp + " to " + daemonFile);
+        }
+    }
+
+    /**
+     * Test if plug-in configuration has changed since the daemon was started.
+     */
+    private boolean isStale() {
+        return getConfigurationLastModified() != configurationLastModified;
+    }
+
+    private static long getConfigurationLastModified() {
+        final URL url = Daemon.class.getClassLoader()
+                .getResource(Integrator.class.getPackage().getName() + "/" + GEN_CONF_PROPERTIES);
+        if (url != null && url.getProtocol().equals("file")) {
+            try {
+                return new File(url.toURI()).lastModified();
+            } catch (final URISyntaxException e) {
+                // Ignore
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Output stream that writes content as frames of a single response type.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(final DataOutputStream out, final byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+
+}
@@ -259,10 +259,10 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
     private String uninstallId;
 
     /** Stream to use for logging. */
-    private static PrintStream out = System.out;
+    private PrintStream out = System.out;
 
     /** Stream that we are using for logging error messages. */
-    private static PrintStream err = System.err;
+    private PrintStream err = System.err;
 
     /** The build targets. */
     private final Vector<String> targets = new Vector<>();
@@ -315,7 +315,7 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
      * Whether or not a logfile is being used. This is used to check if the
      * output streams must be closed.
      */
-    private static boolean isLogFileUsed = false;
+    private boolean isLogFileUsed = false;
 
     /**
      * optional thread priority
@@ -327,6 +327,15 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
      */
     private boolean proxy = false;
 
+    /** Run as a build daemon. */
+    private boolean daemon = false;
+
+    /** Run build in this process even if a build daemon is running. */
+    private boolean noDaemon = false;
+
+    /** Build was submitted to a build daemon and the logger reports errors to the client. */
+    private boolean remote = false;
+
     /**
      * Prints the message of the Throwable if it (the message) is not
      * <code>null</code>.
@@ -343,11 +352,11 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
 
     private void printErrorMessage(final String msg) {
         if (useColor) {
-            System.err.print(DefaultLogger.ANSI_RED);
-            System.err.print("Error: " + msg);
-            System.err.println(DefaultLogger.ANSI_RESET);
+            err.print(DefaultLogger.ANSI_RED);
+            err.print("Error: " + msg);
+            err.println(DefaultLogger.ANSI_RESET);
         } else {
-            System.err.println("Error: " + msg);
+            err.println("Error: " + msg);
         }
     }
 
@@ -410,6 +419,55 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
             }
         }
 
+        final String ditaDir = System.getProperty("dita.dir");
+        if (daemon) {
+            if (ditaDir == null) {
+                printErrorMessage("Build daemon requires dita.dir system property");
+                exit(1);
+                return;
+            }
+            try {
+                new Daemon(new File(ditaDir), coreLoader).run();
+            } catch (final IOException e) {
+                printMessage(e);
+                exit(1);
+                return;
+            }
+            exit(0);
+            return;
+        }
+
+        if (ditaDir != null && readyToRun && !install && !projectHelp && !noDaemon) {
+            // the build daemon runs in a different working directory
+            final Map<String, Object> localProps = new HashMap<>(definedProps);
+            resolveFileProperties(definedProps, getFileProperties(),
+                    new File(System.getProperty("user.dir")).getAbsoluteFile());
+            final Integer exitCode = Daemon.submit(new File(ditaDir), this, out, err);
+            if (exitCode != null) {
+                handleLogfile();
+                exit(exitCode);
+                return;
+            }
+            definedProps.clear();
+            definedProps.putAll(localProps);
+        }
+
+        final int exitCode;
+        try {
+            exitCode = execute(coreLoader);
+        } finally {
+            handleLogfile();
+        }
+        exit(exitCode);
+    }
+
+    /**
+     * Run build and report errors.
+     *
+     * @param coreLoader classloader used for core classes, may be {@code null}
+     * @return exit code
+     */
+    int execute(final ClassLoader coreLoader) {
         // expect the worst
         int exitCode = 1;
         try {
@@ -423,16 +481,127 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
                 }
             }
         } catch (final BuildException be) {
-            if (err != System.err) {
+            if (err != System.err && !remote) {
                 printMessage(be);
             }
         } catch (final Throwable exc) {
-            exc.printStackTrace();
+            exc.printStackTrace(err);
             printMessage(exc);
-        } finally {
-            handleLogfile();
         }
-        exit(exitCode);
+        return exitCode;
+    }
+
+    /**
+     * Set streams used for logging.
+     *
+     * @param out output stream
+     * @param err error stream
+     */
+    void setOutput(final PrintStream out, final PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Write build configuration for a build daemon.
+     *
+     * @param dst output to write to
+     * @throws IOException if writing failed
+     * @see #readRequest(DataInputStream)
+     */
+    void writeRequest(final DataOutputStream dst) throws IOException {
+        dst.writeUTF(buildFile.getAbsolutePath());
+        dst.writeInt(targets.size());
+        for (final String target : targets) {
+            dst.writeUTF(target);
+        }
+        dst.writeInt(definedProps.size());
+        for (final Map.Entry<String, Object> prop : definedProps.entrySet()) {
+            dst.writeUTF(prop.getKey());
+            dst.writeUTF(String.valueOf(prop.getValue()));
+        }
+        dst.writeInt(listeners.size());
+        for (final String listener : listeners) {
+            dst.writeUTF(listener);
+        }
+        dst.writeUTF(loggerClassname != null ? loggerClassname : "");
+        dst.writeUTF(inputHandlerClassname != null ? inputHandlerClassname : "");
+        dst.writeInt(msgOutputLevel);
+        dst.writeInt(threadPriority != null ? threadPriority : 0);
+        dst.writeBoolean(emacsMode);
+        dst.writeBoolean(useColor);
+        dst.writeBoolean(keepGoingMode);
+        dst.writeBoolean(proxy);
+    }
+
+    /**
+     * Read build configuration written by {@link #writeRequest(DataOutputStream)}. Interactive input is not
+     * allowed for builds read from a request. Relative paths have been resolved by the client before the request
+     * was written.
+     *
+     * @param src input to read from
+     * @return new instance ready to run
+     * @throws IOException if reading failed
+     */
+    static Main readRequest(final DataInputStream src) throws IOException {
+        final Main main = new Main();
+        main.buildFile = new File(src.readUTF());
+        for (int i = src.readInt(); i > 0; i--) {
+            main.targets.addElement(src.readUTF());
+        }
+        for (int i = src.readInt(); i > 0; i--) {
+            main.definedProps.put(src.readUTF(), src.readUTF());
+        }
+        for (int i = src.readInt(); i > 0; i--) {
+            main.listeners.addElement(src.readUTF());
+        }
+        final String loggerClassname = src.readUTF();
+        main.loggerClassname = loggerClassname.isEmpty() ? null : loggerClassname;
+        final String inputHandlerClassname = src.readUTF();
+        main.inputHandlerClassname = inputHandlerClassname.isEmpty() ? null : inputHandlerClassname;
+        main.msgOutputLevel = src.readInt();
+        final int threadPriority = src.readInt();
+        main.threadPriority = threadPriority != 0 ? threadPriority : null;
+        main.emacsMode = src.readBoolean();
+        main.useColor = src.readBoolean();
+        main.keepGoingMode = src.readBoolean();
+        main.proxy = src.readBoolean();
+        main.allowInput = false;
+        main.remote = true;
+        main.readyToRun = true;
+        return main;
+    }
+
+    /** Get names of plug-in parameters with file type. */
+    private Set<String> getFileProperties() {
+        return getPluginArguments().values().stream()
+                .filter(arg -> arg instanceof FileArgument)
+                .map(arg -> arg.property)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Resolve relative file property values against a base directory. Values set with options, {@code -D} and
+     * property files are all resolved, because the build daemon runs in a different working directory than
+     * the client. Values of file parameters are always resolved, values of other properties only if they name
+     * an existing file or directory in the base directory.
+     *
+     * @param props properties to resolve
+     * @param fileProperties names of file properties
+     * @param baseDir directory to resolve against
+     */
+    static void resolveFileProperties(final Map<String, Object> props, final Set<String> fileProperties,
+                                      final File baseDir) {
+        for (final Map.Entry<String, Object> prop : props.entrySet()) {
+            final String value = String.valueOf(prop.getValue());
+            if (value.isEmpty() || new File(value).isAbsolute()) {
+                continue;
+            }
+            final File file = new File(baseDir, value);
+            if (fileProperties.contains(prop.getKey()) || file.exists()) {
+                prop.setValue(file.getPath());
+            }
+        }
     }
 
     /**
@@ -451,7 +620,7 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
      *
      * @since Ant 1.6
      */
-    private static void handleLogfile() {
+    private void handleLogfile() {
         if (isLogFileUsed) {
             FileUtils.close(out);
             FileUtils.close(err);
@@ -553,6 +722,10 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
                 keepGoingMode = true;
             } else if (isLongForm(arg, "-nice")) {
                 handleArgNice(args);
+            } else if (isLongForm(arg, "-daemon")) {
+                daemon = true;
+            } else if (isLongForm(arg, "-no-daemon")) {
+                noDaemon = true;
             } else if (ARGUMENTS.containsKey(getArgumentName(arg))) {
                 handleParameterArg(arg, args, ARGUMENTS.get(getArgumentName(arg)));
             } else if (getPluginArguments().containsKey(getArgumentName(arg))) {
@@ -604,6 +777,8 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
                 printTranstypes();
             }
             return;
+        } else if (daemon) {
+            return;
         } else if (install) {
             buildFile = findBuildFile(System.getProperty("dita.dir"), "integrator.xml");
             targets.clear();
@@ -1223,6 +1398,7 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
         msg.append("   or: dita --uninstall <id>\n");
         msg.append("   or: dita --plugins\n");
         msg.append("   or: dita --transtypes\n");
+        msg.append("   or: dita --daemon\n");
         msg.append("   or: dita --help\n");
         msg.append("   or: dita --version\n");
         msg.append("Arguments: \n");
@@ -1235,6 +1411,7 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
         msg.append("  --uninstall <id>            uninstall plug-in with the ID\n");
         msg.append("  --plugins                   print list of installed plug-ins\n");
         msg.append("  --transtypes                print list of installed transtypes\n");
+        msg.append("  --daemon                    run build daemon that runs builds for later invocations\n");
         msg.append("  -h, --help                  print this message\n");
         msg.append("  --version                   print version information and exit\n");
         msg.append("Options: \n");
@@ -1255,6 +1432,7 @@ public class Main extends org.apache.tools.ant.Main implements AntMain {
         // msg.append("  -lib <path>            specifies a path to search for jars and classes"
         // + lSep);
         msg.append("  -l, --logfile=<file>        use given file for log\n");
+        msg.append("  --no-daemon                 run build in this process even if a build daemon is running\n");
         // msg.append("  -logger <classname>    the class which is to perform logging"
         // + lSep);
         // msg.append("  -listener <classname>  add an instance of class as a project listener"
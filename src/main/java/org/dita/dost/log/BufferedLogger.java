@@ -0,0 +1,198 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.log;
+
+import org.slf4j.helpers.MarkerIgnoringBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Logger that records log events and replays them to another logger.
+ *
+ * <p>Used by parallel processing to keep log output in input order. Instances are not thread-safe
+ * and are expected to be confined to a single task.</p>
+ *
+ * @since 3.2
+ */
+public final class BufferedLogger extends MarkerIgnoringBase implements DITAOTLogger {
+
+    private final DITAOTLogger logger;
+    private final List<Consumer<DITAOTLogger>> events = new ArrayList<>();
+
+    /**
+     * Construct a new buffered logger.
+     *
+     * @param logger logger to ask enabled levels from and to replay events to
+     */
+    public BufferedLogger(final DITAOTLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Replay recorded events to the wrapped logger and clear the buffer.
+     */
+    public void flush() {
+        for (final Consumer<DITAOTLogger> event : events) {
+            event.accept(logger);
+        }
+        events.clear();
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+        return logger.isTraceEnabled();
+    }
+
+    @Override
+    public void trace(final String msg) {
+        events.add(l -> l.trace(msg));
+    }
+
+    @Override
+    public void trace(final String format, final Object arg) {
+        events.add(l -> l.trace(format, arg));
+    }
+
+    @Override
+    public void trace(final String format, final Object arg1, final Object arg2) {
+        events.add(l -> l.trace(format, arg1, arg2));
+    }
+
+    @Override
+    public void trace(final String format, final Object... arguments) {
+        events.add(l -> l.trace(format, arguments));
+    }
+
+    @Override
+    public void trace(final String msg, final Throwable t) {
+        events.add(l -> l.trace(msg, t));
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(final String msg) {
+        events.add(l -> l.debug(msg));
+    }
+
+    @Override
+    public void debug(final String format, final Object arg) {
+        events.add(l -> l.debug(format, arg));
+    }
+
+    @Override
+    public void debug(final String format, final Object arg1, final Object arg2) {
+        events.add(l -> l.debug(format, arg1, arg2));
+    }
+
+    @Override
+    public void debug(final String format, final Object... arguments) {
+        events.add(l -> l.debug(format, arguments));
+    }
+
+    @Override
+    public void debug(final String msg, final Throwable t) {
+        events.add(l -> l.debug(msg, t));
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    @Override
+    public void info(final String msg) {
+        events.add(l -> l.info(msg));
+    }
+
+    @Override
+    public void info(final String format, final Object arg) {
+        events.add(l -> l.info(format, arg));
+    }
+
+    @Override
+    public void info(final String format, final Object arg1, final Object arg2) {
+        events.add(l -> l.info(format, arg1, arg2));
+    }
+
+    @Override
+    public void info(final String format, final Object... arguments) {
+        events.add(l -> l.info(format, arguments));
+    }
+
+    @Override
+    public void info(final String msg, final Throwable t) {
+        events.add(l -> l.info(msg, t));
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return logger.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(final String msg) {
+        events.add(l -> l.warn(msg));
+    }
+
+    @Override
+    public void warn(final String format, final Object arg) {
+        events.add(l -> l.warn(format, arg));
+    }
+
+    @Override
+    public void warn(final String format, final Object... arguments) {
+        events.add(l -> l.warn(format, arguments));
+    }
+
+    @Override
+    public void warn(final String format, final Object arg1, final Object arg2) {
+        events.add(l -> l.warn(format, arg1, arg2));
+    }
+
+    @Override
+    public void warn(final String msg, final Throwable t) {
+        events.add(l -> l.warn(msg, t));
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return logger.isErrorEnabled();
+    }
+
+    @Override
+    public void error(final String msg) {
+        events.add(l -> l.error(msg));
+    }
+
+    @Override
+    public void error(final String format, final Object arg) {
+        events.add(l -> l.error(format, arg));
+    }
+
+    @Override
+    public void error(final String format, final Object arg1, final Object arg2) {
+        events.add(l -> l.error(format, arg1, arg2));
+    }
+
+    @Override
+    public void error(final String format, final Object... arguments) {
+        events.add(l -> l.error(format, arguments));
+    }
+
+    @Override
+    public void error(final String msg, final Throwable t) {
+        events.add(l -> l.error(msg, t));
+    }
+
+}
@@ -48,4 +48,14 @@ public interface AbstractPipelineModule {
 
     void setFileInfoFilter(Predicate<FileInfo> fileInfoFilter);
 
+    /**
+     * Set parallel processing. Modules that do not support parallel processing ignore this.
+     *
+     * @param parallel process files in parallel
+     * @since 3.2
+     */
+    default void setParallel(final boolean parallel) {
+        // NOOP
+    }
+
 }
@@ -11,11 +11,14 @@ import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
+import org.dita.dost.util.Configuration;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.Job.FileInfo;
 
 import java.util.function.Predicate;
 
+import static org.dita.dost.util.Constants.CONF_PARALLEL_THREADS;
+
 /**
  * Abstract class for modules.
  */
@@ -24,6 +27,8 @@ public abstract class AbstractPipelineModuleImpl implements AbstractPipelineModu
     protected DITAOTLogger logger;
     protected Job job;
     Predicate<FileInfo> fileInfoFilter;
+    /** Process files in parallel. */
+    protected boolean parallel;
 
     @Override
     public void setLogger(final DITAOTLogger logger) {
@@ -41,4 +46,26 @@ public abstract class AbstractPipelineModuleImpl implements AbstractPipelineModu
     public void setFileInfoFilter(Predicate<FileInfo> fileInfoFilter) {
         this.fileInfoFilter = fileInfoFilter;
     }
+
+    @Override
+    public void setParallel(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Get number of worker threads for parallel processing.
+     *
+     * @return number of worker threads, at least one
+     */
+    protected static int getParallelism() {
+        final String threads = Configuration.configuration.get(CONF_PARALLEL_THREADS);
+        if (threads != null) {
+            try {
+                return Math.max(1, Integer.parseInt(threads.trim()));
+            } catch (final NumberFormatException e) {
+                // Fall back to processor count
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
 }
@@ -9,12 +9,18 @@
 package org.dita.dost.module;
 
 import java.io.File;
+import java.net.URI;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
 import org.dita.dost.reader.ConrefPushReader;
@@ -25,8 +31,18 @@ import org.w3c.dom.DocumentFragment;
 
 /**
  * Conref push module.
+ *
+ * <p>SAX filters set with {@link #setProcessingPipe(List)} are run when push targets are written. Other files
+ * accepted by the filters are processed in a separate pass.</p>
  */
-final class ConrefPushModule extends AbstractPipelineModuleImpl {
+final class ConrefPushModule extends AbstractPipelineModuleImpl implements XmlFilterPipeModule {
+
+    private ProcessingPipe pipe = ProcessingPipe.EMPTY;
+
+    @Override
+    public void setProcessingPipe(final List<FilterPair> pipe) {
+        this.pipe = new ProcessingPipe(pipe);
+    }
 
     @Override
     public AbstractPipelineOutput execute(final AbstractPipelineInput input)
@@ -34,6 +50,7 @@ final class ConrefPushModule extends AbstractPipelineModuleImpl {
         final Collection<FileInfo> fis = job.getFileInfo(fileInfoFilter).stream()
                 .filter(f -> f.isConrefPush)
                 .collect(Collectors.toList());
+        final Set<URI> piped = new HashSet<>();
         if (!fis.isEmpty()) {
             final ConrefPushReader reader = new ConrefPushReader();
             reader.setLogger(logger);
@@ -45,6 +62,7 @@ final class ConrefPushModule extends AbstractPipelineModuleImpl {
                 reader.read(file.getAbsoluteFile());
             }
             final Map<File, Hashtable<MoveKey, DocumentFragment>> pushSet = reader.getPushMap();
+            final ProcessingPipe.Filters filters = pipe.newFilters();
             for (final Map.Entry<File, Hashtable<MoveKey, DocumentFragment>> entry: pushSet.entrySet()) {
                 logger.info("Processing " + entry.getKey().getAbsolutePath());
                 final ConrefPushParser parser = new ConrefPushParser();
@@ -54,13 +72,20 @@ final class ConrefPushModule extends AbstractPipelineModuleImpl {
                 //pass the tempdir to ConrefPushParser
                 parser.setTempDir(job.tempDir);
                 //FIXME:This writer creates and renames files, have to
+                final FileInfo fi = job.getFileInfo(job.tempDirURI.relativize(entry.getKey().toURI()));
                 try {
-                    parser.write(entry.getKey());
+                    parser.write(entry.getKey(), fi != null
+                            ? filters.get(fi, entry.getKey().toURI(), job, logger)
+                            : Collections.emptyList());
+                    if (fi != null) {
+                        piped.add(fi.uri);
+                    }
                 } catch (final DITAOTException e) {
                     logger.error("Failed to process push conref: " + e.getMessage(), e);
                 }
             }
         }
+        pipe.execute(input, job, logger, parallel, f -> !piped.contains(f.uri));
         return null;
     }
 
@@ -21,6 +21,7 @@ import static org.dita.dost.util.XMLUtils.*;
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilder;
@@ -35,6 +36,7 @@ import javax.xml.transform.stream.StreamResult;
 import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.exception.DITAOTXMLErrorHandler;
 import org.dita.dost.module.GenMapAndTopicListModule.*;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
 import org.dita.dost.reader.DitaValReader;
@@ -54,9 +56,12 @@ import org.xml.sax.ext.LexicalHandler;
  * information into every dita files and filter out the information that is not
  * necessary.
  *
+ * <p>SAX filters set with {@link #setProcessingPipe(List)} are run when files are written into the temporary
+ * directory.</p>
+ *
  * @author Zhang, Yuan Peng
  */
-public final class DebugAndFilterModule extends SourceReaderModule {
+public final class DebugAndFilterModule extends SourceReaderModule implements XmlFilterPipeModule {
 
     private Mode processingMode;
     /** Generate {@code xtrf} and {@code xtrc} attributes */
@@ -76,11 +81,21 @@ public final class DebugAndFilterModule extends SourceReaderModule {
     /** Absolute path to current source file. */
     private URI currentFile;
     private Map<URI, Set<URI>> dic;
-    private SubjectSchemeReader subjectSchemeReader;
+    /** Subject scheme data cache, keyed by set of subject scheme URIs. */
+    private final Map<Set<URI>, SubjectSchemeData> subjectSchemeCache = new ConcurrentHashMap<>();
     private FilterUtils baseFilterUtils;
     private DitaWriterFilter ditaWriterFilter;
     private TopicFragmentFilter topicFragmentFilter;
     private TempFileNameScheme tempFileNameScheme;
+    private ProcessingPipe pipe = ProcessingPipe.EMPTY;
+    private ProcessingPipe.Filters pipeFilters;
+    /** Files that have been processed with the SAX filter pipe. */
+    private final Set<URI> piped = new HashSet<>();
+
+    @Override
+    public void setProcessingPipe(final List<FilterPair> pipe) {
+        this.pipe = new ProcessingPipe(pipe);
+    }
 
     @Override
     public void setJob(final Job job) {
@@ -105,6 +120,7 @@ public final class DebugAndFilterModule extends SourceReaderModule {
             job.getFileInfo().stream()
                     .filter(f -> isFormatDita(f.format) || ATTR_FORMAT_VALUE_DITAMAP.equals(f.format))
                     .forEach(this::processFile);
+            pipe.execute(input, job, logger, parallel, f -> !piped.contains(f.uri));
 
             job.write();
         } catch (final RuntimeException e) {
@@ -131,22 +147,10 @@ public final class DebugAndFilterModule extends SourceReaderModule {
         }
         logger.info("Processing " + f.src + " to " + outputFile.toURI());
 
-        final Set<URI> schemaSet = dic.get(f.uri);
-        if (schemaSet != null && !schemaSet.isEmpty()) {
-            logger.debug("Loading subject schemes");
-            subjectSchemeReader.reset();
-            for (final URI schema : schemaSet) {
-                subjectSchemeReader.loadSubjectScheme(new File(job.tempDirURI.resolve(schema.getPath() + SUBJECT_SCHEME_EXTENSION)));
-            }
-            validateMap = subjectSchemeReader.getValidValuesMap();
-            defaultValueMap = subjectSchemeReader.getDefaultValueMap();
-        } else {
-            validateMap = Collections.emptyMap();
-            defaultValueMap = Collections.emptyMap();
-        }
-        if (profilingEnabled) {
-            filterUtils = baseFilterUtils.refine(subjectSchemeReader.getSubjectSchemeMap());
-        }
+        final SubjectSchemeData subjectScheme = getSubjectScheme(dic.get(f.uri));
+        validateMap = subjectScheme.validateMap;
+        defaultValueMap = subjectScheme.defaultValueMap;
+        filterUtils = subjectScheme.filterUtils;
 
         InputSource in = null;
         Result out = null;
@@ -157,9 +161,15 @@ public final class DebugAndFilterModule extends SourceReaderModule {
             final SAXTransformerFactory stf = (SAXTransformerFactory) tf;
             final TransformerHandler serializer = stf.newTransformerHandler();
 
+            final FileInfo result = isFormatDita(f.format)
+                    ? new FileInfo.Builder(f).format(ATTR_FORMAT_VALUE_DITA).build()
+                    : f;
+            final List<XMLFilter> filters = getProcessingPipe(currentFile);
+            filters.addAll(pipeFilters.get(result, outputFile.toURI(), job, logger));
+
             XMLReader parser = getXmlReader(f.format);
             XMLReader xmlSource = parser;
-            for (final XMLFilter filter: getProcessingPipe(currentFile)) {
+            for (final XMLFilter filter: filters) {
                 filter.setParent(xmlSource);
                 xmlSource = filter;
             }
@@ -178,6 +188,7 @@ public final class DebugAndFilterModule extends SourceReaderModule {
             serializer.setResult(out);
             xmlSource.setContentHandler(serializer);
             xmlSource.parse(new InputSource(f.src.toString()));
+            piped.add(f.uri);
         } catch (final RuntimeException e) {
             throw e;
         } catch (final Exception e) {
@@ -200,12 +211,39 @@ public final class DebugAndFilterModule extends SourceReaderModule {
         }
     }
 
+    /**
+     * Get subject scheme data for a set of subject schemes. Results are cached, files that use the
+     * same set of subject schemes share the loaded data.
+     *
+     * @param schemaSet subject scheme URIs, may be {@code null}
+     * @return subject scheme data
+     */
+    private SubjectSchemeData getSubjectScheme(final Set<URI> schemaSet) {
+        final Set<URI> key = schemaSet != null ? Collections.unmodifiableSet(new HashSet<>(schemaSet)) : Collections.emptySet();
+        return subjectSchemeCache.computeIfAbsent(key, this::loadSubjectScheme);
+    }
+
+    private SubjectSchemeData loadSubjectScheme(final Set<URI> schemaSet) {
+        if (schemaSet.isEmpty()) {
+            return new SubjectSchemeData(Collections.emptyMap(), Collections.emptyMap(), baseFilterUtils);
+        }
+        logger.debug("Loading subject schemes");
+        final SubjectSchemeReader subjectSchemeReader = new SubjectSchemeReader();
+        subjectSchemeReader.setLogger(logger);
+        subjectSchemeReader.setJob(job);
+        for (final URI schema : schemaSet) {
+            subjectSchemeReader.loadSubjectScheme(new File(job.tempDirURI.resolve(schema.getPath() + SUBJECT_SCHEME_EXTENSION)));
+        }
+        return new SubjectSchemeData(
+                Collections.unmodifiableMap(subjectSchemeReader.getValidValuesMap()),
+                Collections.unmodifiableMap(subjectSchemeReader.getDefaultValueMap()),
+                baseFilterUtils != null ? baseFilterUtils.refine(subjectSchemeReader.getSubjectSchemeMap()) : null);
+    }
+
     private void init() throws IOException, DITAOTException, SAXException {
         // Output subject schemas
         outputSubjectScheme();
-        subjectSchemeReader = new SubjectSchemeReader();
-        subjectSchemeReader.setLogger(logger);
-        subjectSchemeReader.setJob(job);
+        subjectSchemeCache.clear();
         dic = SubjectSchemeReader.readMapFromXML(new File(job.tempDir, FILE_NAME_SUBJECT_DICTIONARY));
 
         if (profilingEnabled) {
@@ -237,6 +275,7 @@ public final class DebugAndFilterModule extends SourceReaderModule {
         ditaWriterFilter.setEntityResolver(reader.getEntityResolver());
 
         topicFragmentFilter = new TopicFragmentFilter(ATTRIBUTE_NAME_CONREF, ATTRIBUTE_NAME_CONREFEND);
+        pipeFilters = pipe.newFilters();
 
         tempFileNameScheme.setBaseDir(job.getInputDir());
     }
@@ -556,6 +595,24 @@ public final class DebugAndFilterModule extends SourceReaderModule {
         return !(relativePath.getPath().length() == 0 || !relativePath.getPath().startsWith(".."));
     }
 
+    /**
+     * Subject scheme data for a set of subject schemes.
+     */
+    private static final class SubjectSchemeData {
+        final Map<QName, Map<String, Set<String>>> validateMap;
+        final Map<QName, Map<String, String>> defaultValueMap;
+        /** Refined filter, {@code null} if profiling is disabled. */
+        final FilterUtils filterUtils;
+
+        SubjectSchemeData(final Map<QName, Map<String, Set<String>>> validateMap,
+                          final Map<QName, Map<String, String>> defaultValueMap,
+                          final FilterUtils filterUtils) {
+            this.validateMap = validateMap;
+            this.defaultValueMap = defaultValueMap;
+            this.filterUtils = filterUtils;
+        }
+    }
+
     /**
      * Lexical handler to forward DTD declaration into processing instructions.
      */
@@ -14,24 +14,34 @@ import static org.dita.dost.util.FilterUtils.*;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 import org.apache.tools.ant.util.FileUtils;
 import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
 import org.dita.dost.reader.DitaValReader;
 import org.dita.dost.reader.SubjectSchemeReader;
 import org.dita.dost.util.FilterUtils;
 import org.dita.dost.util.Job.FileInfo;
+import org.dita.dost.util.XMLUtils;
 import org.dita.dost.writer.ProfilingFilter;
+import org.xml.sax.XMLFilter;
 
 /**
  * Filter module class.
+ *
+ * <p>SAX filters set with {@link #setProcessingPipe(List)} are run after profiling in the same pass.</p>
  */
-final class FilterModule extends AbstractPipelineModuleImpl {
+final class FilterModule extends AbstractPipelineModuleImpl implements XmlFilterPipeModule {
+
+    private ProcessingPipe pipe = ProcessingPipe.EMPTY;
+
+    @Override
+    public void setProcessingPipe(final List<FilterPair> pipe) {
+        this.pipe = new ProcessingPipe(pipe);
+    }
 
     @Override
     public AbstractPipelineOutput execute(final AbstractPipelineInput input) throws DITAOTException {
@@ -70,10 +80,29 @@ final class FilterModule extends AbstractPipelineModuleImpl {
             throw new DITAOTException(e);
         }
 
-        for (final FileInfo f: job.getFileInfo(fileInfoFilter)) {
+        final XMLUtils xmlUtils = new XMLUtils();
+        xmlUtils.setLogger(logger);
+        final ProcessingPipe.Filters filters = pipe.newFilters();
+
+        for (final FileInfo f: job.getFileInfo(fileInfoFilter.or(pipe::test))) {
             final File file = new File(job.tempDir, f.file.getPath());
             logger.info("Processing " + file.getAbsolutePath());
 
+            final List<XMLFilter> fs = new ArrayList<>();
+            final boolean profile = fileInfoFilter.test(f);
+            if (profile) {
+                fs.add(writer);
+            }
+            fs.addAll(filters.get(f, file.toURI(), job, logger));
+            if (!profile) {
+                try {
+                    xmlUtils.transform(file.getAbsoluteFile(), fs);
+                } catch (final DITAOTException e) {
+                    logger.error("Failed to process XML filter: " + e.getMessage(), e);
+                }
+                continue;
+            }
+
             subjectSchemeReader.reset();
             final Set<URI> schemaSet = dic.get(f.uri);
             if (schemaSet != null && !schemaSet.isEmpty()) {
@@ -90,7 +119,7 @@ final class FilterModule extends AbstractPipelineModuleImpl {
             writer.setCurrentFile(file.toURI());
 
             try {
-                writer.write(file.getAbsoluteFile());
+                xmlUtils.transform(file.getAbsoluteFile(), fs);
                 if (!writer.hasElementOutput()) {
                     logger.info("All content in " + file.getAbsolutePath() + " was filtered out");
                     job.remove(f);
@@ -70,15 +70,19 @@ public class IndexTermExtractModule extends AbstractPipelineModuleImpl {
         }
         indexTermCollection = new IndexTermCollection();
         indexTermCollection.setLogger(logger);
+        // term locale is set by this build only
+        IndexTerm.setTermLocale(null);
         try {
             parseAndValidateInput(input);
             extractIndexTerm();
-            indexTermCollection.sort();
+            indexTermCollection.sort(parallel);
             indexTermCollection.outputTerms();
         } catch (final RuntimeException e) {
             throw e;
         } catch (final Exception e) {
             logger.error(e.getMessage(), e) ;
+        } finally {
+            IndexTerm.setTermLocale(null);
         }
 
         return null;
@@ -19,11 +19,18 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.dita.dost.log.BufferedLogger;
 import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.module.GenMapAndTopicListModule.TempFileNameScheme;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
 import org.dita.dost.util.*;
 import org.dita.dost.writer.TopicFragmentFilter;
 import org.w3c.dom.Attr;
@@ -46,17 +53,24 @@ import javax.xml.transform.stream.StreamResult;
 /**
  * Keyref ModuleElem.
  *
+ * <p>In parallel mode resolve tasks are processed by worker threads with their own filters. Copies of topics
+ * are generated before topics are rewritten in place, and tasks that rewrite the same topic are run in
+ * sequence. Log messages are buffered per task and written in task order.</p>
+ *
+ * <p>SAX filters set with {@link #setProcessingPipe(List)} are run in the last key reference pass over each file.
+ * Other files accepted by the filters are processed in a separate pass.</p>
  */
-final class KeyrefModule extends AbstractPipelineModuleImpl {
+final class KeyrefModule extends AbstractPipelineModuleImpl implements XmlFilterPipeModule {
 
     private TempFileNameScheme tempFileNameScheme;
-    /** Delayed conref utils. */
-    private DelayConrefUtils delayConrefUtils;
     private String transtype;
     final Set<URI> normalProcessingRole = new HashSet<>();
     final Map<URI, Integer> usage = new HashMap<>();
-    private TopicFragmentFilter topicFragmentFilter;
-    private final XMLUtils xmlUtils = new XMLUtils();
+    private ProcessingPipe pipe = ProcessingPipe.EMPTY;
+    /** Resolve tasks that run the SAX filter pipe. */
+    private final Set<ResolveTask> pipeTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** Files that have been processed with the SAX filter pipe. */
+    private final Set<URI> piped = ConcurrentHashMap.newKeySet();
 
     @Override
     public void setJob(final Job job) {
@@ -69,12 +83,6 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
         tempFileNameScheme.setBaseDir(job.getInputDir());
     }
 
-    @Override
-    public void setLogger(final DITAOTLogger logger) {
-        super.setLogger(logger);
-        xmlUtils.setLogger(logger);
-    }
-
     /**
      * Entry point of KeyrefModule.
      *
@@ -101,7 +109,6 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
                 throw new RuntimeException(e);
             }
             tempFileNameScheme.setBaseDir(job.getInputDir());
-            initFilters();
 
             final Document doc = readMap();
 
@@ -117,15 +124,37 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
             writeMap(doc);
 
             transtype = input.getAttribute(ANT_INVOKER_EXT_PARAM_TRANSTYPE);
-            delayConrefUtils = transtype.equals(INDEX_TYPE_ECLIPSEHELP) ? new DelayConrefUtils() : null;
-            for (final ResolveTask r: jobs) {
-                if (r.out != null) {
-                    processFile(r);
-                }
+            final boolean delayConref = transtype.equals(INDEX_TYPE_ECLIPSEHELP);
+            // copies are generated before source topics are rewritten in place
+            final List<ResolveTask> copies = jobs.stream()
+                    .filter(r -> r.out != null)
+                    .collect(Collectors.toList());
+            final List<ResolveTask> sources = jobs.stream()
+                    .filter(r -> r.out == null)
+                    .collect(Collectors.toList());
+            // SAX filter pipe is run on the last pass over each file
+            final Map<URI, ResolveTask> last = new HashMap<>();
+            for (final ResolveTask r: copies) {
+                last.put(r.out.uri, r);
+            }
+            for (final ResolveTask r: sources) {
+                last.put(r.in.uri, r);
             }
-            for (final ResolveTask r: jobs) {
-                if (r.out == null) {
-                    processFile(r);
+            pipeTasks.addAll(last.values());
+            if (parallel && jobs.size() > 1 && pipe.isThreadSafe(logger)) {
+                executeParallel(copies.stream()
+                        .map(Collections::singletonList)
+                        .collect(Collectors.toList()), delayConref);
+                executeParallel(new ArrayList<>(sources.stream()
+                        .collect(Collectors.groupingBy(r -> r.in.uri, LinkedHashMap::new, Collectors.toList()))
+                        .values()), delayConref);
+            } else {
+                final Worker worker = new Worker(delayConref);
+                for (final ResolveTask r: copies) {
+                    normalProcessingRole.addAll(worker.process(r, logger));
+                }
+                for (final ResolveTask r: sources) {
+                    normalProcessingRole.addAll(worker.process(r, logger));
                 }
             }
 
@@ -144,11 +173,67 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
                 throw new DITAOTException("Failed to store job state: " + e.getMessage(), e);
             }
         }
+        pipe.execute(input, job, logger, parallel, f -> !piped.contains(f.uri));
         return null;
     }
 
-    private void initFilters() {
-        topicFragmentFilter = new TopicFragmentFilter(ATTRIBUTE_NAME_CONREF, ATTRIBUTE_NAME_CONREFEND);
+    @Override
+    public void setProcessingPipe(final List<FilterPair> pipe) {
+        this.pipe = new ProcessingPipe(pipe);
+    }
+
+    /**
+     * Process resolve tasks in parallel. Tasks in the same batch are processed in sequence.
+     *
+     * @param batches batches of resolve tasks
+     * @param delayConref use delayed conref processing
+     */
+    private void executeParallel(final List<List<ResolveTask>> batches, final boolean delayConref) throws DITAOTException {
+        if (batches.isEmpty()) {
+            return;
+        }
+        final int threads = Math.min(getParallelism(), batches.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(delayConref));
+        try {
+            final List<Future<BatchResult>> results = new ArrayList<>(batches.size());
+            for (final List<ResolveTask> batch: batches) {
+                results.add(executor.submit(() -> {
+                    final BatchResult res = new BatchResult(new BufferedLogger(logger));
+                    final Worker worker = workers.get();
+                    for (final ResolveTask r: batch) {
+                        res.normalProcessingRole.addAll(worker.process(r, res.logger));
+                    }
+                    return res;
+                }));
+            }
+            for (final Future<BatchResult> result : results) {
+                final BatchResult res = result.get();
+                res.logger.flush();
+                normalProcessingRole.addAll(res.normalProcessingRole);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DITAOTException("Parallel key reference processing interrupted", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DITAOTException("Failed to process key references: " + cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Result of processing a batch of resolve tasks. */
+    private static final class BatchResult {
+        final BufferedLogger logger;
+        final Set<URI> normalProcessingRole = new HashSet<>();
+
+        BatchResult(final BufferedLogger logger) {
+            this.logger = logger;
+        }
     }
 
     /** Collect topics for key reference processing and modify map to reflect new file names. */
@@ -216,14 +301,15 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
         final Map<String, KeyDef> newKeys = new HashMap<>();
         for (Map.Entry<String, KeyDef> key : scope.keyDefinition.entrySet()) {
             final KeyDef oldKey = key.getValue();
-            URI href = oldKey.href;
+            final URI href = oldKey.href;
             if (href != null && rewrites.containsKey(stripFragment(href))) {
-                href = setFragment(rewrites.get(stripFragment(href)), href.getFragment());
+                final URI newHref = setFragment(rewrites.get(stripFragment(href)), href.getFragment());
+                final KeyDef newKey = new KeyDef(oldKey.keys, newHref, oldKey.scope, oldKey.format, oldKey.source, oldKey.element);
+                newKeys.put(key.getKey(), newKey);
             }
-            final KeyDef newKey = new KeyDef(oldKey.keys, href, oldKey.scope, oldKey.format, oldKey.source, oldKey.element);
-            newKeys.put(key.getKey(), newKey);
         }
         return new KeyScope(scope.id, scope.name,
+                scope.keyDefinition,
                 newKeys,
                 scope.childScopes.stream()
                         .map(c -> rewriteScopeTargets(c, rewrites))
@@ -331,45 +417,76 @@ final class KeyrefModule extends AbstractPipelineModuleImpl {
     }
 
     /**
-     * Process key references in a topic. Topic is stored with a new name if it's
-     * been processed before.
+     * Key reference processor with its own filter instances.
      */
-    private void processFile(final ResolveTask r) {
-        final List<XMLFilter> filters = new ArrayList<>();
-
-        final ConkeyrefFilter conkeyrefFilter = new ConkeyrefFilter();
-        conkeyrefFilter.setLogger(logger);
-        conkeyrefFilter.setJob(job);
-        conkeyrefFilter.setKeyDefinitions(r.scope);
-        conkeyrefFilter.setCurrentFile(job.tempDirURI.resolve(r.in.uri));
-        conkeyrefFilter.setDelayConrefUtils(delayConrefUtils);
-        filters.add(conkeyrefFilter);
-
-        filters.add(topicFragmentFilter);
-
-        final KeyrefPaser parser = new KeyrefPaser();
-        parser.setLogger(logger);
-        parser.setJob(job);
-        parser.setKeyDefinition(r.scope);
-        parser.setCurrentFile(job.tempDirURI.resolve(r.in.uri));
-        filters.add(parser);
+    private final class Worker {
 
-        try {
-            logger.debug("Using " + (r.scope.name != null ? r.scope.name + " scope" : "root scope"));
-            if (r.out != null) {
-                logger.info("Processing " + job.tempDirURI.resolve(r.in.uri) +
-                        " to " + job.tempDirURI.resolve(r.out.uri));
-                xmlUtils.transform(new File(job.tempDir, r.in.file.getPath()),
-                                   new File(job.tempDir, r.out.file.getPath()),
-                                   filters);
-            } else {
-                logger.info("Processing " + job.tempDirURI.resolve(r.in.uri));
-                xmlUtils.transform(new File(job.tempDir, r.in.file.getPath()), filters);
+        private final XMLUtils xmlUtils = new XMLUtils();
+        private final TopicFragmentFilter topicFragmentFilter = new TopicFragmentFilter(ATTRIBUTE_NAME_CONREF, ATTRIBUTE_NAME_CONREFEND);
+        private final ProcessingPipe.Filters pipeFilters = pipe.newFilters();
+        /** Delayed conref utils, {@code null} if delayed conref processing is not used. */
+        private final DelayConrefUtils delayConrefUtils;
+
+        Worker(final boolean delayConref) {
+            delayConrefUtils = delayConref ? new DelayConrefUtils() : null;
+        }
+
+        /**
+         * Process key references in a topic. Topic is stored with a new name if it's
+         * been processed before.
+         *
+         * @param r resolve task
+         * @param logger logger for current task
+         * @return targets with normal processing role
+         */
+        Set<URI> process(final ResolveTask r, final DITAOTLogger logger) {
+            final List<XMLFilter> filters = new ArrayList<>();
+
+            final ConkeyrefFilter conkeyrefFilter = new ConkeyrefFilter();
+            conkeyrefFilter.setLogger(logger);
+            conkeyrefFilter.setJob(job);
+            conkeyrefFilter.setKeyDefinitions(r.scope);
+            conkeyrefFilter.setCurrentFile(job.tempDirURI.resolve(r.in.uri));
+            conkeyrefFilter.setDelayConrefUtils(delayConrefUtils);
+            filters.add(conkeyrefFilter);
+
+            filters.add(topicFragmentFilter);
+
+            final KeyrefPaser parser = new KeyrefPaser();
+            parser.setLogger(logger);
+            parser.setJob(job);
+            parser.setKeyDefinition(r.scope);
+            parser.setCurrentFile(job.tempDirURI.resolve(r.in.uri));
+            filters.add(parser);
+
+            final FileInfo result = r.out != null ? r.out : r.in;
+            final boolean pipeTask = pipeTasks.contains(r);
+            if (pipeTask) {
+                filters.addAll(pipeFilters.get(result, job.tempDirURI.resolve(result.uri), job, logger));
+            }
+
+            try {
+                xmlUtils.setLogger(logger);
+                logger.debug("Using " + (r.scope.name != null ? r.scope.name + " scope" : "root scope"));
+                if (r.out != null) {
+                    logger.info("Processing " + job.tempDirURI.resolve(r.in.uri) +
+                            " to " + job.tempDirURI.resolve(r.out.uri));
+                    xmlUtils.transform(new File(job.tempDir, r.in.file.getPath()),
+                                       new File(job.tempDir, r.out.file.getPath()),
+                                       filters);
+                } else {
+                    logger.info("Processing " + job.tempDirURI.resolve(r.in.uri));
+                    xmlUtils.transform(new File(job.tempDir, r.in.file.getPath()), filters);
+                }
+                if (pipeTask) {
+                    piped.add(result.uri);
+                }
+                // validate resource-only list
+                return parser.getNormalProcessingRoleTargets();
+            } catch (final DITAOTException e) {
+                logger.error("Failed to process key references: " + e.getMessage(), e);
+                return Collections.emptySet();
             }
-            // validate resource-only list
-            normalProcessingRole.addAll(parser.getNormalProcessingRoleTargets());
-        } catch (final DITAOTException e) {
-            logger.error("Failed to process key references: " + e.getMessage(), e);
         }
     }
 
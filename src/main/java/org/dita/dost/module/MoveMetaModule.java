@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import static org.dita.dost.util.Constants.*;
+import static org.dita.dost.util.FileUtils.replaceFile;
 import static org.dita.dost.util.URLUtils.stripFragment;
 import static org.dita.dost.util.URLUtils.toFile;
 import static org.dita.dost.util.XMLUtils.withLogger;
@@ -125,12 +126,7 @@ final class MoveMetaModule extends AbstractPipelineModuleImpl {
             }
             try {
                 logger.debug("Moving " + tmp.toURI() + " to " + inputFile.toURI());
-                if (!inputFile.delete()) {
-                    throw new IOException("Failed to to delete input file " + inputFile.toURI());
-                }
-                if (!tmp.renameTo(inputFile)) {
-                    throw new IOException("Failed to to replace input file " + inputFile.toURI());
-                }
+                replaceFile(tmp, inputFile);
             } catch (final IOException e) {
                 throw new DITAOTException("Failed to replace document: " + e.getMessage(), e);
             } finally {
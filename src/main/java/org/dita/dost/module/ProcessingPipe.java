@@ -0,0 +1,162 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.log.DITAOTLogger;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
+import org.dita.dost.pipeline.AbstractPipelineInput;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.Job.FileInfo;
+import org.dita.dost.writer.AbstractXMLFilter;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.XMLFilter;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * SAX filter pipe of an {@link XmlFilterPipeModule}. The module adds the filters to the files it writes, and the
+ * files accepted by the pipe that the module does not write are processed in a separate pass.
+ *
+ * @since 3.2
+ */
+final class ProcessingPipe {
+
+    static final ProcessingPipe EMPTY = new ProcessingPipe(Collections.emptyList());
+
+    private final List<FilterPair> pipe;
+
+    ProcessingPipe(final List<FilterPair> pipe) {
+        this.pipe = pipe;
+    }
+
+    boolean isEmpty() {
+        return pipe.isEmpty();
+    }
+
+    /**
+     * Test if any filter in the pipe is applied to a file.
+     *
+     * @param f file to test
+     * @return {@code true} if pipe processes the file, otherwise {@code false}
+     */
+    boolean test(final FileInfo f) {
+        for (final FilterPair p: pipe) {
+            if (p.predicate.test(f)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Test if all filters are created with a factory and are not shared between workers. */
+    @SuppressWarnings("deprecation")
+    boolean isThreadSafe(final DITAOTLogger logger) {
+        for (final FilterPair p: pipe) {
+            if (p.filter != null) {
+                logger.debug("Shared filter " + p.filter.getClass().getCanonicalName() + ", disable parallel processing");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create filter instances for a single worker.
+     *
+     * @return filters of a single worker
+     */
+    Filters newFilters() {
+        return new Filters();
+    }
+
+    /**
+     * Process files accepted by the pipe in a separate pass.
+     *
+     * @param input pipeline input
+     * @param job job configuration
+     * @param logger logger
+     * @param parallel process files in parallel
+     * @param fileInfoFilter files to process, combined with the pipe predicates, e.g. files not written by the
+     *                       module
+     */
+    void execute(final AbstractPipelineInput input, final Job job, final DITAOTLogger logger, final boolean parallel,
+                 final Predicate<FileInfo> fileInfoFilter) throws DITAOTException {
+        if (pipe.isEmpty()) {
+            return;
+        }
+        final XmlFilterModule module = new XmlFilterModule();
+        module.setLogger(logger);
+        module.setJob(job);
+        module.setParallel(parallel);
+        module.setFileInfoFilter(fileInfoFilter.and(this::test));
+        module.setProcessingPipe(pipe);
+        module.execute(input);
+    }
+
+    /**
+     * Chain filters into a push pipe.
+     *
+     * @param filters filters in pipe order, filters must implement {@link ContentHandler}
+     * @param handler content handler for the output of the last filter
+     * @return first content handler of the pipe
+     */
+    static ContentHandler chain(final List<XMLFilter> filters, final ContentHandler handler) {
+        ContentHandler next = handler;
+        for (int i = filters.size() - 1; i >= 0; i--) {
+            final XMLFilter filter = filters.get(i);
+            filter.setContentHandler(next);
+            next = (ContentHandler) filter;
+        }
+        return next;
+    }
+
+    /**
+     * Filter instances of a single worker.
+     */
+    final class Filters {
+
+        private final List<AbstractXMLFilter> filters = new ArrayList<>(pipe.size());
+
+        private Filters() {
+            for (final FilterPair p: pipe) {
+                filters.add(p.newFilter());
+            }
+        }
+
+        /**
+         * Get configured filters for a file.
+         *
+         * @param fi file used to select filters
+         * @param file absolute URI of the file being processed
+         * @param job job configuration
+         * @param logger logger for the current file
+         * @return filters in pipe order, may be empty
+         */
+        List<XMLFilter> get(final FileInfo fi, final URI file, final Job job, final DITAOTLogger logger) {
+            assert file.isAbsolute();
+            final List<XMLFilter> res = new ArrayList<>();
+            for (int i = 0; i < pipe.size(); i++) {
+                if (pipe.get(i).predicate.test(fi)) {
+                    final AbstractXMLFilter f = filters.get(i);
+                    logger.debug("Configure filter " + f.getClass().getCanonicalName());
+                    f.setCurrentFile(file);
+                    f.setJob(job);
+                    f.setLogger(logger);
+                    res.add(f);
+                }
+            }
+            return res;
+        }
+    }
+
+}
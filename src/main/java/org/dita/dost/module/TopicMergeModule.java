@@ -8,6 +8,7 @@
  */
 package org.dita.dost.module;
 
+import com.google.common.io.FileBackedOutputStream;
 import org.dita.dost.exception.DITAOTException;
 import org.dita.dost.log.MessageUtils;
 import org.dita.dost.pipeline.AbstractPipelineInput;
@@ -64,12 +65,28 @@ final class TopicMergeModule extends AbstractPipelineModuleImpl {
                 : null;
         final File out = new File(input.getAttribute(ANT_INVOKER_EXT_PARAM_OUTPUT)).getAbsoluteFile();
 
+        // Merged document is buffered into a temporary file when it grows larger than the threshold
+        final FileBackedOutputStream midBuffer = new FileBackedOutputStream(MergeMapParser.BUFFER_THRESHOLD);
+        try {
+            mergeTopics(midBuffer, ditaInput, out, style);
+        } finally {
+            try {
+                midBuffer.reset();
+            } catch (final IOException e) {
+                logger.error("Failed to delete merge buffer: " + e.getMessage(), e);
+            }
+        }
+
+        return null;
+    }
+
+    private void mergeTopics(final FileBackedOutputStream midBuffer, final File ditaInput, final File out,
+                             final File style) throws DITAOTException {
         final MergeMapParser mapParser = new MergeMapParser();
         mapParser.setLogger(logger);
         mapParser.setJob(job);
         mapParser.setOutput(out);
 
-        final ByteArrayOutputStream midBuffer = new ByteArrayOutputStream();
         try {
             midBuffer.write(XML_HEAD.getBytes(StandardCharsets.UTF_8));
             midBuffer.write(("<dita-merge " + ATTRIBUTE_NAMESPACE_PREFIX_DITAARCHVERSION + "='" + DITA_NAMESPACE + "' "
@@ -77,6 +94,7 @@ final class TopicMergeModule extends AbstractPipelineModuleImpl {
             mapParser.setOutputStream(midBuffer);
             mapParser.read(ditaInput, job.tempDir);
             midBuffer.write("</dita-merge>".getBytes(StandardCharsets.UTF_8));
+            midBuffer.close();
         } catch (final UnsupportedEncodingException e) {
             throw new RuntimeException(e);
         } catch (final IOException e) {
@@ -93,11 +111,13 @@ final class TopicMergeModule extends AbstractPipelineModuleImpl {
                 factory.setURIResolver(CatalogUtils.getCatalogResolver());
                 final StreamSource styleSource = new StreamSource(style);
                 final Transformer transformer = withLogger(factory.newTransformer(styleSource), logger);
-                final StreamSource source = new StreamSource(new ByteArrayInputStream(midBuffer.toByteArray()));
-                final StreamResult result = new StreamResult(output);
-                transformer.transform(source, result);
+                try (final InputStream mid = midBuffer.asByteSource().openBufferedStream()) {
+                    final StreamSource source = new StreamSource(mid);
+                    final StreamResult result = new StreamResult(output);
+                    transformer.transform(source, result);
+                }
             } else {
-                output.write(midBuffer.toByteArray());
+                midBuffer.asByteSource().copyTo(output);
                 output.flush();
             }
         } catch (final RuntimeException e) {
@@ -105,8 +125,6 @@ final class TopicMergeModule extends AbstractPipelineModuleImpl {
         } catch (final Exception e) {
             throw new DITAOTException("Failed to process merged topics: " + e.getMessage(), e);
         }
-
-        return null;
     }
 
 }
@@ -8,34 +8,35 @@
 package org.dita.dost.module;
 
 import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.log.BufferedLogger;
 import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
 import org.dita.dost.util.Job.FileInfo;
 import org.dita.dost.util.XMLUtils;
 import org.dita.dost.writer.AbstractXMLFilter;
-import org.xml.sax.XMLFilter;
 
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Map processes topics through XML filters. Filters are reused and should reset internal state on
  * {@code startDocument} event.
+ *
+ * <p>In parallel mode each worker thread creates its own filter instances using the filter factories.
+ * Log messages are buffered per file and written in input order.</p>
  */
-public final class XmlFilterModule extends AbstractPipelineModuleImpl {
-
-    private final XMLUtils xmlUtils = new XMLUtils();
-    private List<FilterPair> pipe;
+public final class XmlFilterModule extends AbstractPipelineModuleImpl implements XmlFilterPipeModule {
 
-    @Override
-    public void setLogger(final DITAOTLogger logger) {
-        super.setLogger(logger);
-        xmlUtils.setLogger(logger);
-    }
+    private ProcessingPipe pipe = ProcessingPipe.EMPTY;
 
     /**
      * Filter files through XML filters.
@@ -47,55 +48,125 @@ public final class XmlFilterModule extends AbstractPipelineModuleImpl {
     public AbstractPipelineOutput execute(final AbstractPipelineInput input)
             throws DITAOTException {
         final Collection<FileInfo> fis = job.getFileInfo(fileInfoFilter);
-        for (final FileInfo f: fis) {
-            final URI file = job.tempDirURI.resolve(f.uri);
-            logger.info("Processing " + file);
-            try {
-                xmlUtils.transform(file, getProcessingPipe(f));
-            } catch (final DITAOTException e) {
-                logger.error("Failed to process XML filter: " + e.getMessage(), e);
+        if (parallel && fis.size() > 1 && pipe.isThreadSafe(logger)) {
+            executeParallel(fis);
+        } else {
+            final Worker worker = new Worker(logger);
+            for (final FileInfo f: fis) {
+                worker.process(f, logger);
             }
         }
         return null;
     }
 
+    private void executeParallel(final Collection<FileInfo> fis) throws DITAOTException {
+        final int threads = Math.min(getParallelism(), fis.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(logger));
+        try {
+            final List<Future<BufferedLogger>> results = new ArrayList<>(fis.size());
+            for (final FileInfo f: fis) {
+                results.add(executor.submit(() -> {
+                    final BufferedLogger buffer = new BufferedLogger(logger);
+                    workers.get().process(f, buffer);
+                    return buffer;
+                }));
+            }
+            for (final Future<BufferedLogger> result : results) {
+                result.get().flush();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DITAOTException("Parallel XML filter processing interrupted", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DITAOTException("Failed to process XML filter: " + cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
     public void setProcessingPipe(final List<FilterPair> pipe) {
-        this.pipe = pipe;
+        this.pipe = new ProcessingPipe(pipe);
     }
 
     /**
-     * Get pipe line filters
-     *
-     * @param fi current file being processed
+     * Filter processor with its own filter instances.
      */
-    private List<XMLFilter> getProcessingPipe(final FileInfo fi) {
-        final URI fileToParse = job.tempDirURI.resolve(fi.uri);
-        assert fileToParse.isAbsolute();
-        final List<XMLFilter> res = new ArrayList<>();
-        for (final FilterPair p: pipe) {
-            if (p.predicate.test(fi)) {
-                final AbstractXMLFilter f = p.filter;
-                logger.debug("Configure filter " + f.getClass().getCanonicalName());
-                f.setCurrentFile(fileToParse);
-                f.setJob(job);
-                f.setLogger(logger);
-                res.add(f);
+    private final class Worker {
+
+        private final XMLUtils xmlUtils = new XMLUtils();
+        private final ProcessingPipe.Filters filters = pipe.newFilters();
+
+        Worker(final DITAOTLogger logger) {
+            xmlUtils.setLogger(logger);
+        }
+
+        void process(final FileInfo f, final DITAOTLogger logger) {
+            final URI file = job.tempDirURI.resolve(f.uri);
+            logger.info("Processing " + file);
+            try {
+                xmlUtils.setLogger(logger);
+                xmlUtils.transform(file, filters.get(f, file, job, logger));
+            } catch (final DITAOTException e) {
+                logger.error("Failed to process XML filter: " + e.getMessage(), e);
             }
         }
-        return res;
     }
 
     /**
      * SAX filter with file predicate.
      */
     public static class FilterPair {
+        /**
+         * Shared filter instance, {@code null} if filter is created with a factory.
+         *
+         * @deprecated since 3.2, use {@link #newFilter()}
+         */
+        @Deprecated
         public final AbstractXMLFilter filter;
+        public final Supplier<AbstractXMLFilter> factory;
         public final Predicate<FileInfo> predicate;
 
+        /**
+         * Create filter pair with a shared filter instance. Shared filter instances are not safe for parallel
+         * processing.
+         *
+         * @deprecated since 3.2, use {@link #FilterPair(Supplier, Predicate)}
+         */
+        @Deprecated
         public FilterPair(final AbstractXMLFilter filter, final Predicate<FileInfo> fileInfoFilter) {
             this.filter = filter;
+            this.factory = () -> filter;
             this.predicate = fileInfoFilter;
         }
+
+        /**
+         * Create filter pair with a filter factory.
+         *
+         * @param factory factory that returns a new configured filter instance on every call
+         * @param fileInfoFilter file predicate
+         * @since 3.2
+         */
+        public FilterPair(final Supplier<AbstractXMLFilter> factory, final Predicate<FileInfo> fileInfoFilter) {
+            this.filter = null;
+            this.factory = factory;
+            this.predicate = fileInfoFilter;
+        }
+
+        /**
+         * Get filter instance.
+         *
+         * @return filter instance
+         * @since 3.2
+         */
+        public AbstractXMLFilter newFilter() {
+            return factory.get();
+        }
     }
 
 }
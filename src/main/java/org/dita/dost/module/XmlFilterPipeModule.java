@@ -0,0 +1,30 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import org.dita.dost.module.XmlFilterModule.FilterPair;
+
+import java.util.List;
+
+/**
+ * Pipeline module that parses and serializes each processed file through a SAX filter pipe. Filters of adjacent
+ * SAX pipe elements can be given to the module, so that each file is parsed and serialized only once.
+ *
+ * @since 3.2
+ */
+public interface XmlFilterPipeModule extends AbstractPipelineModule {
+
+    /**
+     * Set SAX filters to run in the module pass. Filters are run after the filters of the module itself, and each
+     * filter is applied to the files accepted by its predicate.
+     *
+     * @param pipe SAX filters in pipe order
+     */
+    void setProcessingPipe(List<FilterPair> pipe);
+
+}
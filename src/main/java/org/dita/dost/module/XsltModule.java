@@ -7,33 +7,58 @@
  */
 package org.dita.dost.module;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import net.sf.saxon.jaxp.TransformerImpl;
 import net.sf.saxon.lib.ExtensionFunctionDefinition;
+import net.sf.saxon.om.NodeInfo;
 import org.apache.tools.ant.types.XMLCatalog;
 import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.FileUtils;
 import org.apache.xml.resolver.tools.CatalogResolver;
 import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.log.BufferedLogger;
+import org.dita.dost.log.DITAOTLogger;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
 import org.dita.dost.pipeline.AbstractPipelineInput;
 import org.dita.dost.pipeline.AbstractPipelineOutput;
 import org.dita.dost.util.CatalogUtils;
 import org.dita.dost.util.Configuration;
+import org.dita.dost.util.IncrementalManifest;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.XMLUtils;
 import org.xml.sax.EntityResolver;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLFilter;
 import org.xml.sax.XMLReader;
 
 import javax.xml.transform.*;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.dita.dost.util.Constants.ATTR_FORMAT_VALUE_DITAMAP;
+import static org.dita.dost.util.Constants.CONF_XSLT_DOCUMENT_CACHE_SIZE;
+import static org.dita.dost.util.Constants.CONF_XSLT_TEMPLATES_CACHE_SIZE;
 import static org.dita.dost.util.FileUtils.replaceExtension;
+import static org.dita.dost.util.FileUtils.replaceFile;
 import static org.dita.dost.util.XMLUtils.withLogger;
 
 /**
@@ -46,8 +71,31 @@ import static org.dita.dost.util.XMLUtils.withLogger;
  *   <li>If no {@code extension} attribute is set, the target file extension is the same as the source file extension.</li>
  * </ul>
  *
+ * <p>In parallel mode files are transformed by worker threads that share the compiled stylesheet. Each worker
+ * uses its own {@code Transformer}. Log messages are buffered per file and written in input order. Lookups to an
+ * Ant XML catalog are serialized between workers.</p>
+ *
+ * <p>In incremental mode a manifest of source fingerprints is kept in the manifest directory, and files whose
+ * preprocessed source and output file are unchanged since the previous build are not transformed again. Only the
+ * transformation is incremental, preprocessing always runs. Stylesheet modules, parameters, parameter files, the job
+ * file list and maps are part of a global fingerprint; if any of them change, all files are transformed. The
+ * manifest directory defaults to a hidden sibling of the destination directory, {@code .<name>.incremental}, so
+ * that no bookkeeping files are written into the output and manifests are kept together with the output they
+ * describe.</p>
+ *
+ * <p>SAX filters set with {@link #setProcessingPipe(List)} are applied to the transformation results when files
+ * in the temporary directory are transformed in place. Other files accepted by the filters are processed in a
+ * separate pass after the transformation.</p>
+ *
  */
-public final class XsltModule extends AbstractPipelineModuleImpl {
+public final class XsltModule extends AbstractPipelineModuleImpl implements XmlFilterPipeModule {
+
+    /** Default maximum number of compiled stylesheets in templates cache. */
+    private static final int DEFAULT_TEMPLATES_CACHE_SIZE = 64;
+    /** Compiled stylesheets shared between module instances, keyed by stylesheet file. */
+    private static final Map<File, CachedTemplates> templatesCache = new TemplatesCache(getTemplatesCacheSize());
+    /** Default maximum total size of source files in document cache. */
+    private static final long DEFAULT_DOCUMENT_CACHE_SIZE = 32L * 1024L * 1024L;
 
     private Templates templates;
     private final Map<String, String> params = new HashMap<>();
@@ -65,8 +113,14 @@ public final class XsltModule extends AbstractPipelineModuleImpl {
     private URIResolver uriResolver;
     private FileNameMapper mapper;
     private String extension;
-    private Transformer t;
-    private XMLReader parser;
+    private DocumentCache documentCache;
+    private boolean incremental;
+    private File manifestDir;
+    private ProcessingPipe pipe = ProcessingPipe.EMPTY;
+    /** Job files of included files, {@code null} if transformation results are not job files. */
+    private Map<File, Job.FileInfo> fileInfos;
+    /** Files that have been processed with the SAX filter pipe. */
+    private final Set<URI> piped = ConcurrentHashMap.newKeySet();
 
     private void init() {
         if (entityResolver == null || uriResolver == null) {
@@ -82,36 +136,33 @@ public final class XsltModule extends AbstractPipelineModuleImpl {
                 includes.add(f.file);
             }
             baseDir = job.tempDir;
+            if (!pipe.isEmpty() && mapper == null && extension == null
+                    && destDir != null && destDir.getAbsoluteFile().equals(job.tempDir.getAbsoluteFile())) {
+                fileInfos = new HashMap<>(res.size());
+                for (final Job.FileInfo f : res) {
+                    fileInfos.put(f.file, f);
+                }
+            }
         }
     }
 
     public AbstractPipelineOutput execute(AbstractPipelineInput input) throws DITAOTException {
         init();
         if ((includes == null || includes.isEmpty()) && (in == null)) {
+            pipe.execute(input, job, logger, parallel, f -> true);
             return null;
         }
 
         if (destDir != null) {
             logger.info("Transforming into " + destDir.getAbsolutePath());
         }
-        final TransformerFactory tf = TransformerFactory.newInstance();
-        configureExtensions(tf);
-        tf.setURIResolver(uriResolver);
-        try {
-            templates = tf.newTemplates(new StreamSource(style));
-        } catch (TransformerConfigurationException e) {
-            throw new RuntimeException("Failed to compile stylesheet '" + style.getAbsolutePath() + "': " + e.getMessage(), e);
-        }
-        try {
-            parser = XMLUtils.getXMLReader();
-        } catch (final SAXException e) {
-            throw new RuntimeException("Failed to create XML reader: " + e.getMessage(), e);
-        }
-        parser.setEntityResolver(entityResolver);
-
+        templates = getTemplates();
+        final long cacheSize = getDocumentCacheSize();
+        documentCache = cacheSize > 0 ? new DocumentCache(cacheSize) : null;
         if (in != null) {
-            transform(in, out);
+            new Worker(entityResolver, uriResolver).transform(in, out, null, logger);
         } else {
+            List<FilePair> files = new ArrayList<>(includes.size());
             for (final File include : includes) {
                 final File in = new File(baseDir, include.getPath());
                 File out = new File(destDir, include.getPath());
@@ -127,73 +178,699 @@ public final class XsltModule extends AbstractPipelineModuleImpl {
                 } else if (extension != null) {
                     out = new File(replaceExtension(out.getAbsolutePath(), extension));
                 }
-                transform(in, out);
+                files.add(new FilePair(in, out, include.getPath().replace(File.separatorChar, '/'),
+                        fileInfos != null ? fileInfos.get(include) : null));
+            }
+            final IncrementalManifest manifest = incremental && destDir != null && !destDir.equals(baseDir)
+                    ? IncrementalManifest.read(getManifestFile(), getFingerprint())
+                    : null;
+            if (manifest != null) {
+                files = getChangedFiles(files, manifest);
+            }
+            if (parallel && files.size() > 1 && pipe.isThreadSafe(logger)) {
+                executeParallel(files, manifest);
+            } else {
+                final Worker worker = new Worker(entityResolver, uriResolver);
+                for (final FilePair f : files) {
+                    if (worker.transform(f.in, f.out, f.fileInfo, logger) && manifest != null && f.fingerprint != null) {
+                        manifest.put(f.key, f.fingerprint);
+                    }
+                }
+            }
+            if (manifest != null) {
+                try {
+                    manifest.write();
+                } catch (final IOException e) {
+                    logger.warn("Failed to write incremental build manifest: " + e.getMessage());
+                }
             }
         }
+        pipe.execute(input, job, logger, parallel, f -> !piped.contains(f.uri));
         return null;
     }
 
-    private void transform(final File in, final File out) throws DITAOTException {
-        if (reloadstylesheet || t == null) {
-            logger.info("Loading stylesheet " + style.getAbsolutePath());
+    /**
+     * Get files that need to be transformed and record source fingerprints.
+     *
+     * @param files all files
+     * @param manifest incremental build manifest
+     * @return files whose source or output have changed since previous build
+     */
+    private List<FilePair> getChangedFiles(final List<FilePair> files, final IncrementalManifest manifest) {
+        final List<FilePair> res = new ArrayList<>(files.size());
+        for (final FilePair f : files) {
             try {
-                t = withLogger(templates.newTransformer(), logger);
-                final URIResolver resolver = Configuration.DEBUG
-                        ? new XMLUtils.DebugURIResolver(uriResolver)
-                        : uriResolver;
-                t.setURIResolver(resolver);
-            } catch (final TransformerConfigurationException e) {
-                throw new DITAOTException("Failed to create Transformer: " + e.getMessage(), e);
-            }
-            t.setOutputProperties(properties);
-        }
-
-        final boolean same = in.getAbsolutePath().equals(out.getAbsolutePath());
-        final File tmp = same ? new File(out.getAbsolutePath() + ".tmp" + Long.toString(System.currentTimeMillis())) : out;
-        for (Map.Entry<String, String> e: params.entrySet()) {
-            logger.debug("Set parameter " + e.getKey() + " to '" + e.getValue() + "'");
-            t.setParameter(e.getKey(), e.getValue());
-        }
-        if (filenameparameter != null) {
-            logger.debug("Set parameter " + filenameparameter + " to '" + in.getName() + "'");
-            t.setParameter(filenameparameter, in.getName());
-        }
-        if (filedirparameter != null) {
-            final Path rel = job.tempDir.toPath().relativize(in.getAbsoluteFile().toPath()).getParent();
-            final String v = rel != null ? rel.toString() : ".";
-            logger.debug("Set parameter " + filedirparameter + " to '" + v + "'");
-            t.setParameter(filedirparameter, v);
-        }
-        if (same) {
-            logger.info("Processing " + in.getAbsolutePath());
-            logger.debug("Processing " + in.getAbsolutePath() + " to " + tmp.getAbsolutePath());
+                f.fingerprint = IncrementalManifest.getFingerprint(f.in);
+            } catch (final IOException e) {
+                res.add(f);
+                continue;
+            }
+            if (f.out.isFile() && manifest.isUnchanged(f.key, f.fingerprint)) {
+                logger.debug("Skip unchanged " + f.in.getAbsolutePath());
+                manifest.put(f.key, f.fingerprint);
+            } else {
+                res.add(f);
+            }
+        }
+        if (res.size() < files.size()) {
+            logger.info("Skip " + (files.size() - res.size()) + " unchanged files");
+        }
+        return res;
+    }
+
+    /**
+     * Get incremental build manifest file. Each destination directory and stylesheet pair has its own manifest.
+     */
+    private File getManifestFile() {
+        final File dir = manifestDir != null
+                ? manifestDir
+                : getDefaultManifestDir(destDir);
+        final String id = Hashing.sha256().newHasher()
+                .putString(destDir.getAbsolutePath(), UTF_8)
+                .putByte((byte) 0)
+                .putString(style.getAbsolutePath(), UTF_8)
+                .hash().toString().substring(0, 16);
+        return new File(dir, "xslt-" + id + ".manifest");
+    }
+
+    /**
+     * Get default manifest directory, a hidden sibling of the destination directory.
+     *
+     * @param destDir destination directory
+     * @return manifest directory
+     */
+    static File getDefaultManifestDir(final File destDir) {
+        final File dir = destDir.getAbsoluteFile();
+        final File parent = dir.getParentFile();
+        return parent != null
+                ? new File(parent, "." + dir.getName() + ".incremental")
+                : new File(dir, ".incremental");
+    }
+
+    /**
+     * Get global fingerprint of transformation configuration. Covers stylesheet modules, parameters, output
+     * properties, local files referenced by parameters, the job file list, and the contents of maps.
+     *
+     * @return global fingerprint
+     */
+    private String getFingerprint() {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        putString(hasher, style.getAbsolutePath());
+        final CachedTemplates cached = templatesCache.get(style.getAbsoluteFile());
+        if (cached != null) {
+            for (final Map.Entry<File, Long> dependency : new TreeMap<>(cached.dependencies).entrySet()) {
+                putString(hasher, dependency.getKey().getAbsolutePath());
+                hasher.putLong(dependency.getValue());
+            }
+        }
+        for (final Map.Entry<String, String> param : new TreeMap<>(params).entrySet()) {
+            putString(hasher, param.getKey());
+            putString(hasher, param.getValue());
+            final File file = toFile(param.getValue());
+            if (file != null) {
+                putFile(hasher, file);
+            }
+        }
+        for (final String name : new TreeSet<>(properties.stringPropertyNames())) {
+            putString(hasher, name);
+            putString(hasher, properties.getProperty(name));
+        }
+        putString(hasher, String.valueOf(filenameparameter));
+        putString(hasher, String.valueOf(filedirparameter));
+        putString(hasher, String.valueOf(extension));
+        putString(hasher, mapper != null ? mapper.getClass().getName() : "");
+        if (job != null) {
+            final List<Job.FileInfo> fileInfos = new ArrayList<>(job.getFileInfo());
+            fileInfos.sort(Comparator.comparing(f -> f.uri.toString()));
+            for (final Job.FileInfo f : fileInfos) {
+                putString(hasher, f.uri.toString());
+                putString(hasher, String.valueOf(f.format));
+                if (ATTR_FORMAT_VALUE_DITAMAP.equals(f.format) && f.file != null) {
+                    putFile(hasher, new File(job.tempDir, f.file.getPath()));
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putString(final Hasher hasher, final String value) {
+        hasher.putString(value, UTF_8).putByte((byte) 0);
+    }
+
+    private static void putFile(final Hasher hasher, final File file) {
+        try {
+            putString(hasher, IncrementalManifest.getFingerprint(file));
+        } catch (final IOException e) {
+            putString(hasher, "");
+        }
+    }
+
+    /**
+     * Get local file from a parameter value.
+     *
+     * @param value file path or file URI
+     * @return existing local file, {@code null} if value does not refer to one
+     */
+    private static File toFile(final String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        File file = null;
+        if (value.startsWith("file:")) {
+            try {
+                file = new File(new URI(value));
+            } catch (final URISyntaxException | IllegalArgumentException e) {
+                return null;
+            }
+        } else if (new File(value).isAbsolute()) {
+            file = new File(value);
+        }
+        return file != null && file.isFile() ? file : null;
+    }
+
+    private void executeParallel(final List<FilePair> files, final IncrementalManifest manifest) throws DITAOTException {
+        final int threads = Math.min(getParallelism(), files.size());
+        final EntityResolver entityResolver;
+        final URIResolver uriResolver;
+        if (this.uriResolver instanceof XMLCatalog) {
+            // Ant XML catalog is not thread-safe, share a single synchronized wrapper between workers
+            final SynchronizedCatalog catalog = new SynchronizedCatalog((XMLCatalog) this.uriResolver);
+            entityResolver = this.entityResolver == this.uriResolver ? catalog : this.entityResolver;
+            uriResolver = catalog;
         } else {
-            logger.info("Processing " + in.getAbsolutePath() + " to " + tmp.getAbsolutePath());
+            entityResolver = this.entityResolver;
+            uriResolver = this.uriResolver;
         }
-        final Source source = new SAXSource(parser, new InputSource(in.toURI().toString()));
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(entityResolver, uriResolver));
         try {
-            if (!tmp.getParentFile().exists() && !tmp.getParentFile().mkdirs()) {
-                throw new IOException("Failed to create directory " + tmp.getParent());
+            final List<Future<BufferedLogger>> results = new ArrayList<>(files.size());
+            for (final FilePair f : files) {
+                results.add(executor.submit(() -> {
+                    final BufferedLogger buffer = new BufferedLogger(logger);
+                    if (workers.get().transform(f.in, f.out, f.fileInfo, buffer) && manifest != null && f.fingerprint != null) {
+                        manifest.put(f.key, f.fingerprint);
+                    }
+                    return buffer;
+                }));
+            }
+            for (final Future<BufferedLogger> result : results) {
+                result.get().flush();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DITAOTException("Parallel XSLT processing interrupted", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof DITAOTException) {
+                throw (DITAOTException) cause;
+            }
+            throw new DITAOTException("Failed to transform document: " + cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get compiled stylesheet. Compiled stylesheets are cached and reused as long as the URI resolver is the same and
+     * none of the stylesheet modules have been modified.
+     *
+     * @return compiled stylesheet
+     */
+    private Templates getTemplates() {
+        final File styleFile = style.getAbsoluteFile();
+        final CachedTemplates cached = templatesCache.get(styleFile);
+        if (cached != null) {
+            if (cached.isValid(uriResolver)) {
+                logger.debug("Reuse compiled stylesheet " + styleFile);
+                return cached.templates;
+            }
+            templatesCache.remove(styleFile);
+        }
+        final TransformerFactory tf = TransformerFactory.newInstance();
+        configureExtensions(tf);
+        final DependencyURIResolver resolver = new DependencyURIResolver(uriResolver);
+        resolver.dependencies.put(styleFile, styleFile.lastModified());
+        tf.setURIResolver(resolver);
+        final Templates res;
+        try {
+            res = tf.newTemplates(new StreamSource(style));
+        } catch (TransformerConfigurationException e) {
+            throw new RuntimeException("Failed to compile stylesheet '" + style.getAbsolutePath() + "': " + e.getMessage(), e);
+        }
+        synchronized (templatesCache) {
+            templatesCache.values().removeIf(CachedTemplates::isRemoved);
+            templatesCache.put(styleFile, new CachedTemplates(res, uriResolver, resolver.dependencies));
+        }
+        return res;
+    }
+
+    /**
+     * Get maximum number of compiled stylesheets in templates cache.
+     *
+     * @return maximum number of cached stylesheets, zero if caching is disabled
+     */
+    private static int getTemplatesCacheSize() {
+        final String size = Configuration.configuration.get(CONF_XSLT_TEMPLATES_CACHE_SIZE);
+        if (size != null) {
+            try {
+                return Math.max(0, Integer.parseInt(size.trim()));
+            } catch (final NumberFormatException e) {
+                // Fall back to default size
+            }
+        }
+        return DEFAULT_TEMPLATES_CACHE_SIZE;
+    }
+
+    /**
+     * Bounded cache of compiled stylesheets. Stylesheets are evicted in least recently used order when the number of
+     * cached stylesheets exceeds the limit.
+     */
+    @VisibleForTesting
+    static final class TemplatesCache extends AbstractMap<File, CachedTemplates> {
+        private final int maxSize;
+        private final LinkedHashMap<File, CachedTemplates> templates = new LinkedHashMap<>(16, 0.75f, true);
+
+        TemplatesCache(final int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public synchronized CachedTemplates get(final Object key) {
+            return templates.get(key);
+        }
+
+        @Override
+        public synchronized CachedTemplates put(final File key, final CachedTemplates value) {
+            if (maxSize == 0) {
+                return null;
+            }
+            final CachedTemplates old = templates.put(key, value);
+            final Iterator<CachedTemplates> it = templates.values().iterator();
+            while (templates.size() > maxSize && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+            return old;
+        }
+
+        @Override
+        public synchronized CachedTemplates remove(final Object key) {
+            return templates.remove(key);
+        }
+
+        @Override
+        public Set<Entry<File, CachedTemplates>> entrySet() {
+            return templates.entrySet();
+        }
+    }
+
+    /** Compiled stylesheet with the modification times of its stylesheet modules. */
+    @VisibleForTesting
+    static final class CachedTemplates {
+        final Templates templates;
+        final URIResolver uriResolver;
+        final Map<File, Long> dependencies;
+
+        CachedTemplates(final Templates templates, final URIResolver uriResolver, final Map<File, Long> dependencies) {
+            this.templates = templates;
+            this.uriResolver = uriResolver;
+            this.dependencies = dependencies;
+        }
+
+        boolean isValid(final URIResolver uriResolver) {
+            if (this.uriResolver != uriResolver) {
+                return false;
+            }
+            for (final Map.Entry<File, Long> dependency : dependencies.entrySet()) {
+                if (dependency.getKey().lastModified() != dependency.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Test if any of the stylesheet modules has been removed.
+         *
+         * @return {@code true} if stylesheet can no longer be valid, otherwise {@code false}
+         */
+        boolean isRemoved() {
+            for (final File dependency : dependencies.keySet()) {
+                if (!dependency.exists()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** URI resolver wrapper that collects local stylesheet modules read during compilation. */
+    private static final class DependencyURIResolver implements URIResolver {
+        private final URIResolver resolver;
+        final Map<File, Long> dependencies = new HashMap<>();
+
+        DependencyURIResolver(final URIResolver resolver) {
+            this.resolver = resolver;
+        }
+
+        @Override
+        public Source resolve(final String href, final String base) throws TransformerException {
+            final Source res = resolver != null ? resolver.resolve(href, base) : null;
+            try {
+                final URI uri;
+                if (res != null && res.getSystemId() != null) {
+                    uri = new URI(res.getSystemId());
+                } else if (base != null) {
+                    uri = new URI(base).resolve(href);
+                } else {
+                    uri = new URI(href);
+                }
+                if ("file".equals(uri.getScheme())) {
+                    final File file = new File(uri);
+                    dependencies.put(file, file.lastModified());
+                }
+            } catch (final URISyntaxException | IllegalArgumentException e) {
+                // Not a local file, assume unmodifiable
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Get maximum size of document cache.
+     *
+     * @return maximum total size of cached source files in bytes, zero if caching is disabled
+     */
+    private long getDocumentCacheSize() {
+        final String size = Configuration.configuration.get(CONF_XSLT_DOCUMENT_CACHE_SIZE);
+        if (size != null) {
+            try {
+                return Math.max(0L, Long.parseLong(size.trim())) * 1024L * 1024L;
+            } catch (final NumberFormatException e) {
+                logger.warn("Invalid " + CONF_XSLT_DOCUMENT_CACHE_SIZE + " value " + size);
+            }
+        }
+        return DEFAULT_DOCUMENT_CACHE_SIZE;
+    }
+
+    /**
+     * Bounded cache of documents read with {@code document()} during a single module run. Documents are evicted in
+     * least recently used order when the total size of cached source files exceeds the limit.
+     *
+     * <p>Removing a document records a generation number for it. A document parsed before the latest removal of the
+     * same URI is not added to the cache, so a tree read while another worker rewrote the file is never cached.</p>
+     */
+    @VisibleForTesting
+    static final class DocumentCache {
+        private final long maxSize;
+        private final LinkedHashMap<URI, CachedDocument> documents = new LinkedHashMap<>(16, 0.75f, true);
+        /** Generation of the latest removal for each removed URI. */
+        private final Map<URI, Long> removed = new HashMap<>();
+        private long generation;
+        private long size;
+
+        DocumentCache(final long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        synchronized NodeInfo get(final URI uri) {
+            final CachedDocument doc = documents.get(uri);
+            return doc != null ? doc.root : null;
+        }
+
+        /**
+         * Get current generation. Read the generation before parsing a document to add to the cache.
+         *
+         * @return current generation
+         */
+        synchronized long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Add document to cache.
+         *
+         * @param uri document URI
+         * @param root document root node
+         * @param length document file size
+         * @param generation generation read before the document was parsed
+         */
+        synchronized void put(final URI uri, final NodeInfo root, final long length, final long generation) {
+            if (length > maxSize) {
+                return;
+            }
+            final Long removedGeneration = removed.get(uri);
+            if (removedGeneration != null && removedGeneration > generation) {
+                return;
+            }
+            final CachedDocument old = documents.put(uri, new CachedDocument(root, length));
+            if (old != null) {
+                size -= old.length;
+            }
+            size += length;
+            final Iterator<CachedDocument> it = documents.values().iterator();
+            while (size > maxSize && it.hasNext()) {
+                size -= it.next().length;
+                it.remove();
+            }
+        }
+
+        synchronized void remove(final URI uri) {
+            final URI key = uri.normalize();
+            removed.put(key, ++generation);
+            final CachedDocument old = documents.remove(key);
+            if (old != null) {
+                size -= old.length;
+            }
+        }
+    }
+
+    private static final class CachedDocument {
+        final NodeInfo root;
+        final long length;
+
+        CachedDocument(final NodeInfo root, final long length) {
+            this.root = root;
+            this.length = length;
+        }
+    }
+
+    /** URI resolver that reuses parsed local documents from a document cache. */
+    private static final class CachingURIResolver implements URIResolver {
+        private final URIResolver resolver;
+        private final DocumentCache cache;
+        private final net.sf.saxon.Configuration configuration;
+
+        CachingURIResolver(final URIResolver resolver, final DocumentCache cache,
+                           final net.sf.saxon.Configuration configuration) {
+            this.resolver = resolver;
+            this.cache = cache;
+            this.configuration = configuration;
+        }
+
+        @Override
+        public Source resolve(final String href, final String base) throws TransformerException {
+            final Source res = resolver != null ? resolver.resolve(href, base) : null;
+            final URI uri;
+            try {
+                if (res != null) {
+                    uri = res.getSystemId() != null ? new URI(res.getSystemId()).normalize() : null;
+                } else {
+                    uri = (base != null ? new URI(base).resolve(href) : new URI(href)).normalize();
+                }
+            } catch (final URISyntaxException | IllegalArgumentException e) {
+                return res;
+            }
+            if (uri == null || !"file".equals(uri.getScheme()) || uri.getFragment() != null) {
+                return res;
+            }
+            NodeInfo root = cache.get(uri);
+            if (root == null) {
+                final File file = new File(uri);
+                if (!file.isFile()) {
+                    return res;
+                }
+                final long generation = cache.getGeneration();
+                final Source source = res != null ? res : new StreamSource(uri.toString());
+                root = configuration.buildDocumentTree(source).getRootNode();
+                cache.put(uri, root, file.length(), generation);
+            }
+            return root;
+        }
+    }
+
+    /**
+     * Ant XML catalog wrapper that serializes catalog lookups from parallel workers. Lookups are synchronized on the
+     * catalog. Parsers of sources returned by the catalog use the wrapper as their entity resolver, so that DTD and
+     * entity lookups of e.g. {@code document()} targets are serialized too.
+     */
+    private static final class SynchronizedCatalog implements EntityResolver, URIResolver {
+        private final XMLCatalog catalog;
+
+        SynchronizedCatalog(final XMLCatalog catalog) {
+            this.catalog = catalog;
+        }
+
+        @Override
+        public InputSource resolveEntity(final String publicId, final String systemId)
+                throws SAXException, IOException {
+            synchronized (catalog) {
+                return catalog.resolveEntity(publicId, systemId);
+            }
+        }
+
+        @Override
+        public Source resolve(final String href, final String base) throws TransformerException {
+            final Source source;
+            synchronized (catalog) {
+                source = catalog.resolve(href, base);
+            }
+            if (source instanceof SAXSource) {
+                final XMLReader reader = ((SAXSource) source).getXMLReader();
+                if (reader != null) {
+                    reader.setEntityResolver(this);
+                }
+            }
+            return source;
+        }
+    }
+
+    /** Source and result file of a single transformation. */
+    private static final class FilePair {
+        final File in;
+        final File out;
+        /** Incremental build manifest key. */
+        final String key;
+        /** Job file of the transformation result, {@code null} if SAX filter pipe is not applied. */
+        final Job.FileInfo fileInfo;
+        /** Source fingerprint, {@code null} if not computed. */
+        String fingerprint;
+
+        FilePair(final File in, final File out, final String key, final Job.FileInfo fileInfo) {
+            this.in = in;
+            this.out = out;
+            this.key = key;
+            this.fileInfo = fileInfo;
+        }
+    }
+
+    /**
+     * Transformation worker with its own XML reader and transformer. Compiled stylesheet is shared between workers.
+     */
+    private final class Worker {
+
+        private final URIResolver uriResolver;
+        private final XMLReader parser;
+        private final ProcessingPipe.Filters filters = pipe.newFilters();
+        private final SAXTransformerFactory serializerFactory = (SAXTransformerFactory) TransformerFactory.newInstance();
+        private Transformer t;
+
+        Worker(final EntityResolver entityResolver, final URIResolver uriResolver) {
+            this.uriResolver = uriResolver;
+            try {
+                parser = XMLUtils.getXMLReader();
+            } catch (final SAXException e) {
+                throw new RuntimeException("Failed to create XML reader: " + e.getMessage(), e);
+            }
+            parser.setEntityResolver(entityResolver);
+        }
+
+        /**
+         * Transform file.
+         *
+         * @param fileInfo job file of the result to select SAX filters, {@code null} to not apply filters
+         * @return {@code true} if transformation succeeded, otherwise {@code false}
+         */
+        boolean transform(final File in, final File out, final Job.FileInfo fileInfo, final DITAOTLogger logger)
+                throws DITAOTException {
+            if (reloadstylesheet || t == null) {
+                logger.info("Loading stylesheet " + style.getAbsolutePath());
+                try {
+                    t = templates.newTransformer();
+                    final URIResolver resolver = Configuration.DEBUG
+                            ? new XMLUtils.DebugURIResolver(uriResolver)
+                            : uriResolver;
+                    t.setURIResolver(resolver);
+                } catch (final TransformerConfigurationException e) {
+                    throw new DITAOTException("Failed to create Transformer: " + e.getMessage(), e);
+                }
+                t.setOutputProperties(properties);
+                if (documentCache != null && t instanceof TransformerImpl) {
+                    final net.sf.saxon.Configuration conf = ((TransformerImpl) t).getUnderlyingController().getConfiguration();
+                    t.setURIResolver(new CachingURIResolver(t.getURIResolver(), documentCache, conf));
+                }
+            }
+            withLogger(t, logger);
+            final boolean same = in.getAbsolutePath().equals(out.getAbsolutePath());
+            final File tmp = same ? new File(out.getAbsolutePath() + ".tmp" + Long.toString(System.currentTimeMillis())) : out;
+            for (Map.Entry<String, String> e: params.entrySet()) {
+                logger.debug("Set parameter " + e.getKey() + " to '" + e.getValue() + "'");
+                t.setParameter(e.getKey(), e.getValue());
+            }
+            if (filenameparameter != null) {
+                logger.debug("Set parameter " + filenameparameter + " to '" + in.getName() + "'");
+                t.setParameter(filenameparameter, in.getName());
+            }
+            if (filedirparameter != null) {
+                final Path rel = job.tempDir.toPath().relativize(in.getAbsoluteFile().toPath()).getParent();
+                final String v = rel != null ? rel.toString() : ".";
+                logger.debug("Set parameter " + filedirparameter + " to '" + v + "'");
+                t.setParameter(filedirparameter, v);
             }
-            t.transform(source, new StreamResult(tmp));
             if (same) {
-                logger.debug("Moving " + tmp.getAbsolutePath() + " to " + out.getAbsolutePath());
-                if (!out.delete()) {
-                    throw new IOException("Failed to to delete input file " + out.getAbsolutePath());
+                logger.info("Processing " + in.getAbsolutePath());
+                logger.debug("Processing " + in.getAbsolutePath() + " to " + tmp.getAbsolutePath());
+            } else {
+                logger.info("Processing " + in.getAbsolutePath() + " to " + tmp.getAbsolutePath());
+            }
+            final Source source = new SAXSource(parser, new InputSource(in.toURI().toString()));
+            try {
+                if (!tmp.getParentFile().exists() && !tmp.getParentFile().mkdirs()) {
+                    throw new IOException("Failed to create directory " + tmp.getParent());
                 }
-                if (!tmp.renameTo(out)) {
-                    throw new IOException("Failed to to replace input file " + out.getAbsolutePath());
+                final List<XMLFilter> fs = fileInfo != null
+                        ? filters.get(fileInfo, out.toURI(), job, logger)
+                        : Collections.emptyList();
+                if (fs.isEmpty()) {
+                    t.transform(source, new StreamResult(tmp));
+                } else {
+                    final TransformerHandler serializer = serializerFactory.newTransformerHandler();
+                    serializer.getTransformer().setOutputProperties(t.getOutputProperties());
+                    serializer.setResult(new StreamResult(tmp));
+                    final SAXResult result = new SAXResult(ProcessingPipe.chain(fs, serializer));
+                    result.setLexicalHandler(serializer);
+                    t.transform(source, result);
                 }
+                if (same) {
+                    logger.debug("Moving " + tmp.getAbsolutePath() + " to " + out.getAbsolutePath());
+                    replaceFile(tmp, out);
+                }
+                if (documentCache != null) {
+                    documentCache.remove(out.toURI());
+                }
+                if (fileInfo != null) {
+                    piped.add(fileInfo.uri);
+                }
+                return true;
+            } catch (final RuntimeException e) {
+                throw e;
+            } catch (final Exception e) {
+                logger.error("Failed to transform document: " + e.getMessage(), e);
+                logger.debug("Remove " + tmp.getAbsolutePath());
+                FileUtils.delete(tmp);
+                return false;
             }
-        } catch (final RuntimeException e) {
-            throw e;
-        } catch (final Exception e) {
-            logger.error("Failed to transform document: " + e.getMessage(), e);
-            logger.debug("Remove " + tmp.getAbsolutePath());
-            FileUtils.delete(tmp);
         }
     }
 
+    @Override
+    public void setProcessingPipe(final List<FilterPair> pipe) {
+        this.pipe = new ProcessingPipe(pipe);
+    }
+
     public void setStyle(final File style) {
         this.style = style;
     }
@@ -247,6 +924,26 @@ public final class XsltModule extends AbstractPipelineModuleImpl {
         this.mapper = mapper;
     }
 
+    /**
+     * Set incremental mode.
+     *
+     * @param incremental skip files that are unchanged since previous build
+     * @since 3.2
+     */
+    public void setIncremental(final boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Set directory for incremental build manifests.
+     *
+     * @param manifestDir manifest directory, {@code null} to use default
+     * @since 3.2
+     */
+    public void setManifestDir(final File manifestDir) {
+        this.manifestDir = manifestDir;
+    }
+
     public void setExtension(final String extension) {
         this.extension = extension.startsWith(".") ? extension : ("." + extension);
     }
@@ -14,6 +14,7 @@ import com.google.common.collect.SetMultimap;
 import org.apache.commons.io.FileUtils;
 import org.apache.xerces.xni.grammars.XMLGrammarPool;
 import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.log.BufferedLogger;
 import org.dita.dost.log.MessageUtils;
 import org.dita.dost.module.AbstractPipelineModuleImpl;
 import org.dita.dost.module.GenMapAndTopicListModule.TempFileNameScheme;
@@ -36,6 +37,10 @@ import javax.xml.transform.stream.StreamResult;
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -87,9 +92,11 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
     /** List of files waiting for parsing. Values are absolute URI references. */
     @VisibleForTesting
     final Queue<Reference> waitList = new LinkedList<>();
-    /** List of parsed files */
-    final List<URI> doneList = new LinkedList<>();
+    /** Set of parsed files */
+    final Set<URI> doneList = new HashSet<>();
     final List<URI> failureList = new LinkedList<>();
+    /** Set of files being parsed in parallel processing */
+    private final Set<URI> processingSet = new HashSet<>();
     /** Set of outer dita files */
     private final Set<URI> outDitaFilesSet = new HashSet<>(128);
     /** Set of sources of conacion */
@@ -144,15 +151,7 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
     void initFilters() {
         tempFileNameScheme.setBaseDir(job.getInputDir());
 
-        listFilter = new GenListModuleReader();
-        listFilter.setLogger(logger);
-        listFilter.setPrimaryDitamap(rootFile);
-        listFilter.setJob(job);
-        listFilter.setFormatFilter(formatFilter);
-
-        if (profilingEnabled) {
-            filterUtils = parseFilterFile();
-        }
+        listFilter = newListFilter();
 
         if (INDEX_TYPE_ECLIPSEHELP.equals(transtype)) {
             exportAnchorsFilter = new ExportAnchorsFilter();
@@ -176,6 +175,15 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
 
     }
 
+    private GenListModuleReader newListFilter() {
+        final GenListModuleReader listFilter = new GenListModuleReader();
+        listFilter.setLogger(logger);
+        listFilter.setPrimaryDitamap(rootFile);
+        listFilter.setJob(job);
+        listFilter.setFormatFilter(formatFilter);
+        return listFilter;
+    }
+
     /**
      * Init xml reader used for pipeline parsing.
      *
@@ -285,8 +293,159 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
     }
 
     void processWaitList() throws DITAOTException {
-        while (!waitList.isEmpty()) {
-            readFile(waitList.remove(), null);
+        if (parallel && exportAnchorsFilter == null) {
+            processWaitListParallel();
+        } else {
+            while (!waitList.isEmpty()) {
+                readFile(waitList.remove(), null);
+            }
+        }
+    }
+
+    /**
+     * Process wait list in parallel. Files in the wait list are parsed and serialized by worker threads, and parse
+     * results are collected in wait list order. Files found during collection are processed in the next round.
+     */
+    private void processWaitListParallel() throws DITAOTException {
+        final GenListModuleReader collector = listFilter;
+        final ExecutorService executor = Executors.newFixedThreadPool(getParallelism());
+        final ThreadLocal<AbstractReaderModule> workers = ThreadLocal.withInitial(this::newWorker);
+        try {
+            while (!waitList.isEmpty()) {
+                final List<Future<ParseResult>> results = new ArrayList<>(waitList.size());
+                while (!waitList.isEmpty()) {
+                    final Reference ref = waitList.remove();
+                    processingSet.add(ref.filename);
+                    final BufferedLogger buffer = new BufferedLogger(logger);
+                    results.add(executor.submit(() -> workers.get().parse(ref, buffer)));
+                }
+                for (final Future<ParseResult> future : results) {
+                    final ParseResult result = getParseResult(future);
+                    result.logger.flush();
+                    if (result.exception != null) {
+                        throw result.exception;
+                    }
+                    if (result.listFilter != null) {
+                        currentFile = result.ref.filename;
+                        outputFile = result.outputFile;
+                        listFilter = result.listFilter;
+                        if (result.failed) {
+                            failureList.add(currentFile);
+                        }
+                        handleParseResult(result.ref);
+                        collector.addAll(result.listFilter);
+                    }
+                }
+                processingSet.clear();
+            }
+        } finally {
+            listFilter = collector;
+            executor.shutdownNow();
+        }
+    }
+
+    private ParseResult getParseResult(final Future<ParseResult> future) throws DITAOTException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DITAOTException("Parallel processing interrupted", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DITAOTException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Create worker module for parallel processing. Worker has its own XML reader and filters and shares
+     * configuration with this module.
+     */
+    private AbstractReaderModule newWorker() {
+        final AbstractReaderModule worker;
+        try {
+            worker = getClass().newInstance();
+        } catch (final InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        // Configuration messages have already been logged by this module
+        worker.setLogger(new BufferedLogger(logger));
+        worker.setJob(job);
+        worker.setConfiguration(this);
+        try {
+            worker.initParser();
+        } catch (final SAXException e) {
+            throw new RuntimeException("Failed to initialize XML reader: " + e.getMessage(), e);
+        }
+        return worker;
+    }
+
+    /**
+     * Copy configuration read by {@link #parseInputParameters(AbstractPipelineInput)} and {@link #init()} from
+     * another module. Filter utilities are shared, because they have been refined for the whole job.
+     *
+     * @param src module to copy configuration from
+     */
+    private void setConfiguration(final AbstractReaderModule src) {
+        ditaDir = src.ditaDir;
+        validate = src.validate;
+        gramcache = src.gramcache;
+        transtype = src.transtype;
+        processingMode = src.processingMode;
+        genDebugInfo = src.genDebugInfo;
+        rootFile = src.rootFile;
+        baseInputDir = src.baseInputDir;
+        profilingEnabled = src.profilingEnabled;
+        ditavalFile = src.ditavalFile;
+        tempFileNameScheme = src.tempFileNameScheme;
+        filterUtils = src.filterUtils;
+    }
+
+    /**
+     * Parse and serialize a file in a worker module.
+     *
+     * @param ref file to parse
+     * @param logger logger for the file
+     * @return parse result
+     */
+    private ParseResult parse(final Reference ref, final BufferedLogger logger) {
+        setLogger(logger);
+        listFilter.setLogger(logger);
+        keydefFilter.setLogger(logger);
+        ditaWriterFilter.setLogger(logger);
+        final ParseResult result = new ParseResult(ref, logger);
+        try {
+            if (parseFile(ref, null)) {
+                result.outputFile = outputFile;
+                result.listFilter = listFilter;
+                result.failed = failureList.contains(currentFile);
+                failureList.clear();
+                listFilter = newListFilter();
+            }
+        } catch (final DITAOTException e) {
+            result.exception = e;
+            listFilter = newListFilter();
+        } finally {
+            keydefFilter.reset();
+        }
+        return result;
+    }
+
+    /** Result of parsing a single file in parallel processing. */
+    private static final class ParseResult {
+        final Reference ref;
+        final BufferedLogger logger;
+        File outputFile;
+        /** Reference reader used to parse the file, {@code null} if file was not parsed. */
+        GenListModuleReader listFilter;
+        boolean failed;
+        DITAOTException exception;
+
+        ParseResult(final Reference ref, final BufferedLogger logger) {
+            this.ref = ref;
+            this.logger = logger;
         }
     }
 
@@ -305,6 +464,20 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
      * @throws DITAOTException if processing failed
      */
     void readFile(final Reference ref, final URI parseFile) throws DITAOTException {
+        if (parseFile(ref, parseFile)) {
+            handleParseResult(ref);
+        }
+    }
+
+    /**
+     * Parse a file and serialize it into temporary directory. Failed files are added to failure list.
+     *
+     * @param ref system path of the file to process
+     * @param parseFile file to parse, may be {@code null}
+     * @return {@code false} if file was not parsed, otherwise {@code true}
+     * @throws DITAOTException if processing failed
+     */
+    private boolean parseFile(final Reference ref, final URI parseFile) throws DITAOTException {
         currentFile = ref.filename;
         assert currentFile.isAbsolute();
         final URI src = parseFile != null ? parseFile : currentFile;
@@ -314,7 +487,7 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
         final File outputDir = outputFile.getParentFile();
         if (!outputDir.exists() && !outputDir.mkdirs()) {
             logger.error("Failed to create output directory " + outputDir.getAbsolutePath());
-            return;
+            return false;
         }
         validateMap = Collections.emptyMap();
         defaultValueMap = Collections.emptyMap();
@@ -359,14 +532,6 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
             serializer.setResult(out);
             xmlSource.setContentHandler(serializer);
             xmlSource.parse(src.toString());
-
-            if (listFilter.isValidInput()) {
-                processParseResult(currentFile);
-                categorizeCurrentFile(ref);
-            } else if (!currentFile.equals(rootFile)) {
-                logger.warn(MessageUtils.getMessage("DOTJ021W", params).toString());
-                failureList.add(currentFile);
-            }
         } catch (final RuntimeException e) {
             throw e;
         } catch (final SAXParseException sax) {
@@ -420,6 +585,27 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
                 FileUtils.deleteQuietly(outputFile);
             }
         }
+        return true;
+    }
+
+    /**
+     * Collect reference information from the parsed current file.
+     *
+     * @param ref system path of the file to process
+     * @throws DITAOTException if processing failed
+     */
+    private void handleParseResult(final Reference ref) throws DITAOTException {
+        final String[] params = { currentFile.toString() };
+        if (!failureList.contains(currentFile)) {
+            if (listFilter.isValidInput()) {
+                processParseResult(currentFile);
+                categorizeCurrentFile(ref);
+            } else if (!currentFile.equals(rootFile)) {
+                logger.warn(MessageUtils.getMessage("DOTJ021W", params).toString());
+                failureList.add(currentFile);
+                FileUtils.deleteQuietly(outputFile);
+            }
+        }
 
         if (!listFilter.isValidInput() && currentFile.equals(rootFile)) {
             if (validate) {
@@ -542,7 +728,8 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
     void addToWaitList(final Reference ref) {
         final URI file = ref.filename;
         assert file.isAbsolute() && file.getFragment() == null;
-        if (doneList.contains(file) || waitList.contains(ref) || file.equals(currentFile)) {
+        if (doneList.contains(file) || waitList.contains(ref) || file.equals(currentFile)
+                || processingSet.contains(file)) {
             return;
         }
 
@@ -871,6 +1058,17 @@ public abstract class AbstractReaderModule extends AbstractPipelineModuleImpl {
         }
         tempFileNameScheme.setBaseDir(job.getInputDir());
 
+        if (profilingEnabled) {
+            filterUtils = parseFilterFile();
+        }
+
+        initParser();
+    }
+
+    /**
+     * Initialize XML reader and reusable filters. Used by this module and by workers in parallel processing.
+     */
+    private void initParser() throws SAXException {
         initXMLReader(ditaDir, validate);
         initFilters();
     }
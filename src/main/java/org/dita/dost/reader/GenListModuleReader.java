@@ -195,6 +195,22 @@ public final class GenListModuleReader extends AbstractXMLFilter {
         return schemeRelationGraph;
     }
 
+    /**
+     * Add state collected over multiple files from another reader. Used to combine readers used in parallel
+     * processing. Readers should be added in the order their files were processed.
+     *
+     * @param other reader to add state from
+     * @since 3.2
+     */
+    public void addAll(final GenListModuleReader other) {
+        resourceOnlySet.addAll(other.resourceOnlySet);
+        normalProcessingRoleSet.addAll(other.normalProcessingRoleSet);
+        nonTopicrefReferenceSet.addAll(other.nonTopicrefReferenceSet);
+        for (final Map.Entry<URI, Set<URI>> e : other.schemeRelationGraph.entrySet()) {
+            schemeRelationGraph.computeIfAbsent(e.getKey(), k -> new LinkedHashSet<>()).addAll(e.getValue());
+        }
+    }
+
     public void setPrimaryDitamap(final URI primaryDitamap) {
         assert primaryDitamap.isAbsolute();
         this.rootDir = primaryDitamap.resolve(".");
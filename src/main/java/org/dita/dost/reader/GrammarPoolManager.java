@@ -8,16 +8,40 @@
 package org.dita.dost.reader;
 
 import org.apache.xerces.xni.grammars.XMLGrammarPool;
+import org.dita.dost.util.CatalogUtils;
 import org.dita.dost.util.XMLGrammarPoolImplUtils;
+import org.dita.dost.util.XMLUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.File;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.*;
 
 /**
  * Manages creation and access to a master Xerces grammar pool.
- * The grammar pool is managed as a ThreadLocal variable so it can
- * be used across Ant task invocations.
+ * The grammar pool is shared by all threads so it can be used across
+ * Ant task invocations and builds run in the same JVM.
+ *
+ * <p>The pool can be preloaded with the DTDs declared in the catalog and locked
+ * after warm-up, so that grammars found by later builds are not added to it.
+ * Grammars that were not preloaded can be removed between builds.</p>
  */
 public final class GrammarPoolManager {
 
-    private static final ThreadLocal<XMLGrammarPool> grammarPool = new ThreadLocal<>();
+    private static final String OASIS_CATALOG_NAMESPACE = "urn:oasis:names:tc:entity:xmlns:xml:catalog";
+    private static final String PROPERTY_GRAMMAR_POOL = "http://apache.org/xml/properties/internal/grammar-pool";
+
+    private static volatile XMLGrammarPoolImplUtils grammarPool;
+
+    private GrammarPoolManager() {
+        // leave blank as designed
+    }
 
     /**
      * Get grammar pool
@@ -25,17 +49,150 @@ public final class GrammarPoolManager {
      * @return grammar pool instance
      */
     public static XMLGrammarPool getGrammarPool() {
-        XMLGrammarPool pool = grammarPool.get();
+        return getPool();
+    }
+
+    private static XMLGrammarPoolImplUtils getPool() {
+        XMLGrammarPoolImplUtils pool = grammarPool;
         if (pool == null) {
+            synchronized (GrammarPoolManager.class) {
+                pool = grammarPool;
+                if (pool == null) {
+                    try {
+                        pool = new XMLGrammarPoolImplUtils();
+                        grammarPool = pool;
+                    } catch (final Exception e) {
+                        System.out.println("Failed to create Xerces grammar pool for caching DTDs and schemas");
+                    }
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Lock grammar pool. Grammars are still retrieved from a locked pool, but new grammars are not added.
+     *
+     * @since 3.2
+     */
+    public static void lock() {
+        final XMLGrammarPoolImplUtils pool = getPool();
+        if (pool != null) {
+            pool.lockPool();
+        }
+    }
+
+    /**
+     * Unlock grammar pool.
+     *
+     * @since 3.2
+     */
+    public static void unlock() {
+        final XMLGrammarPoolImplUtils pool = getPool();
+        if (pool != null) {
+            pool.unlockPool();
+        }
+    }
+
+    /**
+     * Get number of DTD grammar lookups that were found in the pool.
+     *
+     * @return number of hits
+     * @since 3.2
+     */
+    public static long getHitCount() {
+        final XMLGrammarPoolImplUtils pool = getPool();
+        return pool != null ? pool.getHitCount() : 0L;
+    }
+
+    /**
+     * Get number of DTD grammar lookups that were not found in the pool.
+     *
+     * @return number of misses
+     * @since 3.2
+     */
+    public static long getMissCount() {
+        final XMLGrammarPoolImplUtils pool = getPool();
+        return pool != null ? pool.getMissCount() : 0L;
+    }
+
+    /**
+     * Preload grammar pool with DTDs declared in the catalog. Grammars with a catalog public ID are shared
+     * regardless of the system ID used in the document. DTDs that fail to load are skipped.
+     *
+     * @param ditaDir DITA-OT installation directory
+     * @return number of DTDs loaded
+     * @since 3.2
+     */
+    public static int preload(final File ditaDir) {
+        final XMLGrammarPoolImplUtils pool = getPool();
+        if (pool == null) {
+            return 0;
+        }
+        final Set<String> publicIds = new LinkedHashSet<>();
+        readPublicIds(CatalogUtils.getCatalogFile(ditaDir).toURI(), publicIds, new HashSet<>());
+        pool.addPublicIds(publicIds);
+
+        CatalogUtils.setDitaDir(ditaDir);
+        int count = 0;
+        for (final String publicId : publicIds) {
             try {
-                pool = new XMLGrammarPoolImplUtils();
-                grammarPool.set(pool);
+                final XMLReader reader = XMLUtils.getXMLReader();
+                reader.setProperty(PROPERTY_GRAMMAR_POOL, pool);
+                reader.setEntityResolver(CatalogUtils.getCatalogResolver());
+                reader.setErrorHandler(new DefaultHandler());
+                final String doc = "<!DOCTYPE dita PUBLIC \"" + publicId + "\" \"\"><dita/>";
+                reader.parse(new InputSource(new StringReader(doc)));
+                count++;
             } catch (final Exception e) {
-                System.out.println("Failed to create Xerces grammar pool for caching DTDs and schemas");
+                // Skip DTDs that cannot be loaded
             }
         }
-        return pool;
+        pool.retainGrammars();
+        return count;
     }
 
-}
+    /**
+     * Remove DTD grammars that were not preloaded from the catalog, e.g. grammars of DTDs that are only
+     * referenced by system ID.
+     *
+     * @return number of grammars removed
+     * @since 3.2
+     */
+    public static int removeTransientGrammars() {
+        final XMLGrammarPoolImplUtils pool = getPool();
+        return pool != null ? pool.removeTransientGrammars() : 0;
+    }
+
+    /**
+     * Read DTD public IDs from an OASIS catalog and the catalogs it refers to.
+     */
+    private static void readPublicIds(final URI catalog, final Set<String> publicIds, final Set<URI> visited) {
+        if (!visited.add(catalog.normalize())) {
+            return;
+        }
+        final Document doc;
+        try {
+            doc = XMLUtils.getDocumentBuilder().parse(catalog.toString());
+        } catch (final Exception e) {
+            return;
+        }
+        final NodeList publics = doc.getElementsByTagNameNS(OASIS_CATALOG_NAMESPACE, "public");
+        for (int i = 0; i < publics.getLength(); i++) {
+            final String publicId = ((Element) publics.item(i)).getAttribute("publicId");
+            if (publicId.contains("//DTD ")) {
+                publicIds.add(publicId);
+            }
+        }
+        final NodeList nextCatalogs = doc.getElementsByTagNameNS(OASIS_CATALOG_NAMESPACE, "nextCatalog");
+        for (int i = 0; i < nextCatalogs.getLength(); i++) {
+            final Element nextCatalog = (Element) nextCatalogs.item(i);
+            final String href = nextCatalog.getAttribute("catalog");
+            if (!href.isEmpty()) {
+                final String base = nextCatalog.getBaseURI();
+                readPublicIds((base != null ? URI.create(base) : catalog).resolve(href), publicIds, visited);
+            }
+        }
+    }
 
+}
@@ -255,9 +255,9 @@ public final class KeyrefReader implements AbstractReader {
         if (parent.keySet().isEmpty() && current.childScopes.isEmpty()) {
             return current;
         } else {
-            final Map<String, KeyDef> resKeys = new HashMap<>();
-            resKeys.putAll(current.keyDefinition);
-            resKeys.putAll(parent);
+            // parent keys are layered over scope keys without copying
+            final Map<String, KeyDef> resKeys = new KeyScope(current.id, current.name, current.keyDefinition, parent,
+                    Collections.emptyList()).keyDefinition;
             final List<KeyScope> resChildren = new ArrayList<>();
             for (final KeyScope child: current.childScopes) {
                 final KeyScope resChild = inheritParentKeys(child, resKeys);
@@ -269,17 +269,19 @@ public final class KeyrefReader implements AbstractReader {
 
     /** Resolve intermediate key references. */
     private KeyScope resolveIntermediate(final KeyScope scope) {
-        final Map<String, KeyDef> keys = new HashMap<>(scope.keyDefinition);
+        final Map<String, KeyDef> keys = new HashMap<>();
         for (final Map.Entry<String, KeyDef> e: scope.keyDefinition.entrySet()) {
             final KeyDef res = resolveIntermediate(scope, e.getValue(), Collections.singletonList(e.getValue()));
-            keys.put(e.getKey(), res);
+            if (res != e.getValue()) {
+                keys.put(e.getKey(), res);
+            }
         }
         final List<KeyScope> children = new ArrayList<>();
         for (final KeyScope child: scope.childScopes) {
             final KeyScope resolvedChild = resolveIntermediate(child);
             children.add(resolvedChild);
         }
-        return new KeyScope(scope.id, scope.name, keys, children);
+        return new KeyScope(scope.id, scope.name, scope.keyDefinition, keys, children);
     }
 
     private KeyDef resolveIntermediate(final KeyScope scope, final KeyDef keyDef, final List<KeyDef> circularityTracker) {
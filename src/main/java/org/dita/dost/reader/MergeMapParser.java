@@ -12,8 +12,8 @@ import static javax.xml.transform.OutputKeys.*;
 import static org.dita.dost.util.Constants.*;
 import static org.dita.dost.util.URLUtils.*;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Stack;
@@ -26,6 +26,8 @@ import javax.xml.transform.stream.StreamResult;
 import org.xml.sax.helpers.XMLFilterImpl;
 import org.xml.sax.helpers.AttributesImpl;
 
+import com.google.common.io.FileBackedOutputStream;
+
 import org.dita.dost.exception.DITAOTXMLErrorHandler;
 import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.log.MessageUtils;
@@ -49,6 +51,8 @@ public final class MergeMapParser extends XMLFilterImpl {
     private static final String ATTRIBUTE_NAME_FIRST_TOPIC_ID = "first_topic_id";
     public static final String ATTRIBUTE_NAME_OHREF = "ohref";
     public static final String ATTRIBUTE_NAME_OID = "oid";
+    /** Size in bytes after which merged topics are buffered into a temporary file. */
+    public static final int BUFFER_THRESHOLD = 1024 * 1024;
 
     private final XMLReader reader;
     private final MergeTopicParser topicParser;
@@ -58,7 +62,7 @@ public final class MergeMapParser extends XMLFilterImpl {
 
     private final Stack<String> processStack;
     private int processLevel;
-    private final ByteArrayOutputStream topicBuffer;
+    private final FileBackedOutputStream topicBuffer;
     private final SAXTransformerFactory stf;
     private OutputStream output;
     private DITAOTLogger logger;
@@ -72,7 +76,7 @@ public final class MergeMapParser extends XMLFilterImpl {
         processLevel = 0;
         util = new MergeUtils();
         topicParser = new MergeTopicParser(util);
-        topicBuffer = new ByteArrayOutputStream();
+        topicBuffer = new FileBackedOutputStream(BUFFER_THRESHOLD);
         try {
             reader = XMLUtils.getXMLReader();
             reader.setContentHandler(this);
@@ -140,11 +144,17 @@ public final class MergeMapParser extends XMLFilterImpl {
             logger.info("Processing " + filename.getAbsolutePath());
             reader.parse(filename.toURI().toString());
             topicParser.getContentHandler().endDocument();
-            output.write(topicBuffer.toByteArray());
+            topicBuffer.asByteSource().copyTo(output);
         } catch (final RuntimeException e) {
             throw e;
         } catch (final Exception e) {
             logger.error(e.getMessage(), e) ;
+        } finally {
+            try {
+                topicBuffer.reset();
+            } catch (final IOException e) {
+                logger.error("Failed to delete topic buffer: " + e.getMessage(), e);
+            }
         }
     }
 
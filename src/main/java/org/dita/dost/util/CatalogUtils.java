@@ -11,6 +11,10 @@ package org.dita.dost.util;
 import static org.dita.dost.util.Constants.*;
 
 import java.io.File;
+import java.util.Objects;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
 
 import org.apache.xml.resolver.CatalogManager;
 import org.apache.xml.resolver.tools.CatalogResolver;
@@ -27,6 +31,10 @@ public final class CatalogUtils {
     private static CatalogResolver catalogResolver = null;
     /** Absolute directory to find catalog-dita.xml.*/
     private static File ditaDir;
+    /** Catalog file of current catalog resolver. */
+    private static File catalogFile;
+    /** Modification time of catalog file when current catalog resolver was created. */
+    private static long catalogLastModified;
     /**
      * Instances should NOT be constructed in standard programming.
      */
@@ -35,16 +43,22 @@ public final class CatalogUtils {
     }
 
     /**
-     * Set directory to find catalog-dita.xml.
+     * Set directory to find catalog-dita.xml. Current catalog resolver is kept if the directory has not changed
+     * and the catalog file has not been modified.
      * @param ditaDir ditaDir
      */
     public static synchronized void setDitaDir(final File ditaDir) {
+        if (catalogResolver != null
+                && Objects.equals(ditaDir, CatalogUtils.ditaDir)
+                && catalogFile.lastModified() == catalogLastModified) {
+            return;
+        }
         catalogResolver = null;
         CatalogUtils.ditaDir = ditaDir;
     }
 
     /**
-     * Get CatalogResolver.
+     * Get CatalogResolver. The returned resolver is shared by all processes in the JVM and is thread-safe.
      * @return CatalogResolver
      */
     public static synchronized CatalogResolver getCatalogResolver() {
@@ -53,13 +67,46 @@ public final class CatalogUtils {
             manager.setIgnoreMissingProperties(true);
             manager.setUseStaticCatalog(false); // We'll use a private catalog.
             manager.setPreferPublic(true);
-            final File catalogFilePath = new File(ditaDir, Configuration.pluginResourceDirs.get("org.dita.base") + File.separator + FILE_NAME_CATALOG);
+            final File catalogFilePath = getCatalogFile(ditaDir);
             manager.setCatalogFiles(catalogFilePath.toURI().toASCIIString());
             //manager.setVerbosity(10);
-            catalogResolver = new CatalogResolver(manager);
+            catalogResolver = new SynchronizedCatalogResolver(manager);
+            catalogFile = catalogFilePath;
+            catalogLastModified = catalogFilePath.lastModified();
         }
 
         return catalogResolver;
     }
-}
 
+    /**
+     * Get main catalog file.
+     *
+     * @param ditaDir DITA-OT installation directory
+     * @return catalog file
+     * @since 3.2
+     */
+    public static File getCatalogFile(final File ditaDir) {
+        return new File(ditaDir, Configuration.pluginResourceDirs.get("org.dita.base") + File.separator + FILE_NAME_CATALOG);
+    }
+
+    /**
+     * Catalog resolver that serializes resolution. Catalog resolution is not thread-safe, because subordinate
+     * catalogs are loaded lazily.
+     */
+    private static final class SynchronizedCatalogResolver extends CatalogResolver {
+
+        SynchronizedCatalogResolver(final CatalogManager manager) {
+            super(manager);
+        }
+
+        @Override
+        public synchronized String getResolvedEntity(final String publicId, final String systemId) {
+            return super.getResolvedEntity(publicId, systemId);
+        }
+
+        @Override
+        public synchronized Source resolve(final String href, final String base) throws TransformerException {
+            return super.resolve(href, base);
+        }
+    }
+}
@@ -1011,6 +1011,12 @@ public final class Constants {
     public static final String CONF_TRANSTYPES = "transtypes";
     /** Property name for template files. */
     public static final String CONF_TEMPLATES = "templates";
+    /** Property name for number of worker threads in parallel processing. */
+    public static final String CONF_PARALLEL_THREADS = "parallel.threads";
+    /** Property name for maximum size in megabytes of XSLT document cache. */
+    public static final String CONF_XSLT_DOCUMENT_CACHE_SIZE = "xslt.document-cache.size";
+    /** Property name for maximum number of compiled stylesheets in XSLT templates cache. */
+    public static final String CONF_XSLT_TEMPLATES_CACHE_SIZE = "xslt.templates-cache.size";
     /** Plugin configuration file name. */
     public static final String PLUGIN_CONF = "plugins.xml";
 
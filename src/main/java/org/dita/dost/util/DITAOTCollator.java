@@ -11,16 +11,20 @@ package org.dita.dost.util;
 import java.lang.reflect.Method;
 import java.text.Collator;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * DITAOTCollator class.
  *
+ * <p>Collators are not thread-safe, so each thread uses its own clone of the locale collator. Collation keys
+ * created by different threads can be compared with each other.</p>
+ *
  * @author Wu, Zhi Qiang
  */
 public final class DITAOTCollator implements Comparator {
-    private static final HashMap<Locale, DITAOTCollator> cache = new HashMap<>();
+    private static final Map<Locale, DITAOTCollator> cache = new ConcurrentHashMap<>();
 
     /**
      * Return the DITAOTCollator instance, Locale.US is default.
@@ -46,6 +50,10 @@ public final class DITAOTCollator implements Comparator {
 
     private Object collatorInstance = null;
     private Method compareMethod = null;
+    private Method collationKeyMethod = null;
+    private Method cloneMethod = null;
+    /** Collator clone for each thread. */
+    private final ThreadLocal<Object> collators = ThreadLocal.withInitial(this::newCollator);
 
     /**
      * Default Constructor
@@ -68,7 +76,23 @@ public final class DITAOTCollator implements Comparator {
     @Override
     public int compare(final Object source, final Object target) {
         try {
-            return (Integer) compareMethod.invoke(collatorInstance, source, target);
+            return (Integer) compareMethod.invoke(collators.get(), source, target);
+        } catch (final Exception e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get collation key for a string. Collation keys of the same collator can be compared with each other
+     * without calling the collator again.
+     *
+     * @param source string to get collation key for
+     * @return collation key
+     * @since 3.2
+     */
+    public Comparable getCollationKey(final String source) {
+        try {
+            return (Comparable) collationKeyMethod.invoke(collators.get(), source);
         } catch (final Exception e) {
             throw new RuntimeException(e.getMessage(), e);
         }
@@ -91,9 +115,22 @@ public final class DITAOTCollator implements Comparator {
                     Locale.class);
             collatorInstance = m.invoke(null, locale);
             compareMethod = c.getDeclaredMethod("compare", Object.class, Object.class);
+            collationKeyMethod = c.getDeclaredMethod("getCollationKey", String.class);
+            cloneMethod = c.getMethod("clone");
         } catch (final Exception e) {
             throw new RuntimeException("Failed to initialize collator: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Create collator for current thread.
+     */
+    private Object newCollator() {
+        try {
+            return cloneMethod.invoke(collatorInstance);
+        } catch (final Exception e) {
+            throw new RuntimeException("Failed to clone collator: " + e.getMessage(), e);
+        }
+    }
+
 }
@@ -9,6 +9,11 @@ package org.dita.dost.util;
 
 import static org.dita.dost.util.Constants.*;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import org.w3c.dom.Attr;
@@ -31,6 +36,10 @@ public final class DitaClass {
     private static final Pattern WHITESPACE = Pattern.compile("\\s+");
     private static final Pattern VALID_DITA_CLASS = Pattern.compile("(\\+|-)\\s+(topic|map)/\\S+\\s+" +
                                                          "([\\S[^/]]+/\\S+\\s+)*");
+    /** Maximum number of cached instances. */
+    private static final int CACHE_SIZE = 10000;
+    /** Cached instances by class attribute value. */
+    private static final ConcurrentMap<String, DitaClass> cache = new ConcurrentHashMap<>();
 
     /** ModuleElem/type pair for the most specialized type, with a single preceding and following space character. */
     public final String matcher;
@@ -38,8 +47,12 @@ public final class DitaClass {
     public final String localName;
     /** Normalized specialization hierarchy string. */
     private final String stringValue;
+    /** Module/type pair for the most specialized type. */
+    private final String type;
+    /** Module/type pairs in the specialization hierarchy. */
+    private final Set<String> types;
     /** Does this class value use valid DITA class syntax */
-    private boolean validDitaClass = false;
+    private final boolean validDitaClass;
 
     // Constructors
 
@@ -51,18 +64,24 @@ public final class DitaClass {
     public DitaClass(final String cls) {
         final String[] tokens = WHITESPACE.split(cls);
         final String last = tokens[tokens.length - 1];
+        type = last;
         matcher = ' ' + last + ' ';
         localName = last.substring(last.indexOf('/') + 1);
         final StringBuilder sb = new StringBuilder();
-        for (final String s: tokens) {
-            sb.append(s).append(' ');
+        final Set<String> ts = new HashSet<>(tokens.length);
+        for (int i = 0; i < tokens.length; i++) {
+            sb.append(tokens[i]).append(' ');
+            if (i > 0) {
+                ts.add(tokens[i]);
+            }
         }
         stringValue = sb.toString();
+        types = Collections.unmodifiableSet(ts);
         validDitaClass = VALID_DITA_CLASS.matcher(stringValue).matches();
     }
 
     /**
-     * Get class instance.
+     * Get class instance. Instances are cached by class attribute value.
      * @param cls DITA class, may be {@code null}
      * @return DITA class, {@code null} if the input was {@code null}
      */
@@ -70,7 +89,14 @@ public final class DitaClass {
         if (cls == null) {
             return null;
         }
-        return new DitaClass(cls);
+        DitaClass res = cache.get(cls);
+        if (res == null) {
+            res = new DitaClass(cls);
+            if (cache.size() < CACHE_SIZE) {
+                cache.putIfAbsent(cls, res);
+            }
+        }
+        return res;
     }
 
     /**
@@ -143,17 +169,17 @@ public final class DitaClass {
      * @return {@code true} if given class matches this class, otherwise {@code false}
      */
     public boolean matches(final DitaClass cls) {
-        return cls != null && cls.toString().contains(matcher);
+        return cls != null && cls.types.contains(type);
     }
 
     /**
-     * Test if given DITA class string matches this DITA class.
+     * Test if given DITA class string matches this DITA class. The class string is parsed using the instance cache.
      *
      * @param classString DITA element class string
      * @return {@code true} if given class matches this class, otherwise {@code false}
      */
     public boolean matches(final String classString) {
-        return classString != null && classString.contains(matcher);
+        return matches(getInstance(classString));
     }
 
     /**
@@ -163,7 +189,7 @@ public final class DitaClass {
      * @return {@code true} if given attribute set has a class attribute and it matches this class, otherwise {@code false}
      */
     public boolean matches(final Attributes atts) {
-        return matches(atts.getValue(ATTRIBUTE_NAME_CLASS));
+        return matches(getInstance(atts));
     }
 
     /**
@@ -174,7 +200,7 @@ public final class DitaClass {
      */
     public boolean matches(final Node node) {
         if (node.getNodeType() == Node.ELEMENT_NODE) {
-            return matches(((Element) node).getAttribute(ATTRIBUTE_NAME_CLASS));
+            return matches(getInstance((Element) node));
         }
         return false;
     }
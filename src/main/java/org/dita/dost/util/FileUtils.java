@@ -12,7 +12,11 @@ import static org.apache.commons.io.FilenameUtils.*;
 import static org.dita.dost.util.Constants.*;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
@@ -616,4 +620,21 @@ public final class FileUtils {
         }
     }
 
+    /**
+     * Replace file with another file. The file is replaced with a single rename without deleting the target file
+     * first, and the rename is atomic if supported by the file system.
+     *
+     * @param src file to move
+     * @param dst file to replace
+     * @throws IOException if replacing file failed
+     * @since 3.2
+     */
+    public static void replaceFile(final File src, final File dst) throws IOException {
+        try {
+            Files.move(src.toPath(), dst.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(src.toPath(), dst.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
 }
@@ -16,6 +16,7 @@ import static org.dita.dost.util.Constants.*;
 import java.io.IOException;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,17 +51,25 @@ public final class FilterUtils {
     /** Subject scheme file extension */
     public static final String SUBJECT_SCHEME_EXTENSION = ".subm";
     public static final FilterKey DEFAULT = new FilterKey(QName.valueOf(DEFAULT_ACTION), null);
+    /** Maximum number of memoized exclusion decisions per attribute. */
+    private static final int CACHE_SIZE = 10000;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern GROUP = Pattern.compile("(\\w+)\\((.*?)\\)");
 
     private DITAOTLogger logger;
     /** Actions for filter keys. */
     private final Map<FilterKey, Action> filterMap;
     /** Set of filter keys for which an error has already been thrown. */
-    private final Set<FilterKey> notMappingRules = new HashSet<>();
+    private final Set<FilterKey> notMappingRules = ConcurrentHashMap.newKeySet();
     private boolean logMissingAction;
     private final String foregroundConflictColor;
     private final String backgroundConflictColor;
     private Set<QName> filterAttributes;
     private Set<QName> flagAttributes;
+    /** Exclusion decisions for profiling attribute values, {@code Map<AttName, Map<Value, Exclude>>}. */
+    private final Map<QName, Map<String, Boolean>> excludeCache = new ConcurrentHashMap<>();
+    /** Exclusion decisions for {@code props} specialization values, {@code Map<AttNames, Map<Value, Exclude>>}. */
+    private final Map<List<QName>, Map<String, Boolean>> extExcludeCache = new ConcurrentHashMap<>();
 
     public FilterUtils(final Map<FilterKey, Action> filterMap, String foregroundConflictColor,
                        String backgroundConflictColor) {
@@ -193,7 +202,7 @@ public final class FilterUtils {
                         propValue = getLabelValue(propName, atts.getValue(current.getNamespaceURI(), current.getLocalPart()));
                     }
                     if (propValue != null) {
-                        res.addAll(extCheckFlag(propList, Arrays.asList(propValue.split("\\s+"))));
+                        res.addAll(extCheckFlag(propList, Arrays.asList(WHITESPACE.split(propValue))));
                     }
                 }
             }
@@ -293,17 +302,8 @@ public final class FilterUtils {
 
         for (final QName attr: filterAttributes) {
             final String value = atts.getValue(attr.getNamespaceURI(), attr.getLocalPart());
-            if (value != null) {
-                final Map<QName, List<String>> groups = getGroups(value);
-                for (Map.Entry<QName, List<String>> group: groups.entrySet()) {
-                    final QName[] propList =
-                            group.getKey() != null
-                                    ? new QName[]{attr, group.getKey()}
-                                    : new QName[]{attr};
-                    if (extCheckExclude(propList, group.getValue())) {
-                        return true;
-                    }
-                }
+            if (value != null && isExcluded(attr, value)) {
+                return true;
             }
         }
 
@@ -318,7 +318,7 @@ public final class FilterUtils {
                     final QName current = propList[propListIndex];
                     propValue = getLabelValue(propName, atts.getValue(current.getNamespaceURI(), current.getLocalPart()));
                 }
-                if (propValue != null && extCheckExclude(propList, Arrays.asList(propValue.split("\\s+")))) {
+                if (propValue != null && isExcluded(propList, propValue)) {
                     return true;
                 }
             }
@@ -326,7 +326,54 @@ public final class FilterUtils {
         return false;
     }
 
-    private final Pattern groupPattern = Pattern.compile("(\\w+)\\((.*?)\\)");
+    /**
+     * Check if profiling attribute value is excluded. Decisions are memoized per attribute value.
+     *
+     * @param attr profiling attribute name
+     * @param value profiling attribute value
+     * @return {@code true} if should be excluded, otherwise {@code false}
+     */
+    private boolean isExcluded(final QName attr, final String value) {
+        final Map<String, Boolean> cache = excludeCache.computeIfAbsent(attr, k -> new ConcurrentHashMap<>());
+        Boolean res = cache.get(value);
+        if (res == null) {
+            res = false;
+            final Map<QName, List<String>> groups = getGroups(value);
+            for (Map.Entry<QName, List<String>> group: groups.entrySet()) {
+                final QName[] propList =
+                        group.getKey() != null
+                                ? new QName[]{attr, group.getKey()}
+                                : new QName[]{attr};
+                if (extCheckExclude(propList, group.getValue())) {
+                    res = true;
+                    break;
+                }
+            }
+            if (cache.size() < CACHE_SIZE) {
+                cache.put(value, res);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Check if {@code props} specialization attribute value is excluded. Decisions are memoized per attribute value.
+     *
+     * @param propList attribute group names, from most common to most specific
+     * @param value attribute value
+     * @return {@code true} if should be excluded, otherwise {@code false}
+     */
+    private boolean isExcluded(final QName[] propList, final String value) {
+        final Map<String, Boolean> cache = extExcludeCache.computeIfAbsent(Arrays.asList(propList), k -> new ConcurrentHashMap<>());
+        Boolean res = cache.get(value);
+        if (res == null) {
+            res = extCheckExclude(propList, Arrays.asList(WHITESPACE.split(value)));
+            if (cache.size() < CACHE_SIZE) {
+                cache.put(value, res);
+            }
+        }
+        return res;
+    }
 
     /**
      * Parse groups
@@ -340,7 +387,7 @@ public final class FilterUtils {
 
         final StringBuilder buf = new StringBuilder();
         int previousEnd = 0;
-        final Matcher m = groupPattern.matcher(value);
+        final Matcher m = GROUP.matcher(value);
         while(m.find()) {
             buf.append(value.subSequence(previousEnd, m.start()));
             final String v = m.group(2);
@@ -348,17 +395,17 @@ public final class FilterUtils {
                 final QName k = QName.valueOf(m.group(1));
                 if (res.containsKey(k)) {
                     final List<String> l = new ArrayList<>(res.get(k));
-                    l.addAll(Arrays.asList(v.trim().split("\\s+")));
+                    l.addAll(Arrays.asList(WHITESPACE.split(v.trim())));
                     res.put(k, l);
                 } else {
-                    res.put(k, Arrays.asList(v.trim().split("\\s+")));
+                    res.put(k, Arrays.asList(WHITESPACE.split(v.trim())));
                 }
             }
             previousEnd = m.end();
         }
         buf.append(value.substring(previousEnd));
         if (!buf.toString().trim().isEmpty()) {
-            res.put(null, Arrays.asList(buf.toString().trim().split("\\s+")));
+            res.put(null, Arrays.asList(WHITESPACE.split(buf.toString().trim())));
         }
         return res;
     }
@@ -480,11 +527,7 @@ public final class FilterUtils {
     }
 
     private boolean alreadyShowed(final FilterKey notMappingKey) {
-        if (!notMappingRules.contains(notMappingKey)) {
-            notMappingRules.add(notMappingKey);
-            return false;
-        }
-        return true;
+        return !notMappingRules.add(notMappingKey);
     }
 
     /**
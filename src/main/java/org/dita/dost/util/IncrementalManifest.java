@@ -0,0 +1,125 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent record of source fingerprints of generated files. Used to skip regenerating files whose sources
+ * have not changed since the previous build.
+ *
+ * <p>The manifest has a global fingerprint that covers everything shared by all generated files, e.g. stylesheets
+ * and parameters, and a fingerprint of the source of each generated file. Entries from the previous build are
+ * only used if the global fingerprint has not changed.</p>
+ *
+ * @since 3.2
+ */
+public final class IncrementalManifest {
+
+    private static final String KEY_FINGERPRINT = "fingerprint";
+    private static final String PREFIX_FILE = "file.";
+
+    private final File file;
+    private final String fingerprint;
+    private final Map<String, String> previous;
+    private final Map<String, String> current = new ConcurrentHashMap<>();
+
+    private IncrementalManifest(final File file, final String fingerprint, final Map<String, String> previous) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+        this.previous = previous;
+    }
+
+    /**
+     * Read manifest. If manifest file does not exist, cannot be read, or was written with a different global
+     * fingerprint, the manifest has no entries from previous build.
+     *
+     * @param file manifest file
+     * @param fingerprint global fingerprint for the current build
+     * @return manifest for the current build
+     */
+    public static IncrementalManifest read(final File file, final String fingerprint) {
+        final Map<String, String> previous = new HashMap<>();
+        if (file.exists()) {
+            final Properties props = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                props.load(in);
+            } catch (final IOException | IllegalArgumentException e) {
+                props.clear();
+            }
+            if (fingerprint.equals(props.getProperty(KEY_FINGERPRINT))) {
+                for (final String key : props.stringPropertyNames()) {
+                    if (key.startsWith(PREFIX_FILE)) {
+                        previous.put(key.substring(PREFIX_FILE.length()), props.getProperty(key));
+                    }
+                }
+            }
+        }
+        return new IncrementalManifest(file, fingerprint, previous);
+    }
+
+    /**
+     * Test if source fingerprint is the same as in the previous build.
+     *
+     * @param key generated file key
+     * @param fingerprint source fingerprint
+     * @return {@code true} if fingerprint is unchanged, otherwise {@code false}
+     */
+    public boolean isUnchanged(final String key, final String fingerprint) {
+        return fingerprint.equals(previous.get(key));
+    }
+
+    /**
+     * Record source fingerprint of a generated file. Only recorded entries are written to the manifest.
+     *
+     * @param key generated file key
+     * @param fingerprint source fingerprint
+     */
+    public void put(final String key, final String fingerprint) {
+        current.put(key, fingerprint);
+    }
+
+    /**
+     * Write manifest with entries recorded for the current build.
+     *
+     * @throws IOException if writing failed
+     */
+    public void write() throws IOException {
+        final Properties props = new Properties();
+        props.setProperty(KEY_FINGERPRINT, fingerprint);
+        for (final Map.Entry<String, String> e : current.entrySet()) {
+            props.setProperty(PREFIX_FILE + e.getKey(), e.getValue());
+        }
+        final File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir);
+        }
+        final File tmp = new File(dir, file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            props.store(out, null);
+        }
+        FileUtils.replaceFile(tmp, file);
+    }
+
+    /**
+     * Get content fingerprint of a file.
+     *
+     * @param file file to fingerprint
+     * @return fingerprint of file content
+     * @throws IOException if reading file failed
+     */
+    public static String getFingerprint(final File file) throws IOException {
+        return Files.asByteSource(file).hash(Hashing.sha256()).toString();
+    }
+
+}
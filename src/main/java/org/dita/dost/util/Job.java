@@ -12,6 +12,7 @@ import static org.dita.dost.util.Constants.*;
 import static org.dita.dost.util.URLUtils.*;
 
 import org.xml.sax.helpers.DefaultHandler;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -125,7 +126,15 @@ public final class Job {
     public final URI tempDirURI;
     private final File jobFile;
     private final ConcurrentMap<URI, FileInfo> files = new ConcurrentHashMap<>();
+    /** Index from source URI to temporary file URIs. */
+    private final ConcurrentMap<URI, Set<URI>> filesBySrc = new ConcurrentHashMap<>();
+    /** Index from result URI to temporary file URIs. */
+    private final ConcurrentMap<URI, Set<URI>> filesByResult = new ConcurrentHashMap<>();
     private long lastModified;
+    /** Properties as last read from or written to job file. */
+    private Map<String, Object> storedProp = Collections.emptyMap();
+    /** File info objects as last read from or written to job file. */
+    private Map<URI, FileInfo> storedFiles = Collections.emptyMap();
 
     /**
      * Create new job configuration instance. Initialise by reading temporary configuration files.
@@ -176,6 +185,8 @@ public final class Job {
             } catch (final SAXException e) {
                 throw new IOException("Failed to read job file: " + e.getMessage());
             }
+            reindex();
+            snapshot();
         } else {
             // defaults
             prop.put(PROPERTY_GENERATE_COPY_OUTER, Generate.NOT_GENERATEOUTTER.toString());
@@ -293,15 +304,19 @@ public final class Job {
     }
 
     /**
-     * Store job into temporary configuration files.
+     * Store job into temporary configuration files. If neither the job nor the configuration file has
+     * changed since the job was last read or written, the configuration file is not rewritten.
      *
      * @throws IOException if writing configuration files failed
      */
     public void write() throws IOException {
+        if (jobFile.exists() && !isStale() && !isModified()) {
+            return;
+        }
         OutputStream outStream = null;
         XMLStreamWriter out = null;
         try {
-            outStream = new FileOutputStream(jobFile);
+            outStream = new BufferedOutputStream(new FileOutputStream(jobFile));
             out = XMLOutputFactory.newInstance().createXMLStreamWriter(outStream, "UTF-8");
             out.writeStartDocument();
             out.writeStartElement(ELEMENT_JOB);
@@ -390,13 +405,62 @@ public final class Job {
             }
         }
         lastModified = jobFile.lastModified();
+        snapshot();
+    }
+
+    /**
+     * Test if job has been modified since it was last read or written.
+     *
+     * @return {@code true} if properties or file info objects have changed
+     */
+    private boolean isModified() {
+        if (!prop.equals(storedProp) || files.size() != storedFiles.size()) {
+            return true;
+        }
+        for (final FileInfo fi : files.values()) {
+            if (!fi.equals(storedFiles.get(fi.uri))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Store copies of properties and file info objects for modification checks. File info objects
+     * are mutable and are copied instead of stored by reference.
+     */
+    private void snapshot() {
+        final Map<String, Object> ps = new HashMap<>(prop.size());
+        for (final Map.Entry<String, Object> e : prop.entrySet()) {
+            final Object v = e.getValue();
+            if (v instanceof Set) {
+                ps.put(e.getKey(), new HashSet<>((Set<?>) v));
+            } else if (v instanceof Map) {
+                ps.put(e.getKey(), new HashMap<>((Map<?, ?>) v));
+            } else {
+                ps.put(e.getKey(), v);
+            }
+        }
+        storedProp = ps;
+        final Map<URI, FileInfo> fs = new HashMap<>(files.size());
+        for (final FileInfo fi : files.values()) {
+            fs.put(fi.uri, new FileInfo.Builder(fi).build());
+        }
+        storedFiles = fs;
     }
 
     /**
      * Add file info. If file info with the same file already exists, it will be replaced.
+     *
+     * <p>Changes to {@link FileInfo#src} or {@link FileInfo#result} of a file info that has already been
+     * added are only visible to {@link #getFileInfo(URI)} after the file info has been added again.</p>
      */
-    public void add(final FileInfo fileInfo) {
-        files.put(fileInfo.uri, fileInfo);
+    public synchronized void add(final FileInfo fileInfo) {
+        final FileInfo old = files.put(fileInfo.uri, fileInfo);
+        if (old != null) {
+            unindex(old);
+        }
+        index(fileInfo);
     }
 
     /**
@@ -404,8 +468,49 @@ public final class Job {
      *
      * @return removed file info, {@code null} if not found
      */
-    public FileInfo remove(final FileInfo fileInfo) {
-        return files.remove(fileInfo.uri);
+    public synchronized FileInfo remove(final FileInfo fileInfo) {
+        final FileInfo old = files.remove(fileInfo.uri);
+        if (old != null) {
+            unindex(old);
+        }
+        return old;
+    }
+
+    /** Rebuild source and result indexes from file info objects. */
+    private synchronized void reindex() {
+        filesBySrc.clear();
+        filesByResult.clear();
+        for (final FileInfo fi : files.values()) {
+            index(fi);
+        }
+    }
+
+    private void index(final FileInfo fi) {
+        if (fi.src != null) {
+            filesBySrc.computeIfAbsent(fi.src, k -> ConcurrentHashMap.newKeySet()).add(fi.uri);
+        }
+        if (fi.result != null) {
+            filesByResult.computeIfAbsent(fi.result, k -> ConcurrentHashMap.newKeySet()).add(fi.uri);
+        }
+    }
+
+    private void unindex(final FileInfo fi) {
+        if (fi.src != null) {
+            removeIndex(filesBySrc, fi.src, fi.uri);
+        }
+        if (fi.result != null) {
+            removeIndex(filesByResult, fi.result, fi.uri);
+        }
+    }
+
+    private static void removeIndex(final ConcurrentMap<URI, Set<URI>> index, final URI key, final URI uri) {
+        final Set<URI> uris = index.get(key);
+        if (uris != null) {
+            uris.remove(uri);
+            if (uris.isEmpty()) {
+                index.remove(key);
+            }
+        }
     }
 
     /**
@@ -541,13 +646,31 @@ public final class Job {
             final URI relative = getRelativePath(jobFile.toURI(), file);
             return files.get(relative);
         } else {
-            return files.values().stream()
-                    .filter(fileInfo -> file.equals(fileInfo.src) || file.equals(fileInfo.result))
-                    .findFirst()
-                    .orElse(null);
+            final FileInfo bySrc = lookup(filesBySrc, file);
+            return bySrc != null ? bySrc : lookup(filesByResult, file);
         }
     }
 
+    /**
+     * Find file info from source or result index.
+     *
+     * @param index index to search
+     * @param file absolute source or result URI
+     * @return file info object, {@code null} if not found
+     */
+    private FileInfo lookup(final ConcurrentMap<URI, Set<URI>> index, final URI file) {
+        final Set<URI> uris = index.get(file);
+        if (uris != null) {
+            for (final URI uri : uris) {
+                final FileInfo fi = files.get(uri);
+                if (fi != null && (file.equals(fi.src) || file.equals(fi.result))) {
+                    return fi;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Get or create FileInfo for given path.
      * @param file relative URI to temporary directory
@@ -572,7 +695,7 @@ public final class Job {
      *
      * @param fs file info objects
      */
-    public void addAll(final Collection<FileInfo> fs) {
+    public synchronized void addAll(final Collection<FileInfo> fs) {
         for (final FileInfo f: fs) {
             add(f);
         }
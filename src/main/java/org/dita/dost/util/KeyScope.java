@@ -7,6 +7,9 @@
  */
 package org.dita.dost.util;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+
 import java.util.*;
 
 import static java.util.Collections.unmodifiableList;
@@ -15,6 +18,9 @@ import static java.util.Collections.unmodifiableMap;
 /**
  * Immutable key store for keys and child key scopes.
  *
+ * <p>Key definitions may be layered over another key definition map, e.g. inherited parent scope keys. Layered
+ * maps are shared between scopes and not copied.</p>
+ *
  * @since 2.2
  */
 public class KeyScope {
@@ -23,14 +29,41 @@ public class KeyScope {
     public final String name;
     public final Map<String, KeyDef> keyDefinition;
     public final List<KeyScope> childScopes;
+    /** Cached hash code, {@code 0} if not computed. */
+    private int hash;
 
     public KeyScope(final String id, final String name, final Map<String, KeyDef> keyDefinition, final List<KeyScope> childScopes) {
         this.id = id;
         this.name = name;
-        this.keyDefinition = unmodifiableMap(keyDefinition);
+        this.keyDefinition = keyDefinition instanceof LayeredMap ? keyDefinition : unmodifiableMap(keyDefinition);
         this.childScopes = unmodifiableList(new ArrayList<>(childScopes));
     }
 
+    /**
+     * Create key scope with key definitions layered over base key definitions. Neither map is copied and
+     * they must not be modified after the scope has been created.
+     *
+     * @param id scope ID
+     * @param name scope name, may be {@code null}
+     * @param keyDefinition base key definitions
+     * @param overrideDefinition key definitions that take precedence over base key definitions
+     * @param childScopes child scopes
+     * @since 3.2
+     */
+    public KeyScope(final String id, final String name, final Map<String, KeyDef> keyDefinition,
+                    final Map<String, KeyDef> overrideDefinition, final List<KeyScope> childScopes) {
+        this(id, name, layer(overrideDefinition, keyDefinition), childScopes);
+    }
+
+    private static Map<String, KeyDef> layer(final Map<String, KeyDef> top, final Map<String, KeyDef> bottom) {
+        if (top.isEmpty()) {
+            return bottom;
+        } else if (bottom.isEmpty()) {
+            return top;
+        }
+        return new LayeredMap(top, bottom);
+    }
+
     public KeyDef get(final String key) {
         return keyDefinition.get(key);
     }
@@ -50,6 +83,7 @@ public class KeyScope {
 
         KeyScope keyScope = (KeyScope) o;
 
+        if (hashCode() != keyScope.hashCode()) return false;
         if (name != null ? !name.equals(keyScope.name) : keyScope.name != null) return false;
         if (!keyDefinition.equals(keyScope.keyDefinition)) return false;
         return childScopes.equals(keyScope.childScopes);
@@ -57,9 +91,73 @@ public class KeyScope {
 
     @Override
     public int hashCode() {
-        int result = name != null ? name.hashCode() : 0;
-        result = 31 * result + keyDefinition.hashCode();
-        result = 31 * result + childScopes.hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = name != null ? name.hashCode() : 0;
+            result = 31 * result + keyDefinition.hashCode();
+            result = 31 * result + childScopes.hashCode();
+            hash = result;
+        }
         return result;
     }
+
+    /**
+     * Immutable view of two key definition maps where top map entries take precedence over bottom map entries.
+     */
+    private static final class LayeredMap extends AbstractMap<String, KeyDef> {
+
+        private final Map<String, KeyDef> top;
+        private final Map<String, KeyDef> bottom;
+        /** Cached size, {@code -1} if not computed. */
+        private int size = -1;
+
+        LayeredMap(final Map<String, KeyDef> top, final Map<String, KeyDef> bottom) {
+            this.top = top;
+            this.bottom = bottom;
+        }
+
+        @Override
+        public KeyDef get(final Object key) {
+            final KeyDef res = top.get(key);
+            return res != null ? res : bottom.get(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return top.containsKey(key) || bottom.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            int res = size;
+            if (res == -1) {
+                res = top.size();
+                for (final String key : bottom.keySet()) {
+                    if (!top.containsKey(key)) {
+                        res++;
+                    }
+                }
+                size = res;
+            }
+            return res;
+        }
+
+        @Override
+        public Set<Entry<String, KeyDef>> entrySet() {
+            return new AbstractSet<Entry<String, KeyDef>>() {
+                @Override
+                public Iterator<Entry<String, KeyDef>> iterator() {
+                    final Iterator<Entry<String, KeyDef>> res = Iterators.concat(
+                            top.entrySet().iterator(),
+                            Iterators.filter(bottom.entrySet().iterator(), e -> !top.containsKey(e.getKey())));
+                    return Iterators.unmodifiableIterator(Iterators.transform(res, e -> Maps.immutableEntry(e.getKey(), e.getValue())));
+                }
+
+                @Override
+                public int size() {
+                    return LayeredMap.this.size();
+                }
+            };
+        }
+    }
 }
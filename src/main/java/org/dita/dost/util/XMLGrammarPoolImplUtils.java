@@ -8,13 +8,28 @@
  */
 package org.dita.dost.util;
 
+import org.apache.xerces.impl.dtd.DTDGrammar;
+import org.apache.xerces.impl.dtd.XMLElementDecl;
 import org.apache.xerces.impl.xs.XSDDescription;
 import org.apache.xerces.util.XMLGrammarPoolImpl;
 import org.apache.xerces.xni.grammars.Grammar;
 import org.apache.xerces.xni.grammars.XMLGrammarDescription;
 
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Self implemented XML Grammar pool for grammar(schema/dtd) caching.
+ *
+ * <p>The pool can be shared between threads. DTD grammars are prepared for concurrent use before they are added
+ * to the pool. DTD grammars with a registered public ID are identified by the public ID alone, so that documents
+ * in different directories share the grammar.</p>
+ *
+ * <p>DTD grammars added to the pool are transient until {@link #retainGrammars()} is called, and transient grammars
+ * can be removed with {@link #removeTransientGrammars()}. This allows a long-lived pool to keep the grammars
+ * preloaded from the catalog while dropping grammars found by individual builds.</p>
+ *
  * @author william
  *
  */
@@ -22,6 +37,13 @@ public final class XMLGrammarPoolImplUtils extends XMLGrammarPoolImpl {
 
     private static final Grammar[] INITIAL_GRAMMAR_SET = new Grammar[0];
 
+    /** Public IDs that always resolve to the same DTD. */
+    private final Set<String> publicIds = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    /** DTD grammars added since grammars were last retained. */
+    private final Set<Grammar> transientGrammars =
+            Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
 
     /** Constructs a grammar pool with a default number of buckets. */
     public XMLGrammarPoolImplUtils() {
@@ -41,6 +63,22 @@ public final class XMLGrammarPoolImplUtils extends XMLGrammarPoolImpl {
         return INITIAL_GRAMMAR_SET;
     }
 
+    /**
+     * @see org.apache.xerces.util.XMLGrammarPoolImpl#retrieveGrammar(XMLGrammarDescription)
+     */
+    @Override
+    public Grammar retrieveGrammar(final XMLGrammarDescription desc) {
+        final Grammar grammar = super.retrieveGrammar(desc);
+        if (XMLGrammarDescription.XML_DTD.equals(desc.getGrammarType())) {
+            if (grammar != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+        return grammar;
+    }
+
     /**
      * @see org.apache.xerces.util.XMLGrammarPoolImpl#putGrammar(org.apache.xerces.xni.grammars.Grammar)
      */
@@ -50,7 +88,83 @@ public final class XMLGrammarPoolImplUtils extends XMLGrammarPoolImpl {
      if (grammar instanceof org.apache.xerces.impl.xs.SchemaGrammar) {
       return;
      }
-     super.putGrammar(grammar);
+     if (grammar instanceof DTDGrammar) {
+         prepare((DTDGrammar) grammar);
+     }
+     synchronized (transientGrammars) {
+         if (grammar instanceof DTDGrammar && !fPoolIsLocked) {
+             transientGrammars.add(grammar);
+         }
+         super.putGrammar(grammar);
+     }
+    }
+
+    /**
+     * Create content model validators for all element declarations. DTD grammars create them lazily with
+     * shared scratch state, which is not safe when the grammar is used by parsers in multiple threads.
+     */
+    private static void prepare(final DTDGrammar grammar) {
+        final XMLElementDecl elementDecl = new XMLElementDecl();
+        for (int i = 0; grammar.getElementDecl(i, elementDecl); i++) {
+            // Content model validator is cached by grammar
+        }
+    }
+
+    /**
+     * Register public IDs that always resolve to the same DTD, e.g. public IDs from the catalog.
+     *
+     * @param publicIds DTD public IDs
+     */
+    public void addPublicIds(final Collection<String> publicIds) {
+        this.publicIds.addAll(publicIds);
+    }
+
+    /**
+     * Keep DTD grammars currently in the pool when transient grammars are removed.
+     *
+     * @since 3.2
+     */
+    public void retainGrammars() {
+        transientGrammars.clear();
+    }
+
+    /**
+     * Remove DTD grammars that were added after grammars were last retained.
+     *
+     * @return number of grammars removed
+     * @since 3.2
+     */
+    public int removeTransientGrammars() {
+        int count = 0;
+        synchronized (transientGrammars) {
+            for (final Grammar grammar : transientGrammars) {
+                final XMLGrammarDescription desc = grammar.getGrammarDescription();
+                if (getGrammar(desc) == grammar) {
+                    removeGrammar(desc);
+                    count++;
+                }
+            }
+            transientGrammars.clear();
+        }
+        return count;
+    }
+
+    /**
+     * Get number of DTD grammar lookups that were found in the pool.
+     *
+     * @return number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get number of DTD grammar lookups that were not found in the pool.
+     *
+     * @return number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
     }
 
     /**
@@ -67,11 +181,19 @@ public final class XMLGrammarPoolImplUtils extends XMLGrammarPoolImpl {
 //            return systemId == null ? 0 : systemId.hashCode();
             // return -1 for XSD grammar hashcode because we want to disable XSD grammar caching
             return -1;
+        } else if (isRegisteredDTD(desc)) {
+            return desc.getPublicId().hashCode();
         } else {
             return desc.hashCode();
         }
     }
 
+    private boolean isRegisteredDTD(final XMLGrammarDescription desc) {
+        return XMLGrammarDescription.XML_DTD.equals(desc.getGrammarType())
+                && desc.getPublicId() != null
+                && publicIds.contains(desc.getPublicId());
+    }
+
     /**
      * This method checks whether two grammars are the same. Currently, we
      * compare the root element names(public id) for DTD grammars and the system id
@@ -93,6 +215,8 @@ public final class XMLGrammarPoolImplUtils extends XMLGrammarPoolImpl {
 //                        desc2.getLiteralSystemId());
             // always return false for XSD grammar to disable XSD grammar caching
             return false;
+        } else if (isRegisteredDTD(desc1) && isRegisteredDTD(desc2)) {
+            return desc1.getPublicId().equals(desc2.getPublicId());
         } else {
             return desc1.equals(desc2);
         }
@@ -8,7 +8,6 @@
 package org.dita.dost.util;
 
 import static javax.xml.XMLConstants.NULL_NS_URI;
-import static org.apache.commons.io.FileUtils.*;
 import static org.dita.dost.util.Constants.*;
 
 import java.io.*;
@@ -50,9 +49,15 @@ public final class XMLUtils {
         factory = DocumentBuilderFactory.newInstance();
         factory.setNamespaceAware(true);
     }
+    /** Preferred SAX driver class name, empty string for platform default, {@code null} if not resolved. */
+    private static volatile String saxDriver;
+    private static final String LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler";
     private DITAOTLogger logger;
     private final TransformerFactory transformerFactory;
 
+    /** Idle XML readers reused by transform methods. */
+    private final Deque<XMLReader> readers = new ArrayDeque<>();
+
     public static final Attributes EMPTY_ATTRIBUTES = new AttributesImpl();
 
     public XMLUtils() {
@@ -419,8 +424,7 @@ public final class XMLUtils {
         final File outputFile = new File(inputFile.getAbsolutePath() + FILE_EXTENSION_TEMP);
         transformFile(inputFile, outputFile, filters);
         try {
-            deleteQuietly(inputFile);
-            moveFile(outputFile, inputFile);
+            FileUtils.replaceFile(outputFile, inputFile);
         } catch (final RuntimeException e) {
             throw e;
         } catch (final Exception e) {
@@ -448,13 +452,15 @@ public final class XMLUtils {
             throw new DITAOTException("Failed to create output directory " + outputFile.getParentFile().getAbsolutePath());
         }
 
+        XMLReader parser = null;
         try (final InputStream in = new BufferedInputStream(new FileInputStream(inputFile));
              final OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile))) {
             Transformer transformer = transformerFactory.newTransformer();
             if (logger != null) {
                 transformer = withLogger(transformer, logger);
             }
-            XMLReader reader = getXMLReader();
+            parser = borrowXMLReader();
+            XMLReader reader = parser;
             for (final XMLFilter filter : filters) {
                 // ContentHandler must be reset so e.g. Saxon 9.1 will reassign ContentHandler
                 // when reusing filter with multiple Transformers.
@@ -470,6 +476,8 @@ public final class XMLUtils {
             throw e;
         } catch (final Exception e) {
             throw new DITAOTException("Failed to transform " + inputFile + ": " + e.getMessage(), e);
+        } finally {
+            returnXMLReader(parser);
         }
     }
 
@@ -496,12 +504,14 @@ public final class XMLUtils {
 
         InputSource src = null;
         StreamResult result = null;
+        XMLReader parser = null;
         try {
             Transformer transformer = transformerFactory.newTransformer();
             if (logger != null) {
                 transformer = withLogger(transformer, logger);
             }
-            XMLReader reader = getXMLReader();
+            parser = borrowXMLReader();
+            XMLReader reader = parser;
             for (final XMLFilter filter : filters) {
                 // ContentHandler must be reset so e.g. Saxon 9.1 will reassign ContentHandler
                 // when reusing filter with multiple Transformers.
@@ -518,6 +528,7 @@ public final class XMLUtils {
         } catch (final Exception e) {
             throw new DITAOTException("Failed to transform " + input + ": " + e.getMessage(), e);
         } finally {
+            returnXMLReader(parser);
             try {
                 close(src);
             } catch (final IOException e) {
@@ -531,6 +542,40 @@ public final class XMLUtils {
         }
     }
 
+    /**
+     * Get an idle XML reader or create a new one. Readers are not shared between threads, because
+     * {@code XMLUtils} instances are not thread-safe.
+     */
+    private XMLReader borrowXMLReader() throws SAXException {
+        final XMLReader reader = readers.poll();
+        return reader != null ? reader : getXMLReader();
+    }
+
+    /**
+     * Reset handlers and return XML reader for reuse. Readers that cannot be reset are discarded.
+     *
+     * @param reader XML reader, may be {@code null}
+     */
+    private void returnXMLReader(final XMLReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.setContentHandler(null);
+            reader.setDTDHandler(null);
+            reader.setEntityResolver(null);
+            reader.setErrorHandler(null);
+        } catch (final RuntimeException e) {
+            return;
+        }
+        try {
+            reader.setProperty(LEXICAL_HANDLER_PROPERTY, null);
+        } catch (final SAXNotRecognizedException | SAXNotSupportedException | RuntimeException e) {
+            // Lexical handler not supported or cannot be cleared, ignore
+        }
+        readers.push(reader);
+    }
+
     /** Close input source. */
     public static void close(final InputSource input) throws IOException {
         if (input != null) {
@@ -647,21 +692,11 @@ public final class XMLUtils {
         if (System.getProperty(SAX_DRIVER_PROPERTY) != null) {
             return XMLReaderFactory.createXMLReader();
         }
-        try {
-            Class.forName(SAX_DRIVER_DEFAULT_CLASS);
-            reader = XMLReaderFactory.createXMLReader(SAX_DRIVER_DEFAULT_CLASS);
-        } catch (final ClassNotFoundException e) {
-            try {
-                Class.forName(SAX_DRIVER_SUN_HACK_CLASS);
-                reader = XMLReaderFactory.createXMLReader(SAX_DRIVER_SUN_HACK_CLASS);
-            } catch (final ClassNotFoundException ex) {
-                try {
-                    Class.forName(SAX_DRIVER_CRIMSON_CLASS);
-                    reader = XMLReaderFactory.createXMLReader(SAX_DRIVER_CRIMSON_CLASS);
-                } catch (final ClassNotFoundException exc) {
-                    reader = XMLReaderFactory.createXMLReader();
-                }
-            }
+        final String driver = getSaxDriver();
+        if (driver.isEmpty()) {
+            reader = XMLReaderFactory.createXMLReader();
+        } else {
+            reader = XMLReaderFactory.createXMLReader(driver);
         }
         if (Configuration.DEBUG) {
             reader = new DebugXMLReader(reader);
@@ -669,6 +704,29 @@ public final class XMLUtils {
         return reader;
     }
 
+    /**
+     * Get preferred SAX driver class name. Driver availability is only probed once.
+     *
+     * @return SAX driver class name, empty string if platform default should be used
+     */
+    private static String getSaxDriver() {
+        String driver = saxDriver;
+        if (driver == null) {
+            driver = "";
+            for (final String cls : new String[] {SAX_DRIVER_DEFAULT_CLASS, SAX_DRIVER_SUN_HACK_CLASS, SAX_DRIVER_CRIMSON_CLASS}) {
+                try {
+                    Class.forName(cls);
+                    driver = cls;
+                    break;
+                } catch (final ClassNotFoundException e) {
+                    // try next
+                }
+            }
+            saxDriver = driver;
+        }
+        return driver;
+    }
+
     /**
      * Get DOM parser.
      *
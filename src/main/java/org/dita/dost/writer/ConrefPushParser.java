@@ -19,8 +19,11 @@ import org.dita.dost.util.XMLUtils.*;
 
 import java.io.File;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Set;
 import java.util.Stack;
 
@@ -35,6 +38,7 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLFilter;
 
 /**
  * This class is for writing conref push contents into
@@ -143,6 +147,19 @@ public final class ConrefPushParser extends AbstractXMLFilter {
      */
     @Override
     public void write(final File filename) throws DITAOTException {
+        write(filename, Collections.emptyList());
+    }
+
+    /**
+     * Write conref push contents into a file and run additional filters in the same pass.
+     *
+     * @param filename absolute file to process
+     * @param pipe filters to run after conref push
+     * @throws DITAOTException exception
+     * @since 3.2
+     */
+    public void write(final File filename, final List<XMLFilter> pipe) throws DITAOTException {
+        assert filename.isAbsolute();
         hasConref = false;
         hasKeyref = false;
         isReplaced = false;
@@ -154,7 +171,10 @@ public final class ConrefPushParser extends AbstractXMLFilter {
         levelForPushAfterStack = new Stack<>();
         contentForPushAfterStack = new Stack<>();
 
-        super.write(filename);
+        final List<XMLFilter> filters = new ArrayList<>(pipe.size() + 1);
+        filters.add(this);
+        filters.addAll(pipe);
+        xmlUtils.transform(filename, filters);
 
         for (final MoveKey key: movetable.keySet()) {
             logger.warn(MessageUtils.getMessage("DOTJ043W", key.idPath, filename.getPath()).toString());
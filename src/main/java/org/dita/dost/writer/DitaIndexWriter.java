@@ -8,8 +8,8 @@
  */
 package org.dita.dost.writer;
 
-import static org.apache.commons.io.FileUtils.*;
 import static org.dita.dost.util.Constants.*;
+import static org.dita.dost.util.FileUtils.replaceFile;
 import static org.dita.dost.util.XMLUtils.*;
 
 import java.io.File;
@@ -325,8 +325,7 @@ public final class DitaIndexWriter extends AbstractXMLWriter {
             }
         }
         try {
-            deleteQuietly(inputFile);
-            moveFile(outputFile, inputFile);
+            replaceFile(outputFile, inputFile);
         } catch (final RuntimeException e) {
             throw e;
         } catch (final Exception e) {
@@ -1,7 +1,8 @@
 package com.idiominc.ws.opentopic.fo.i18n;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 
 
 /*
@@ -37,13 +38,26 @@ See the accompanying LICENSE file for applicable license.
 public class Alphabet {
     private final String name;
 
-    private final Set<Character> charset = new HashSet<Character>();
+    /** Code points in alphabet. */
+    private final BitSet charset = new BitSet();
 
 
     public Alphabet(final String theName, final Character[] theChars) {
         this.name = theName;
         for (final Character aChar : theChars) {
-            this.charset.add(aChar);
+            this.charset.set(aChar);
+        }
+    }
+
+    /**
+     * @param theName alphabet name
+     * @param theCodePoints code points in alphabet, may include supplementary code points
+     * @since 3.2
+     */
+    public Alphabet(final String theName, final int[] theCodePoints) {
+        this.name = theName;
+        for (final int codePoint : theCodePoints) {
+            this.charset.set(codePoint);
         }
     }
 
@@ -54,12 +68,33 @@ public class Alphabet {
 
 
     public boolean isContain(final char theChar) {
-        return this.charset.contains(new Character(theChar));
+        return this.charset.get(theChar);
     }
 
+    /**
+     * @since 3.2
+     */
+    public boolean isContain(final int theCodePoint) {
+        return this.charset.get(theCodePoint);
+    }
 
+
+    /**
+     * @return characters in Basic Multilingual Plane
+     */
     public Character[] getAllChars() {
-        final Character[] characters = (Character[]) charset.toArray(new Character[charset.size()]);
-        return characters;
+        final List<Character> characters = new ArrayList<>();
+        for (int i = charset.nextSetBit(0); i >= 0 && i <= Character.MAX_VALUE; i = charset.nextSetBit(i + 1)) {
+            characters.add((char) i);
+        }
+        return characters.toArray(new Character[characters.size()]);
+    }
+
+    /**
+     * @return code points in alphabet in ascending order
+     * @since 3.2
+     */
+    public int[] getAllCodePoints() {
+        return charset.stream().toArray();
     }
 }
@@ -4,8 +4,12 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
 
 import com.idiominc.ws.opentopic.fo.i18n.Alphabet;
 
@@ -43,11 +47,32 @@ public class Configuration {
     private static final String BAD_CONF_MESSAGE = "Bad configuration file format!";
 
     private final Alphabet[] alphabets;
+    /** First alphabet for each Basic Multilingual Plane character, {@code null} if no alphabet contains it. */
+    private final Alphabet[] charTable = new Alphabet[Character.MAX_VALUE + 1];
+    /** Supplementary code points in ascending order. */
+    private final int[] supplementaryCodePoints;
+    /** First alphabet for each supplementary code point in {@link #supplementaryCodePoints}. */
+    private final Alphabet[] supplementaryAlphabets;
 
 
     public Configuration(final Document theConfigurationFile)
             throws ConfigurationException {
         this.alphabets = initAlphabets(theConfigurationFile);
+
+        final Map<Integer, Alphabet> supplementary = new TreeMap<>();
+        for (final Alphabet alphabet : alphabets) {
+            for (final int codePoint : alphabet.getAllCodePoints()) {
+                if (codePoint <= Character.MAX_VALUE) {
+                    if (charTable[codePoint] == null) {
+                        charTable[codePoint] = alphabet;
+                    }
+                } else {
+                    supplementary.putIfAbsent(codePoint, alphabet);
+                }
+            }
+        }
+        supplementaryCodePoints = supplementary.keySet().stream().mapToInt(Integer::intValue).toArray();
+        supplementaryAlphabets = supplementary.values().toArray(new Alphabet[supplementary.size()]);
     }
 
 
@@ -62,14 +87,21 @@ public class Configuration {
      *      or <code>null</code> if no alphabets contains given char.
      */
     public Alphabet getAlphabetForChar(final char theChar) {
-        Alphabet result = null;
-        for (final Alphabet alphabet : this.alphabets) {
-            if (alphabet.isContain(theChar)) {
-                result = alphabet;
-                break;
-            }
+        return charTable[theChar];
+    }
+
+    /**
+     * Searches alphabets for a code point
+     * @return first founded alphabet that contains given code point
+     *      or <code>null</code> if no alphabets contains given code point.
+     * @since 3.2
+     */
+    public Alphabet getAlphabetForCodePoint(final int theCodePoint) {
+        if (theCodePoint <= Character.MAX_VALUE) {
+            return charTable[theCodePoint];
         }
-        return result;
+        final int i = Arrays.binarySearch(supplementaryCodePoints, theCodePoint);
+        return i >= 0 ? supplementaryAlphabets[i] : null;
     }
 
 
@@ -99,8 +131,8 @@ public class Configuration {
                 final Node alphabetChildNode = alphabetChildNodes.item(j);
                 final String childNodeName = alphabetChildNode.getNodeName();
                 if ("character-set".equals(childNodeName)) {
-                    final Character[] chars = processCharacterSetNode(alphabetChildNode);
-                    alphabetList.add(new Alphabet(charSetName, chars));
+                    final int[] codePoints = processCharacterSetNode(alphabetChildNode);
+                    alphabetList.add(new Alphabet(charSetName, codePoints));
                 } else {
                     //                    System.out.println("Unprocessed element [" + childNodeName + "]");
                 }
@@ -110,20 +142,17 @@ public class Configuration {
     }
 
 
-    private Character[] processCharacterSetNode(final Node theNode)
+    private int[] processCharacterSetNode(final Node theNode)
             throws ConfigurationException {
-        final List<Character> characterList = new ArrayList<Character>();
+        final List<int[]> rangeList = new ArrayList<>();
 
         final NodeList ranges = theNode.getChildNodes();
         for (int i = 0; i < ranges.getLength(); i++) {
             final Node node = ranges.item(i);
 
             if ("character".equals(node.getNodeName())) {
-                final char[] aChars = node.getFirstChild().getNodeValue().toCharArray();
-                if (aChars.length != 1) {
-                    throw new ConfigurationException(BAD_CONF_MESSAGE);
-                }
-                characterList.add(new Character(aChars[0]));
+                final int codePoint = getCodePoint(node);
+                rangeList.add(new int[] {codePoint, codePoint});
             } else if ("character-range".equals(node.getNodeName())) {
                 Node start = null;
                 Node end = null;
@@ -143,24 +172,26 @@ public class Configuration {
                     throw new ConfigurationException(BAD_CONF_MESSAGE);
                 }
 
-                final char[] startChars = start.getFirstChild().getNodeValue().toCharArray();
-                final char[] endChars = end.getFirstChild().getNodeValue().toCharArray();
-
-                if (startChars.length != 1 || endChars.length != 1) {
-                    throw new ConfigurationException(BAD_CONF_MESSAGE);
-                }
-
-                final char startChar = startChars[0];
-                final char endChar = endChars[0];
-
-                for (char ch = startChar; ch <= endChar; ch++) {
-                    characterList.add(new Character(ch));
-                }
+                rangeList.add(new int[] {getCodePoint(start), getCodePoint(end)});
             } else {
                 //                System.out.println("Unprocessed element [" + node + "]");
             }
         }
 
-        return (Character[]) characterList.toArray(new Character[characterList.size()]);
+        return rangeList.stream()
+                .flatMapToInt(range -> IntStream.rangeClosed(range[0], range[1]))
+                .toArray();
+    }
+
+    /**
+     * Read single code point value from element.
+     */
+    private int getCodePoint(final Node theNode)
+            throws ConfigurationException {
+        final String value = theNode.getFirstChild().getNodeValue();
+        if (value.isEmpty() || value.codePointCount(0, value.length()) != 1) {
+            throw new ConfigurationException(BAD_CONF_MESSAGE);
+        }
+        return value.codePointAt(0);
     }
 }
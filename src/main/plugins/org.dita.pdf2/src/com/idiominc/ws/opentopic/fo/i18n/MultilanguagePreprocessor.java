@@ -1,12 +1,21 @@
 package com.idiominc.ws.opentopic.fo.i18n;
 
+import org.dita.dost.pdf2.StreamingFilter;
 import org.dita.dost.util.XMLUtils;
 import org.w3c.dom.*;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
 
 import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.sax.TransformerHandler;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import static javax.xml.XMLConstants.NULL_NS_URI;
 import static javax.xml.XMLConstants.XMLNS_ATTRIBUTE;
 
 /*
@@ -75,6 +84,27 @@ public class MultilanguagePreprocessor {
      }
 
 
+     /**
+      * Process document by streaming. Text is split into text fragments as it is read and only a single text node
+      * is kept in memory at a time.
+      *
+      * @param theReader XML reader used to parse input
+      * @param theInput input document
+      * @param theOutput output handler with result set
+      * @throws ProcessException if processing failed
+      * @since 3.2
+      */
+     public void process(final XMLReader theReader, final InputSource theInput, final TransformerHandler theOutput)
+             throws ProcessException {
+         final MultilanguageFilter filter = new MultilanguageFilter(theOutput);
+         try {
+             filter.process(theReader, theInput);
+         } catch (final SAXException | IOException e) {
+             throw new ProcessException("Failed to process " + theInput.getSystemId() + ": " + e.getMessage(), e);
+         }
+     }
+
+
      private Node[] processCurrNode(final Node theNode, final Document theTargetDocument) {
          if (theNode.getNodeType() == Node.TEXT_NODE) {
              return processTextNode((Text) theNode, theTargetDocument);
@@ -99,34 +129,36 @@ public class MultilanguagePreprocessor {
 
          final String nodeValue = theTextNode.getNodeValue();
          if (null != nodeValue) {
-             int processedPosition = 0;
-
-             Alphabet currentAlphabet = null;
-
-             final char[] chars = nodeValue.toCharArray();
-             for (int i = 0; i < chars.length; i++) {
-                 final char aChar = chars[i];
-                 final Alphabet alphabetForChar = configuration.getAlphabetForChar(aChar);
-                 if (null != alphabetForChar && alphabetForChar.equals(currentAlphabet)) {
-                     continue;
-                 } else if (null == alphabetForChar && null == currentAlphabet) {
-                     continue;
-                 } else {
-                     final String string = nodeValue.substring(processedPosition, i);
-
-                     final Node child = createChildNode(currentAlphabet, theTargetDocument, string);
-
-                     resultNodeList.add(child);
+             split(nodeValue, (alphabet, string) -> resultNodeList.add(createChildNode(alphabet, theTargetDocument, string)));
+         }
+         return resultNodeList.toArray(new Node[resultNodeList.size()]);
+     }
 
-                     currentAlphabet = alphabetForChar;
 
-                     processedPosition = i;
+     /**
+      * Split text into fragments of consecutive code points that belong to the same alphabet.
+      *
+      * @param theValue text to split
+      * @param theConsumer consumer for alphabet, or {@code null} if no alphabet, and text fragment
+      */
+     private <E extends Exception> void split(final String theValue, final FragmentConsumer<E> theConsumer) throws E {
+         int processedPosition = 0;
+         Alphabet currentAlphabet = null;
+         for (int i = 0; i < theValue.length(); ) {
+             final int codePoint = theValue.codePointAt(i);
+             final Alphabet alphabetForChar = configuration.getAlphabetForCodePoint(codePoint);
+             if (alphabetForChar != currentAlphabet) {
+                 if (i > processedPosition) {
+                     theConsumer.accept(currentAlphabet, theValue.substring(processedPosition, i));
                  }
+                 currentAlphabet = alphabetForChar;
+                 processedPosition = i;
              }
-             final Node childNode = createChildNode(currentAlphabet, theTargetDocument, nodeValue.substring(processedPosition));
-             resultNodeList.add(childNode);
+             i += Character.charCount(codePoint);
+         }
+         if (processedPosition < theValue.length()) {
+             theConsumer.accept(currentAlphabet, theValue.substring(processedPosition));
          }
-         return resultNodeList.toArray(new Node[resultNodeList.size()]);
      }
 
 
@@ -146,4 +178,120 @@ public class MultilanguagePreprocessor {
          }
          return child;
      }
+ 
+
+     @FunctionalInterface
+     private interface FragmentConsumer<E extends Exception> {
+         void accept(Alphabet theAlphabet, String theString) throws E;
+     }
+
+
+     /**
+      * Streaming text fragment filter. Adjacent character events are buffered into a single text node before
+      * splitting so that fragment boundaries do not depend on how the parser reports text.
+      */
+     private final class MultilanguageFilter extends StreamingFilter {
+
+         private final StringBuilder buffer = new StringBuilder();
+         private int depth = 0;
+         private boolean inCDATA = false;
+
+         MultilanguageFilter(final TransformerHandler output) {
+             super(output);
+         }
+
+         // ContentHandler methods
+
+         @Override
+         public void startElement(final String uri, final String localName, final String qName, final Attributes atts)
+                 throws SAXException {
+             flush();
+             if (depth == 0) {
+                 ensureDocumentStarted();
+                 getContentHandler().startPrefixMapping(PREFIX, NAMESPACE_URL);
+             }
+             depth++;
+             getContentHandler().startElement(uri, localName, qName, atts);
+         }
+
+         @Override
+         public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+             flush();
+             depth--;
+             getContentHandler().endElement(uri, localName, qName);
+             if (depth == 0) {
+                 getContentHandler().endPrefixMapping(PREFIX);
+             }
+         }
+
+         @Override
+         public void characters(final char[] ch, final int start, final int length) throws SAXException {
+             if (inCDATA) {
+                 getContentHandler().characters(ch, start, length);
+             } else if (depth > 0) {
+                 buffer.append(ch, start, length);
+             }
+         }
+
+         @Override
+         public void ignorableWhitespace(final char[] ch, final int start, final int length) throws SAXException {
+             characters(ch, start, length);
+         }
+
+         @Override
+         public void processingInstruction(final String target, final String data) throws SAXException {
+             if (depth > 0) {
+                 flush();
+                 getContentHandler().processingInstruction(target, data);
+             }
+         }
+
+         // LexicalHandler methods
+
+         @Override
+         public void startCDATA() throws SAXException {
+             flush();
+             inCDATA = true;
+             super.startCDATA();
+         }
+
+         @Override
+         public void endCDATA() throws SAXException {
+             inCDATA = false;
+             super.endCDATA();
+         }
+
+         @Override
+         public void comment(final char[] ch, final int start, final int length) throws SAXException {
+             if (!isInDTD() && depth > 0) {
+                 flush();
+                 super.comment(ch, start, length);
+             }
+         }
+
+         // Helper methods
+
+         /**
+          * Write buffered text as text fragments.
+          */
+         private void flush() throws SAXException {
+             if (buffer.length() == 0) {
+                 return;
+             }
+             final String text = buffer.toString();
+             buffer.setLength(0);
+             split(text, (alphabet, string) -> {
+                 final char[] chars = string.toCharArray();
+                 if (alphabet != null) {
+                     final AttributesImpl atts = new AttributesImpl();
+                     atts.addAttribute(NULL_NS_URI, CHAR_SET, CHAR_SET, "CDATA", alphabet.getName());
+                     getContentHandler().startElement(NAMESPACE_URL, TEXT_FRAGMENT, PREFIX + ":" + TEXT_FRAGMENT, atts);
+                     getContentHandler().characters(chars, 0, chars.length);
+                     getContentHandler().endElement(NAMESPACE_URL, TEXT_FRAGMENT, PREFIX + ":" + TEXT_FRAGMENT);
+                 } else {
+                     getContentHandler().characters(chars, 0, chars.length);
+                 }
+             });
+         }
+     }
  }
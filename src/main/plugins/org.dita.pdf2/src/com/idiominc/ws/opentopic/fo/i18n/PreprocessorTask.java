@@ -7,12 +7,15 @@ import org.apache.tools.ant.Task;
 import org.apache.tools.ant.types.XMLCatalog;
 import org.dita.dost.util.XMLUtils;
 import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.File;
@@ -67,31 +70,29 @@ public class PreprocessorTask extends Task {
              final DocumentBuilder documentBuilder = XMLUtils.getDocumentBuilder();
              documentBuilder.setEntityResolver(xmlcatalog);
 
-             final Document doc = documentBuilder.parse(input);
+             final XMLReader xmlReader = XMLUtils.getXMLReader();
+             xmlReader.setEntityResolver(xmlcatalog);
+
              final Document conf = documentBuilder.parse(config);
              final MultilanguagePreprocessor preprocessor = new MultilanguagePreprocessor(new Configuration(conf));
-             final Document document = preprocessor.process(doc);
 
-             final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+             final SAXTransformerFactory transformerFactory = (SAXTransformerFactory) TransformerFactory.newInstance();
              transformerFactory.setURIResolver(xmlcatalog);
-             final Transformer transformer;
+             final TransformerHandler transformerHandler;
              if (style != null) {
                  log("Loading stylesheet " + style, Project.MSG_INFO);
-                 transformer = transformerFactory.newTransformer(new StreamSource(style));
+                 transformerHandler = transformerFactory.newTransformerHandler(new StreamSource(style));
              } else {
-                 transformer = transformerFactory.newTransformer();
+                 transformerHandler = transformerFactory.newTransformerHandler();
              }
+             final Transformer transformer = transformerHandler.getTransformer();
              transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
              transformer.setOutputProperty(OutputKeys.INDENT, "no");
              transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-             if (doc.getDoctype() != null) {
-                 transformer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, doc.getDoctype().getPublicId());
-                 transformer.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM, doc.getDoctype().getSystemId());
-             }
 
              out = new FileOutputStream(output);
-             final StreamResult streamResult = new StreamResult(out);
-             transformer.transform(new DOMSource(document), streamResult);
+             transformerHandler.setResult(new StreamResult(out));
+             preprocessor.process(xmlReader, new InputSource(input.toURI().toString()), transformerHandler);
          } catch (final RuntimeException e) {
              throw e;
          } catch (final Exception e) {
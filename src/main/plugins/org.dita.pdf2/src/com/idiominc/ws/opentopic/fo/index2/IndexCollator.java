@@ -57,4 +57,19 @@ public class IndexCollator {
 
     }
 
+    /**
+     * Get collation key for a string. Comparing collation keys gives the same result as {@link #compare(Object, Object)},
+     * but the key is computed only once.
+     *
+     * @param source string to get collation key for
+     * @return comparable collation key
+     */
+    public Comparable getCollationKey(final String source) {
+        if (icuCollator) {
+            return this.icu4jCollator.getCollationKey(source);
+        } else {
+            return this.defaultCollator.getCollationKey(source);
+        }
+    }
+
 }
@@ -1,15 +1,19 @@
 package com.idiominc.ws.opentopic.fo.index2;
 
 import com.ibm.icu.text.Collator;
+import com.idiominc.ws.opentopic.fo.index2.configuration.CharRange;
 import com.idiominc.ws.opentopic.fo.index2.configuration.ConfigEntry;
 import com.idiominc.ws.opentopic.fo.index2.configuration.IndexConfiguration;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.log.MessageUtils;
@@ -47,12 +51,27 @@ See the accompanying LICENSE file for applicable license.
 public final class IndexGroupProcessor {
     
     private DITAOTLogger logger;
+    private boolean failOnError = false;
+    private boolean processingFailed = false;
 
     public static final String SPECIAL_CHARACTER_GROUP_KEY = "Specials";
     
     public void setLogger(final DITAOTLogger logger) {
         this.logger = logger;
     }
+
+    public void setFailOnError(final boolean failOnError) {
+        this.failOnError = failOnError;
+    }
+
+    /**
+     * Test if uncategorized index entries failed processing.
+     *
+     * @return {@code true} if processing failed, otherwise {@code false}
+     */
+    public boolean isProcessingFailed() {
+        return processingFailed;
+    }
     
     /**
      * Puts index entries to the group they are belongs
@@ -101,6 +120,19 @@ public final class IndexGroupProcessor {
         }
          */
 
+        //Collation keys are computed once per entry and groups are found with binary search
+        final Item[] items = createItems(indexMap, collator);
+        final Item[] itemsByValue = items.clone();
+        Arrays.sort(itemsByValue, (o1, o2) -> o1.value.compareTo(o2.value));
+        final Item[] itemsByValueKey = items.clone();
+        Arrays.sort(itemsByValueKey, (o1, o2) -> compare(o1.valueKey, o2.valueKey));
+        final Item[] itemsByKeyKey = items.clone();
+        Arrays.sort(itemsByKeyKey, (o1, o2) -> compare(o1.keyKey, o2.keyKey));
+        final Map<String, List<Item>> itemsByValueIndex = new HashMap<>();
+        for (final Item item : items) {
+            itemsByValueIndex.computeIfAbsent(item.value, k -> new ArrayList<>()).add(item);
+        }
+
         for (int i = 0; i < IndexGroups.length; i++) {
             final MyIndexGroup group = IndexGroups[i];
             final ConfigEntry configEntry = group.getConfigEntry();
@@ -109,36 +141,58 @@ public final class IndexGroupProcessor {
 
             if (groupMembers.length > 0) {
                 //Find entries by comaping first letter with a chars in current config entry
-                for (final String key : new ArrayList<String>(indexMap.keySet())) {
-                    if (key.length() > 0) {
-                        final String value = getValue((IndexEntry) indexMap.get(key));
-                        //                        final char c = value.charAt(0);
-                        if (configEntry.isInRange(value,collator)) {
-                            final IndexEntry entry = (IndexEntry) indexMap.remove(key);
-                            group.addEntry(entry);
+                for (final String member : groupMembers) {
+                    //Entries that start with the member are adjacent in natural order
+                    for (int j = search(itemsByValue, item -> item.value, member, true);
+                         j < itemsByValue.length && itemsByValue[j].value.startsWith(member); j++) {
+                        addMember(group, itemsByValue[j]);
+                    }
+                    //Entries the member starts with
+                    for (int len = 1; len < member.length(); len++) {
+                        final List<Item> prefixItems = itemsByValueIndex.get(member.substring(0, len));
+                        if (prefixItems != null) {
+                            for (final Item item : prefixItems) {
+                                addMember(group, item);
+                            }
                         }
                     }
                 }
+                for (final CharRange range : configEntry.getRanges()) {
+                    final Comparable endKey = collator.getCollationKey(range.getEnd());
+                    for (int j = search(itemsByValueKey, item -> item.valueKey, collator.getCollationKey(range.getStart()), false);
+                         j < itemsByValueKey.length && compare(itemsByValueKey[j].valueKey, endKey) < 0; j++) {
+                        addMember(group, itemsByValueKey[j]);
+                    }
+                }
             } else {
                 //Get index entries by range specified by two keys
-                final String key1 = configEntry.getKey();
-                String key2 = null;
+                final Comparable key1 = collator.getCollationKey(configEntry.getKey());
+                final int start = search(itemsByValueKey, item -> item.valueKey, key1, true);
                 if ((i + 1) < entries.length) {
                     final ConfigEntry nextEntry = entries[i + 1];
-                    key2 = nextEntry.getKey();
-                }
-                final String[] indexMapKeys = getIndexKeysOfIndexesInRange(key1, key2, collator, indexMap);
-
-                for (final String mapKey : indexMapKeys) {
-                    final IndexEntry entry = (IndexEntry) indexMap.remove(mapKey);
-                    group.addEntry(entry);
+                    final Comparable key2 = collator.getCollationKey(nextEntry.getKey());
+                    final int end = search(itemsByKeyKey, item -> item.keyKey, key2, true);
+                    //Scan the shorter of the two candidate ranges and check the other bound for each entry
+                    if (itemsByValueKey.length - start <= end) {
+                        for (int j = start; j < itemsByValueKey.length; j++) {
+                            if (compare(key2, itemsByValueKey[j].keyKey) > 0) {
+                                itemsByValueKey[j].addTo(group);
+                            }
+                        }
+                    } else {
+                        for (int j = 0; j < end; j++) {
+                            if (compare(key1, itemsByKeyKey[j].valueKey) <= 0) {
+                                itemsByKeyKey[j].addTo(group);
+                            }
+                        }
+                    }
+                } else {
+                    //the right range is not specified
+                    for (int j = start; j < itemsByValueKey.length; j++) {
+                        itemsByValueKey[j].addTo(group);
+                    }
                 }
             }
-            /*
-            if (group.getEntries().length > 0) {
-                result.add(group);
-            }
-             */
         }
 
         //If some terms remain uncategorized, and a recognized special character
@@ -148,30 +202,28 @@ public final class IndexGroupProcessor {
             final ConfigEntry configEntry = group.getConfigEntry();
             final String configKey = configEntry.getKey();
             if (configKey.equals(SPECIAL_CHARACTER_GROUP_KEY)) {
-              for (final String key : new ArrayList<String>(indexMap.keySet())) {
-                    if (key.length() > 0) {
-                        final String value = getValue((IndexEntry) indexMap.get(key));
-                        //                        final char c = value.charAt(0);
-                        logger.info(MessageUtils.getMessage("PDFJ003I", value).toString());
-                        final IndexEntry entry = (IndexEntry) indexMap.remove(key);
-                        group.addEntry(entry);
+                for (final Item item : itemsByValueKey) {
+                    if (!item.grouped && item.key.length() > 0) {
+                        logger.info(MessageUtils.getMessage("PDFJ003I", item.value).toString());
+                        item.addTo(group);
                     }
                 }
             }
         }
 
         //No recognized "Special characters" group; uncategorized terms have no place to go, must be dropped
-        if (!indexMap.isEmpty()) {
-            for (final String key : new ArrayList<String>(indexMap.keySet())) {
-                if (key.length() > 0) {
-                    final IndexEntry entry = (IndexEntry) indexMap.get(key);
-                    logger.error(MessageUtils.getMessage("PDFJ001E", entry.toString()).toString());
+        boolean uncategorized = false;
+        for (final Item item : itemsByValueKey) {
+            if (!item.grouped) {
+                uncategorized = true;
+                if (item.key.length() > 0) {
+                    logger.error(MessageUtils.getMessage("PDFJ001E", item.entry.toString()).toString());
                 }
             }
-            if (IndexPreprocessorTask.failOnError) {
-                logger.error(MessageUtils.getMessage("PDFJ002E").toString());
-                IndexPreprocessorTask.processingFaild=true;
-            }
+        }
+        if (uncategorized && failOnError) {
+            logger.error(MessageUtils.getMessage("PDFJ002E").toString());
+            processingFailed = true;
         }
 
         final ArrayList<MyIndexGroup> cleanResult = new ArrayList<MyIndexGroup>();
@@ -195,23 +247,52 @@ public final class IndexGroupProcessor {
     }
 
 
-    private static String[] getIndexKeysOfIndexesInRange(final String theKey1, final String theKey2, final IndexCollator theCollator, final HashMap<String, IndexEntry> theIndexEntryMap) {
-        final ArrayList<String> res = new ArrayList<String>();
+    private static Item[] createItems(final Map<String, IndexEntry> theIndexEntryMap, final IndexCollator theCollator) {
+        final Item[] res = new Item[theIndexEntryMap.size()];
+        int i = 0;
         for (final Map.Entry<String, IndexEntry> e : theIndexEntryMap.entrySet()) {
-            final int res1 = theCollator.compare(theKey1, getValue(e.getValue()));
-            if (res1 <= 0) {
-                if (theKey2 == null) {
-                    //the right range is not specified
-                    res.add(e.getKey());
-                    continue;
-                }
-                final int res2 = theCollator.compare(theKey2, e.getKey());
-                if (res2 > 0) {
-                    res.add(e.getKey());
-                }
+            final String value = getValue(e.getValue());
+            final Comparable valueKey = theCollator.getCollationKey(value);
+            final Comparable keyKey = e.getKey().equals(value) ? valueKey : theCollator.getCollationKey(e.getKey());
+            res[i++] = new Item(e.getKey(), e.getValue(), value, valueKey, keyKey);
+        }
+        return res;
+    }
+
+    /**
+     * Find first item whose key is greater than, or equal to if inclusive, the search key.
+     *
+     * @param theItems items sorted by key
+     * @param theKey item key function
+     * @param theSearchKey search key
+     * @param theInclusive include items equal to search key
+     * @return index of first matching item, or length of items if no item matches
+     */
+    private static <T extends Comparable> int search(final Item[] theItems, final Function<Item, T> theKey,
+                                                     final T theSearchKey, final boolean theInclusive) {
+        int low = 0;
+        int high = theItems.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            final int res = compare(theKey.apply(theItems[mid]), theSearchKey);
+            if (res < 0 || (res == 0 && !theInclusive)) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
-        return (String[]) res.toArray(new String[res.size()]);
+        return low;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(final Comparable o1, final Comparable o2) {
+        return o1.compareTo(o2);
+    }
+
+    private static void addMember(final MyIndexGroup theGroup, final Item theItem) {
+        if (theItem.key.length() > 0 && theItem.value.length() > 0) {
+            theItem.addTo(theGroup);
+        }
     }
 
 
@@ -283,6 +364,37 @@ public final class IndexGroupProcessor {
     }
 
 
+    /**
+     * Index entry with precomputed collation keys.
+     */
+    private static final class Item {
+        /** Index map key, i.e. entry value */
+        private final String key;
+        private final IndexEntry entry;
+        /** Sort value */
+        private final String value;
+        private final Comparable valueKey;
+        private final Comparable keyKey;
+        private boolean grouped;
+
+        private Item(final String theKey, final IndexEntry theEntry, final String theValue,
+                     final Comparable theValueKey, final Comparable theKeyKey) {
+            this.key = theKey;
+            this.entry = theEntry;
+            this.value = theValue;
+            this.valueKey = theValueKey;
+            this.keyKey = theKeyKey;
+        }
+
+        private void addTo(final MyIndexGroup theGroup) {
+            if (!grouped) {
+                grouped = true;
+                theGroup.addEntry(entry);
+            }
+        }
+    }
+
+
     private static class MyIndexGroup
     implements IndexGroup {
         private final String label;
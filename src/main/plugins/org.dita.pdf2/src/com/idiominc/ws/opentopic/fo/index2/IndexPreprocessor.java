@@ -8,12 +8,21 @@ import com.idiominc.ws.opentopic.fo.index2.util.IndexStringProcessor;
 import com.idiominc.ws.opentopic.fo.index2.util.IndexDitaProcessor;
 import org.w3c.dom.*;
 
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
+
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.sax.TransformerHandler;
+import java.io.IOException;
 import java.util.*;
 
 import org.dita.dost.log.DITAOTLogger;
+import org.dita.dost.pdf2.StreamingFilter;
 import org.dita.dost.util.Configuration;
 import org.dita.dost.util.XMLUtils;
 
@@ -84,6 +93,24 @@ public final class IndexPreprocessor {
         indexDitaProcessor.setLogger(logger);
         indexGroupProcessor.setLogger(logger);
     }
+
+    /**
+     * Set whether index entries that cannot be grouped fail processing.
+     *
+     * @param failOnError fail processing on uncategorized index entries
+     */
+    public void setFailOnError(final boolean failOnError) {
+        indexGroupProcessor.setFailOnError(failOnError);
+    }
+
+    /**
+     * Test if processing failed because of uncategorized index entries.
+     *
+     * @return {@code true} if processing failed, otherwise {@code false}
+     */
+    public boolean isProcessingFailed() {
+        return indexGroupProcessor.isProcessingFailed();
+    }
     
     /**
      * Process index terms.
@@ -117,13 +144,41 @@ public final class IndexPreprocessor {
         return new IndexPreprocessResult(doc, (IndexEntry[]) indexes.toArray(new IndexEntry[0]));
     }
 
+    /**
+     * Process index terms and add index groups by streaming the input document. Only index term elements and
+     * index entries are kept in memory.
+     *
+     * @param theReader XML reader used to parse input
+     * @param theInput input document
+     * @param theOutput output handler with result set
+     * @param theConfiguration index configuration
+     * @param theLocale locale used to sort and compare index entries
+     * @return read index terms
+     * @throws ProcessException if processing index terms failed
+     * @since 3.2
+     */
+    public IndexEntry[] process(final XMLReader theReader, final InputSource theInput, final TransformerHandler theOutput,
+                                final IndexConfiguration theConfiguration, final Locale theLocale)
+            throws ProcessException {
+        final IndexFilter filter = new IndexFilter(theOutput, theConfiguration, theLocale);
+        try {
+            filter.process(theReader, theInput);
+        } catch (final SAXException | IOException e) {
+            throw new ProcessException("Failed to process index terms: " + e.getMessage(), e);
+        }
+        return filter.indexes.toArray(new IndexEntry[0]);
+    }
+
     public void createAndAddIndexGroups(final IndexEntry[] theIndexEntries, final IndexConfiguration theConfiguration, final Document theDocument, final Locale theLocale) {
+        final Element rootElement = theDocument.getDocumentElement();
+        rootElement.appendChild(createIndexGroups(theIndexEntries, theConfiguration, theDocument, theLocale));
+    }
+
+    private Element createIndexGroups(final IndexEntry[] theIndexEntries, final IndexConfiguration theConfiguration, final Document theDocument, final Locale theLocale) {
         final IndexComparator indexEntryComparator = new IndexComparator(theLocale);
 
         final IndexGroup[] indexGroups = indexGroupProcessor.process(theIndexEntries, theConfiguration, theLocale);
 
-        final Element rootElement = theDocument.getDocumentElement();
-
         final Element indexGroupsElement = theDocument.createElementNS(namespace_url, "index.groups");
         indexGroupsElement.setPrefix(prefix);
 
@@ -145,7 +200,7 @@ public final class IndexPreprocessor {
             indexGroupsElement.appendChild(groupElement);
         }
 
-        rootElement.appendChild(indexGroupsElement);
+        return indexGroupsElement;
     }
 
 
@@ -252,11 +307,23 @@ public final class IndexPreprocessor {
                 || INDEXING_D_INDEX_SEE_ALSO.matches(node);
     }
     
+    private boolean checkElementName(final Attributes atts) {
+        return TOPIC_INDEXTERM.matches(atts)
+                || INDEXING_D_INDEX_SORT_AS.matches(atts)
+                || INDEXING_D_INDEX_SEE.matches(atts)
+                || INDEXING_D_INDEX_SEE_ALSO.matches(atts);
+    }
+
     private boolean checkDraftNode(final Node node) {
         return TOPIC_DRAFT_COMMENT.matches(node)
                 || TOPIC_REQUIRED_CLEANUP.matches(node);
     }
 
+    private boolean checkDraftNode(final Attributes atts) {
+        return TOPIC_DRAFT_COMMENT.matches(atts)
+                || TOPIC_REQUIRED_CLEANUP.matches(atts);
+    }
+
     /**
      * Processes index string and creates nodes with "prefix" in given "namespace_url" from the parsed index entry text.
      *
@@ -390,4 +457,217 @@ public final class IndexPreprocessor {
         indexEntryNode.setPrefix(this.prefix);
         return indexEntryNode;
     }
+
+    /**
+     * Streaming index preprocessor. Elements outside index terms are passed through as is. Each index term element
+     * is read into a DOM fragment, processed and written out as index entry elements. Index groups are added to the
+     * end of the root element.
+     */
+    private final class IndexFilter extends StreamingFilter {
+
+        private final IndexConfiguration configuration;
+        private final Locale locale;
+        private final Document document;
+        private final List<IndexEntry> indexes = new ArrayList<>();
+        private final IndexEntryFoundListener listener = indexes::add;
+        /** Whether ancestor-or-self elements outside index terms started a draft section. */
+        private final Deque<Boolean> draftElements = new ArrayDeque<>();
+        /** Current index term fragment node, {@code null} if outside index terms. */
+        private Node current;
+        private int depth = 0;
+
+        IndexFilter(final TransformerHandler output, final IndexConfiguration configuration, final Locale locale) {
+            super(output);
+            this.configuration = configuration;
+            this.locale = locale;
+            this.document = XMLUtils.getDocumentBuilder().newDocument();
+        }
+
+        // ContentHandler methods
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes atts)
+                throws SAXException {
+            if (current != null) {
+                final Element element = createElement(uri, qName, atts);
+                current.appendChild(element);
+                current = element;
+            } else if (checkElementName(atts) && !excludedDraftSection.peek()) {
+                final Element element = createElement(uri, qName, atts);
+                document.appendChild(element);
+                current = element;
+            } else {
+                if (depth == 0) {
+                    ensureDocumentStarted();
+                    getContentHandler().startPrefixMapping(prefix, namespace_url);
+                }
+                depth++;
+                final boolean draft = !includeDraft && checkDraftNode(atts);
+                if (draft) {
+                    excludedDraftSection.add(true);
+                }
+                draftElements.push(draft);
+                getContentHandler().startElement(uri, localName, qName, atts);
+            }
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if (current != null) {
+                final Node parent = current.getParentNode();
+                if (parent.getNodeType() == Node.DOCUMENT_NODE) {
+                    document.removeChild(current);
+                    final Node[] nodes = processIndexNode(current, document, listener);
+                    current = null;
+                    for (final Node node : nodes) {
+                        domToSax(node);
+                    }
+                } else {
+                    current = parent;
+                }
+            } else {
+                if (draftElements.pop()) {
+                    excludedDraftSection.pop();
+                }
+                depth--;
+                if (depth == 0) {
+                    domToSax(createIndexGroups(indexes.toArray(new IndexEntry[0]), configuration, document, locale));
+                }
+                getContentHandler().endElement(uri, localName, qName);
+                if (depth == 0) {
+                    getContentHandler().endPrefixMapping(prefix);
+                }
+            }
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) throws SAXException {
+            if (current != null) {
+                final Node last = current.getLastChild();
+                if (last != null && last.getNodeType() == Node.TEXT_NODE) {
+                    ((Text) last).appendData(new String(ch, start, length));
+                } else {
+                    current.appendChild(document.createTextNode(new String(ch, start, length)));
+                }
+            } else {
+                getContentHandler().characters(ch, start, length);
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(final char[] ch, final int start, final int length) throws SAXException {
+            if (current != null) {
+                characters(ch, start, length);
+            } else {
+                getContentHandler().ignorableWhitespace(ch, start, length);
+            }
+        }
+
+        @Override
+        public void processingInstruction(final String target, final String data) throws SAXException {
+            if (current != null) {
+                current.appendChild(document.createProcessingInstruction(target, data));
+            } else if (depth > 0) {
+                getContentHandler().processingInstruction(target, data);
+            }
+        }
+
+        @Override
+        public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+            if (current == null) {
+                super.startPrefixMapping(prefix, uri);
+            }
+        }
+
+        @Override
+        public void endPrefixMapping(final String prefix) throws SAXException {
+            if (current == null) {
+                getContentHandler().endPrefixMapping(prefix);
+            }
+        }
+
+        // LexicalHandler methods
+
+        @Override
+        public void startCDATA() throws SAXException {
+            if (current == null) {
+                super.startCDATA();
+            }
+        }
+
+        @Override
+        public void endCDATA() throws SAXException {
+            if (current == null) {
+                super.endCDATA();
+            }
+        }
+
+        @Override
+        public void comment(final char[] ch, final int start, final int length) throws SAXException {
+            if (isInDTD()) {
+                return;
+            }
+            if (current != null) {
+                current.appendChild(document.createComment(new String(ch, start, length)));
+            } else if (depth > 0) {
+                super.comment(ch, start, length);
+            }
+        }
+
+        // Helper methods
+
+        private Element createElement(final String uri, final String qName, final Attributes atts) {
+            final Element element = document.createElementNS(uri.isEmpty() ? null : uri, qName);
+            for (int i = 0; i < atts.getLength(); i++) {
+                final String attUri = atts.getURI(i);
+                element.setAttributeNS(attUri.isEmpty() ? null : attUri, atts.getQName(i), atts.getValue(i));
+            }
+            return element;
+        }
+
+        private void domToSax(final Node node) throws SAXException {
+            switch (node.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    final AttributesImpl atts = new AttributesImpl();
+                    final NamedNodeMap attrs = node.getAttributes();
+                    for (int i = 0; i < attrs.getLength(); i++) {
+                        final Node attr = attrs.item(i);
+                        if (!XMLNS_ATTRIBUTE_NS_URI.equals(attr.getNamespaceURI())) {
+                            atts.addAttribute(getNamespaceURI(attr), getLocalName(attr), attr.getNodeName(), "CDATA",
+                                    attr.getNodeValue());
+                        }
+                    }
+                    getContentHandler().startElement(getNamespaceURI(node), getLocalName(node), node.getNodeName(), atts);
+                    for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                        domToSax(child);
+                    }
+                    getContentHandler().endElement(getNamespaceURI(node), getLocalName(node), node.getNodeName());
+                    break;
+                case Node.TEXT_NODE:
+                case Node.CDATA_SECTION_NODE:
+                    final char[] data = node.getNodeValue().toCharArray();
+                    getContentHandler().characters(data, 0, data.length);
+                    break;
+                case Node.PROCESSING_INSTRUCTION_NODE:
+                    getContentHandler().processingInstruction(node.getNodeName(), node.getNodeValue());
+                    break;
+                case Node.COMMENT_NODE:
+                    final char[] comment = node.getNodeValue().toCharArray();
+                    output.comment(comment, 0, comment.length);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private String getNamespaceURI(final Node node) {
+            final String uri = node.getNamespaceURI();
+            return uri != null ? uri : NULL_NS_URI;
+        }
+
+        private String getLocalName(final Node node) {
+            final String localName = node.getLocalName();
+            return localName != null ? localName : node.getNodeName();
+        }
+    }
 }
@@ -26,6 +26,14 @@ public class CharRange {
         end = theEnd;
     }
 
+    public String getStart() {
+        return start;
+    }
+
+    public String getEnd() {
+        return end;
+    }
+
     public boolean isInRange(final String value, final IndexCollator collator){
         return (collator.compare(value,start) > 0) && (collator.compare(value,end) < 0);
     }
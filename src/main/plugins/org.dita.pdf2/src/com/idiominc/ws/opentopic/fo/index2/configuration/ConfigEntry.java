@@ -52,6 +52,11 @@ public interface ConfigEntry {
       */
      String[] getGroupMembers();
 
+     /**
+      * @return character ranges of this group, start and end exclusive
+      */
+     CharRange[] getRanges();
+
      boolean isInRange(String value, IndexCollator collator);
 
  }
@@ -72,6 +72,10 @@ See the accompanying LICENSE file for applicable license.
          return this.members;
      }
 
+     public CharRange[] getRanges() {
+         return this.ranges;
+     }
+
      public boolean isInRange(final String value, final IndexCollator collator) {
          if (value.length() > 0) {
              for (final String member : members) {
@@ -0,0 +1,137 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.pdf2;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.sax.TransformerHandler;
+import java.io.IOException;
+
+/**
+ * Base class for preprocessing filters that stream a document into a serializing transformer handler.
+ *
+ * <p>Start of document is delayed until the document type declaration has been read, so that the doctype can be
+ * passed to the serializer. Comments outside the DTD and CDATA sections are passed through to the output.</p>
+ *
+ * @since 3.2
+ */
+public abstract class StreamingFilter extends XMLFilterImpl implements LexicalHandler {
+
+    private static final String LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler";
+
+    /** Output handler with result set. */
+    protected final TransformerHandler output;
+    private boolean documentStarted = false;
+    private boolean inDTD = false;
+
+    protected StreamingFilter(final TransformerHandler output) {
+        this.output = output;
+    }
+
+    /**
+     * Parse input through this filter into the output handler.
+     *
+     * @param reader XML reader used to parse input
+     * @param input input document
+     */
+    public void process(final XMLReader reader, final InputSource input) throws SAXException, IOException {
+        setParent(reader);
+        setEntityResolver(reader.getEntityResolver());
+        setContentHandler(output);
+        reader.setProperty(LEXICAL_HANDLER_PROPERTY, this);
+        parse(input);
+    }
+
+    // ContentHandler methods
+
+    @Override
+    public void startDocument() {
+        // delayed until document type declaration has been read
+    }
+
+    @Override
+    public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+        ensureDocumentStarted();
+        getContentHandler().startPrefixMapping(prefix, uri);
+    }
+
+    // LexicalHandler methods
+
+    @Override
+    public void startDTD(final String name, final String publicId, final String systemId) throws SAXException {
+        inDTD = true;
+        final Transformer serializer = output.getTransformer();
+        if (publicId != null) {
+            serializer.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, publicId);
+        }
+        if (systemId != null) {
+            serializer.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM, systemId);
+        }
+        ensureDocumentStarted();
+        output.startDTD(name, publicId, systemId);
+    }
+
+    @Override
+    public void endDTD() throws SAXException {
+        inDTD = false;
+        output.endDTD();
+    }
+
+    @Override
+    public void startEntity(final String name) {
+        // NOOP
+    }
+
+    @Override
+    public void endEntity(final String name) {
+        // NOOP
+    }
+
+    @Override
+    public void startCDATA() throws SAXException {
+        output.startCDATA();
+    }
+
+    @Override
+    public void endCDATA() throws SAXException {
+        output.endCDATA();
+    }
+
+    @Override
+    public void comment(final char[] ch, final int start, final int length) throws SAXException {
+        if (!inDTD) {
+            output.comment(ch, start, length);
+        }
+    }
+
+    // Helper methods
+
+    /**
+     * Test if parser is inside the document type declaration.
+     */
+    protected boolean isInDTD() {
+        return inDTD;
+    }
+
+    /**
+     * Start output document if it has not been started yet.
+     */
+    protected void ensureDocumentStarted() throws SAXException {
+        if (!documentStarted) {
+            documentStarted = true;
+            getContentHandler().startDocument();
+        }
+    }
+
+}
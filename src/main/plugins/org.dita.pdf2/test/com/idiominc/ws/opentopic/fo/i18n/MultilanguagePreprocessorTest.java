@@ -0,0 +1,127 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package com.idiominc.ws.opentopic.fo.i18n;
+
+import org.dita.dost.util.XMLUtils;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MultilanguagePreprocessorTest {
+
+    private static final String NAMESPACE = "http://www.idiominc.com/opentopic/i18n";
+    private static final String GRINNING = new String(Character.toChars(0x1F600));
+    private static final String SMILEY = new String(Character.toChars(0x1F603));
+    private static final String CYCLONE = new String(Character.toChars(0x1F300));
+    private static final String EXT_B = new String(Character.toChars(0x20000));
+    private static final String CONFIGURATION = "<configuration>" +
+            "<alphabet char-set='Emoji'><character-set>" +
+            "<character-range><start>" + GRINNING + "</start><end>" + new String(Character.toChars(0x1F64F)) + "</end></character-range>" +
+            "</character-set></alphabet>" +
+            "<alphabet char-set='ExtB'><character-set><character>" + EXT_B + "</character></character-set></alphabet>" +
+            "<alphabet char-set='Symbols'><character-set><character>&#169;</character></character-set></alphabet>" +
+            "</configuration>";
+    private static final String TEXT = "x" + GRINNING + SMILEY + "y" + CYCLONE + EXT_B + "©z";
+    private static final List<String> EXP = asList(
+            "x", "Emoji:" + GRINNING + SMILEY, "y" + CYCLONE, "ExtB:" + EXT_B, "Symbols:©", "z");
+
+    @Test
+    public void testSupplementaryCodePoints() throws Exception {
+        final String doc = "<!DOCTYPE topic PUBLIC '-//TEST//DTD Test//EN' 'test.dtd'>" +
+                "<topic><!-- comment --><p>" + TEXT + "</p><pre><![CDATA[<©>]]></pre></topic>";
+
+        final String out = process(doc);
+
+        final Document act = parse(out);
+        assertEquals(EXP, fragments((Element) act.getElementsByTagName("p").item(0)));
+        assertEquals(asList("<©>"), fragments((Element) act.getElementsByTagName("pre").item(0)));
+        assertTrue(out.contains("-//TEST//DTD Test//EN"));
+        assertTrue(out.contains("<!-- comment -->"));
+        assertTrue(out.contains("<![CDATA[<©>]]>"));
+    }
+
+    @Test
+    public void testSupplementaryCodePointsCharacterReferences() throws Exception {
+        // Character references make the parser report text in several character events
+        final StringBuilder text = new StringBuilder();
+        TEXT.codePoints().forEach(c -> text.append("&#x").append(Integer.toHexString(c)).append(';'));
+
+        final Document act = parse(process("<topic><p>" + text + "</p></topic>"));
+
+        assertEquals(EXP, fragments((Element) act.getElementsByTagName("p").item(0)));
+    }
+
+    @Test
+    public void testSupplementaryCodePointsDocument() throws Exception {
+        final Document doc = parse("<topic><p>" + TEXT + "</p></topic>");
+
+        final Document act = newPreprocessor().process(doc);
+
+        assertEquals(EXP, fragments((Element) act.getElementsByTagName("p").item(0)));
+    }
+
+    private static MultilanguagePreprocessor newPreprocessor() throws Exception {
+        return new MultilanguagePreprocessor(new Configuration(parse(CONFIGURATION)));
+    }
+
+    private static String process(final String doc) throws Exception {
+        final StringWriter buf = new StringWriter();
+        final TransformerHandler serializer = ((SAXTransformerFactory) TransformerFactory.newInstance())
+                .newTransformerHandler();
+        serializer.setResult(new StreamResult(buf));
+        final XMLReader reader = XMLUtils.getXMLReader();
+        reader.setEntityResolver((publicId, systemId) -> new InputSource(new StringReader("")));
+        newPreprocessor().process(reader, new InputSource(new StringReader(doc)), serializer);
+        return buf.toString();
+    }
+
+    private static Document parse(final String doc) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final DocumentBuilder builder = factory.newDocumentBuilder();
+        builder.setEntityResolver((publicId, systemId) -> new InputSource(new StringReader("")));
+        return builder.parse(new InputSource(new StringReader(doc)));
+    }
+
+    /**
+     * Read text fragments from element. Fragments with an alphabet are prefixed with the alphabet name.
+     */
+    private static List<String> fragments(final Element element) {
+        element.normalize();
+        final List<String> res = new ArrayList<>();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                assertEquals(NAMESPACE, child.getNamespaceURI());
+                assertEquals("text-fragment", child.getLocalName());
+                res.add(((Element) child).getAttribute("char-set") + ":" + child.getTextContent());
+            } else {
+                res.add(child.getNodeValue());
+            }
+        }
+        return res;
+    }
+
+}
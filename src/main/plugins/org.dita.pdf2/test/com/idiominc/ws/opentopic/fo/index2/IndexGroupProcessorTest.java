@@ -0,0 +1,219 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package com.idiominc.ws.opentopic.fo.index2;
+
+import com.idiominc.ws.opentopic.fo.index2.configuration.ConfigEntry;
+import com.idiominc.ws.opentopic.fo.index2.configuration.IndexConfiguration;
+import org.dita.dost.TestUtils;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IndexGroupProcessorTest {
+
+    private static final File configDir = new File("cfg" + File.separator + "common" + File.separator + "index");
+
+    @Test
+    public void testLatin() throws Exception {
+        assertSameGroups(parse("en.xml"), Locale.US,
+                "apple", "Apple", "banana", "Banana split", "zebra", "Zulu", "x", "xylophone",
+                "ärger", "Éclair", "123", "9 lives", "#hash", "_underscore", "(parens)", "¿que?",
+                "sort:The Beatles:Beatles", "sort:Beta:ß");
+    }
+
+    @Test
+    public void testCJK() throws Exception {
+        assertSameGroups(parse("zh_CN.xml"), Locale.SIMPLIFIED_CHINESE,
+                "吖", "阿", "仈", "八", "把", "爸爸", "中国", "北京",
+                "上海", "测试", "座", "齐", "apple", "Zebra", "１２", "7",
+                "sort:银行:yinhang", "sort:重庆:chongqing");
+        assertSameGroups(parse("ja.xml"), Locale.JAPANESE,
+                "あ", "いぬ", "かさ", "カタカナ", "漢字",
+                "ひらがな", "ん", "ヴ", "apple", "42");
+    }
+
+    @Test
+    public void testRangeBoundaries() throws Exception {
+        final IndexConfiguration config = IndexConfiguration.parse(DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new InputSource(new StringReader("<index.configuration.set><index.configuration><index.groups>" +
+                        "<index.group><group.key>Specials</group.key><group.label>Specials</group.label>" +
+                        "<group.members><char.set>#</char.set></group.members></index.group>" +
+                        "<index.group><group.key>M</group.key><group.label>M-P</group.label>" +
+                        "<group.members><char.set start-range='m' end-range='p'/></group.members></index.group>" +
+                        "<index.group><group.key>A</group.key><group.label>A</group.label></index.group>" +
+                        "<index.group><group.key>F</group.key><group.label>F</group.label></index.group>" +
+                        "<index.group><group.key>K</group.key><group.label>K</group.label></index.group>" +
+                        "</index.groups></index.configuration></index.configuration.set>"))));
+
+        final List<String> values = Arrays.asList(
+                "A", "a", "Aa", "E", "ezz", "F", "f", "Fa", "K", "k", "Zed",
+                "m", "mango", "n", "o", "ozz", "p", "P", "pa", "#1", "%",
+                "sort:Zoo:Ant", "sort:Bee:Zulu", "sort:Kite:Fern", "sort:Gnu:Fa");
+        assertSameGroups(config, Locale.US, values.toArray(new String[0]));
+        // Entries before the first key change which end of a key range is scanned
+        final List<String> specials = new ArrayList<>(values);
+        for (int i = 0; i < 40; i++) {
+            specials.add(Integer.toString(i));
+        }
+        assertSameGroups(config, Locale.US, specials.toArray(new String[0]));
+    }
+
+    @Test
+    public void testFailOnError() throws Exception {
+        final IndexConfiguration config = IndexConfiguration.parse(DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new InputSource(new StringReader("<index.configuration.set><index.configuration><index.groups>" +
+                        "<index.group><group.key>A</group.key><group.label>A</group.label></index.group>" +
+                        "</index.groups></index.configuration></index.configuration.set>"))));
+        final IndexEntry[] entries = {newIndexEntry("apple", null), newIndexEntry("#hash", null)};
+
+        final IndexGroupProcessor failing = new IndexGroupProcessor();
+        failing.setLogger(new TestUtils.TestLogger(false));
+        failing.setFailOnError(true);
+        failing.process(entries, config, Locale.US);
+        assertTrue(failing.isProcessingFailed());
+
+        // Failure state is not shared between processors
+        final IndexGroupProcessor other = new IndexGroupProcessor();
+        other.setLogger(new TestUtils.TestLogger(false));
+        other.setFailOnError(true);
+        other.process(new IndexEntry[] {newIndexEntry("apple", null)}, config, Locale.US);
+        assertFalse(other.isProcessingFailed());
+
+        final IndexGroupProcessor lenient = new IndexGroupProcessor();
+        lenient.setLogger(new TestUtils.TestLogger(false));
+        lenient.process(entries, config, Locale.US);
+        assertFalse(lenient.isProcessingFailed());
+    }
+
+    private static IndexConfiguration parse(final String name) throws Exception {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        return IndexConfiguration.parse(factory.newDocumentBuilder().parse(new File(configDir, name)));
+    }
+
+    /**
+     * Assert grouping matches the algorithm used before collation keys were precomputed.
+     *
+     * @param values entry values, {@code sort:value:sort-as} for entries with a sort string
+     */
+    private static void assertSameGroups(final IndexConfiguration config, final Locale locale, final String... values) {
+        final List<IndexEntry> entries = new ArrayList<>();
+        for (final String value : values) {
+            if (value.startsWith("sort:")) {
+                final String[] tokens = value.split(":");
+                entries.add(newIndexEntry(tokens[1], tokens[2]));
+            } else {
+                entries.add(newIndexEntry(value, null));
+            }
+        }
+        final IndexEntry[] entryArray = entries.toArray(new IndexEntry[0]);
+
+        final Map<String, Set<String>> exp = processReference(entryArray, config, locale);
+        final IndexGroupProcessor processor = new IndexGroupProcessor();
+        processor.setLogger(new TestUtils.TestLogger(false));
+        final Map<String, Set<String>> act = toMap(processor.process(entryArray, config, locale));
+
+        assertFalse(exp.isEmpty());
+        assertEquals(exp, act);
+    }
+
+    private static IndexEntry newIndexEntry(final String value, final String sortString) {
+        return (IndexEntry) Proxy.newProxyInstance(IndexEntry.class.getClassLoader(), new Class<?>[] {IndexEntry.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getValue":
+                        case "getFormattedString":
+                        case "toString":
+                            return value;
+                        case "getSortString":
+                            return sortString;
+                        case "getRefIDs":
+                            return new String[0];
+                        case "getChildIndexEntries":
+                        case "getSeeChildIndexEntries":
+                        case "getSeeAlsoChildIndexEntries":
+                            return new IndexEntry[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return method.getReturnType() == boolean.class ? false : null;
+                    }
+                });
+    }
+
+    private static Map<String, Set<String>> toMap(final IndexGroup[] groups) {
+        final Map<String, Set<String>> res = new HashMap<>();
+        for (final IndexGroup group : groups) {
+            for (final IndexEntry entry : group.getEntries()) {
+                res.computeIfAbsent(group.getLabel(), k -> new HashSet<>()).add(entry.getValue());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Group entries by comparing each entry to each group with the collator.
+     */
+    private static Map<String, Set<String>> processReference(final IndexEntry[] entries, final IndexConfiguration config,
+                                                             final Locale locale) {
+        final IndexCollator collator = new IndexCollator(locale);
+        final Map<String, IndexEntry> indexMap = new HashMap<>();
+        for (final IndexEntry entry : entries) {
+            indexMap.putIfAbsent(entry.getValue(), entry);
+        }
+        final ConfigEntry[] configEntries = config.getEntries();
+        final Map<String, Set<String>> res = new HashMap<>();
+        for (int i = 0; i < configEntries.length; i++) {
+            final ConfigEntry configEntry = configEntries[i];
+            final Set<String> group = res.computeIfAbsent(configEntry.getLabel(), k -> new HashSet<>());
+            if (configEntry.getGroupMembers().length > 0) {
+                for (final String key : new ArrayList<>(indexMap.keySet())) {
+                    if (key.length() > 0 && configEntry.isInRange(getValue(indexMap.get(key)), collator)) {
+                        group.add(indexMap.remove(key).getValue());
+                    }
+                }
+            } else {
+                final String key1 = configEntry.getKey();
+                final String key2 = i + 1 < configEntries.length ? configEntries[i + 1].getKey() : null;
+                for (final String key : new ArrayList<>(indexMap.keySet())) {
+                    if (collator.compare(key1, getValue(indexMap.get(key))) <= 0
+                            && (key2 == null || collator.compare(key2, key) > 0)) {
+                        group.add(indexMap.remove(key).getValue());
+                    }
+                }
+            }
+        }
+        for (final ConfigEntry configEntry : configEntries) {
+            if (configEntry.getKey().equals(IndexGroupProcessor.SPECIAL_CHARACTER_GROUP_KEY)) {
+                for (final String key : new ArrayList<>(indexMap.keySet())) {
+                    if (key.length() > 0) {
+                        res.get(configEntry.getLabel()).add(indexMap.remove(key).getValue());
+                    }
+                }
+            }
+        }
+        res.values().removeIf(Set::isEmpty);
+        return res;
+    }
+
+    private static String getValue(final IndexEntry entry) {
+        final String sortValue = entry.getSortString();
+        return sortValue != null && sortValue.length() > 0 ? sortValue : entry.getValue();
+    }
+
+}
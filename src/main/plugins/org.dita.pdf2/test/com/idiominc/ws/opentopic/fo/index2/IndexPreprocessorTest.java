@@ -0,0 +1,135 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package com.idiominc.ws.opentopic.fo.index2;
+
+import com.idiominc.ws.opentopic.fo.index2.configuration.IndexConfiguration;
+import org.dita.dost.TestUtils;
+import org.dita.dost.util.XMLUtils;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+public class IndexPreprocessorTest {
+
+    private static final String PREFIX = "opentopic-index";
+    private static final String NAMESPACE = "http://www.idiominc.com/opentopic/index";
+    private static final File config = new File("cfg" + File.separator + "common" + File.separator + "index"
+            + File.separator + "en.xml");
+
+    private static final String DOCUMENT = "<!DOCTYPE topic PUBLIC '-//TEST//DTD Test//EN' 'test.dtd'>" +
+            "<topic class='- topic/topic ' id='topic'>" +
+            "<!-- comment -->" +
+            "<prolog class='- topic/prolog '>" +
+            "<indexterm class='- topic/indexterm '>Alpha" +
+            "<indexterm class='- topic/indexterm '>Beta" +
+            "<indexterm class='- topic/indexterm '>Gamma</indexterm>" +
+            "</indexterm>" +
+            "</indexterm>" +
+            "</prolog>" +
+            "<body class='- topic/body '>" +
+            "<draft-comment class='- topic/draft-comment '>" +
+            "<indexterm class='- topic/indexterm '>Draft</indexterm>" +
+            "<p class='- topic/p '><indexterm class='- topic/indexterm '>Nested draft</indexterm></p>" +
+            "</draft-comment>" +
+            "<p class='- topic/p '><![CDATA[<cdata>]]><indexterm class='- topic/indexterm '>Delta</indexterm></p>" +
+            "</body>" +
+            "</topic>";
+
+    @Test
+    public void testNested() throws Exception {
+        final List<IndexEntry> act = Arrays.asList(process("no", new StringWriter()));
+
+        final IndexEntry alpha = find(act, "Alpha");
+        assertEquals(singletonList("Beta"), values(alpha.getChildIndexEntries()));
+        final IndexEntry beta = alpha.getChildIndexEntries()[0];
+        assertEquals(singletonList("Gamma"), values(beta.getChildIndexEntries()));
+        assertEquals(emptyList(), values(beta.getChildIndexEntries()[0].getChildIndexEntries()));
+    }
+
+    @Test
+    public void testDraftExcluded() throws Exception {
+        final StringWriter buf = new StringWriter();
+        final IndexEntry[] act = process("no", buf);
+
+        assertEquals(Arrays.asList("Alpha", "Delta"), values(act));
+        final String out = buf.toString();
+        assertTrue(out.contains("<indexterm class=\"- topic/indexterm \">Draft</indexterm>"));
+        assertTrue(out.contains("<indexterm class=\"- topic/indexterm \">Nested draft</indexterm>"));
+        assertFalse(out.contains("value=\"Draft\""));
+    }
+
+    @Test
+    public void testDraftIncluded() throws Exception {
+        final StringWriter buf = new StringWriter();
+        final IndexEntry[] act = process("yes", buf);
+
+        assertEquals(Arrays.asList("Alpha", "Draft", "Nested draft", "Delta"), values(act));
+        final String out = buf.toString();
+        assertFalse(out.contains("<indexterm"));
+        assertTrue(out.contains("value=\"Draft\""));
+        assertTrue(out.contains("value=\"Nested draft\""));
+    }
+
+    @Test
+    public void testPassthrough() throws Exception {
+        final StringWriter buf = new StringWriter();
+        process("no", buf);
+
+        final String out = buf.toString();
+        assertTrue(out.contains("-//TEST//DTD Test//EN"));
+        assertTrue(out.contains("<!-- comment -->"));
+        assertTrue(out.contains("<![CDATA[<cdata>]]>"));
+        assertTrue(out.contains(PREFIX + ":index.groups"));
+    }
+
+    private static IndexEntry[] process(final String draft, final StringWriter out) throws Exception {
+        final IndexPreprocessor preprocessor = new IndexPreprocessor(PREFIX, NAMESPACE, draft);
+        preprocessor.setLogger(new TestUtils.TestLogger(false));
+        final IndexConfiguration configuration = IndexConfiguration.parse(
+                DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(config));
+        final TransformerHandler serializer = ((SAXTransformerFactory) TransformerFactory.newInstance())
+                .newTransformerHandler();
+        serializer.setResult(new StreamResult(out));
+        final InputSource input = new InputSource(new StringReader(DOCUMENT));
+        input.setSystemId(new File("topic.dita").toURI().toString());
+        final XMLReader reader = XMLUtils.getXMLReader();
+        reader.setEntityResolver((publicId, systemId) -> new InputSource(new StringReader("")));
+        return preprocessor.process(reader, input, serializer, configuration, Locale.US);
+    }
+
+    private static IndexEntry find(final List<IndexEntry> entries, final String value) {
+        return entries.stream().filter(e -> value.equals(e.getValue())).findFirst()
+                .orElseThrow(() -> new AssertionError("Index entry " + value + " not found"));
+    }
+
+    private static List<String> values(final IndexEntry[] entries) {
+        final List<String> res = new ArrayList<>();
+        for (final IndexEntry entry : entries) {
+            res.add(entry.getValue());
+        }
+        return res;
+    }
+
+}
@@ -10,6 +10,11 @@ import org.junit.rules.TemporaryFolder;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -19,6 +24,7 @@ public class ProcessorTest {
     @Rule
     public final TemporaryFolder tempDirGenerator = new TemporaryFolder();
 
+    private ProcessorFactory pf;
     private Processor p;
     private File tempDir;
 
@@ -28,7 +34,7 @@ public class ProcessorTest {
         if (ditaDir == null) {
             ditaDir = new File("src" + File.separator + "main").getAbsolutePath();
         }
-        final ProcessorFactory pf = ProcessorFactory.newInstance(new File(ditaDir));
+        pf = ProcessorFactory.newInstance(new File(ditaDir));
 
         tempDir = tempDirGenerator.newFolder("tmp");
         pf.setBaseTempDir(tempDir);
@@ -61,6 +67,31 @@ public class ProcessorTest {
         assertEquals(1, tempDir.listFiles(f -> f.isFile() && f.getName().endsWith(".log")).length);
     }
 
+    @Test
+    public void testRunConcurrently() throws Exception {
+        final File mapFile = new File(getClass().getClassLoader().getResource("ProcessorTest/test.ditamap").toURI());
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                final File out = tempDirGenerator.newFolder("out" + i);
+                final Processor processor = pf.newProcessor("html5")
+                        .setInput(mapFile)
+                        .setOutputDir(out);
+                results.add(executor.submit(() -> {
+                    processor.run();
+                    return null;
+                }));
+            }
+            for (final Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(2, tempDir.listFiles(f -> f.isFile() && f.getName().endsWith(".log")).length);
+    }
 
     @Test(expected = org.dita.dost.exception.DITAOTException.class)
     public void testBroken() throws DITAOTException {
@@ -0,0 +1,125 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.ant;
+
+import org.dita.dost.ant.ExtensibleAntInvoker.ModuleElem;
+import org.dita.dost.ant.ExtensibleAntInvoker.SaxPipeElem;
+import org.dita.dost.ant.ExtensibleAntInvoker.XmlFilterElem;
+import org.dita.dost.ant.ExtensibleAntInvoker.XsltElem;
+import org.dita.dost.module.DummyPipelineModule;
+import org.dita.dost.module.XmlFilterModule;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
+import org.dita.dost.util.Job.FileInfo;
+import org.dita.dost.writer.AbstractXMLFilter;
+import org.dita.dost.writer.NormalizeTableFilter;
+import org.dita.dost.writer.TopicFragmentFilter;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.dita.dost.util.Constants.ATTR_FORMAT_VALUE_DITA;
+import static org.dita.dost.util.Constants.ATTR_FORMAT_VALUE_DITAMAP;
+import static org.junit.Assert.*;
+
+public class ExtensibleAntInvokerTest {
+
+    private static final FileInfo TOPIC = new FileInfo.Builder()
+            .uri(URI.create("topic.dita")).format(ATTR_FORMAT_VALUE_DITA).build();
+    private static final FileInfo MAP = new FileInfo.Builder()
+            .uri(URI.create("map.ditamap")).format(ATTR_FORMAT_VALUE_DITAMAP).build();
+
+    @Test
+    public void testGroupModulesDefault() {
+        final ExtensibleAntInvoker invoker = new ExtensibleAntInvoker();
+        invoker.addConfiguredSax(newSax(null, TopicFragmentFilter.class));
+        invoker.addConfiguredSax(newSax(null, NormalizeTableFilter.class));
+
+        assertEquals(asList(1, 1), sizes(invoker.groupModules()));
+    }
+
+    @Test
+    public void testGroupModulesFuse() {
+        final ExtensibleAntInvoker invoker = new ExtensibleAntInvoker();
+        invoker.setFuse(true);
+        invoker.addConfiguredSax(newSax(null, TopicFragmentFilter.class));
+        invoker.addConfiguredSax(newSax(null, NormalizeTableFilter.class));
+        invoker.addConfiguredModule(newModule(DummyPipelineModule.class));
+        invoker.addConfiguredSax(newSax(null, TopicFragmentFilter.class));
+        invoker.addConfiguredModule(newModule(XmlFilterModule.class));
+        invoker.addConfiguredSax(newSax(null, TopicFragmentFilter.class));
+        invoker.addConfiguredSax(newSax(null, NormalizeTableFilter.class));
+        invoker.addConfiguredXslt(new XsltElem());
+        invoker.addConfiguredSax(newSax(null, TopicFragmentFilter.class));
+
+        assertEquals(asList(2, 1, 1, 3, 2), sizes(invoker.groupModules()));
+    }
+
+    @Test
+    public void testGetSaxPipe() {
+        final List<FilterPair> act = ExtensibleAntInvoker.getSaxPipe(asList(
+                newSax(ATTR_FORMAT_VALUE_DITA, TopicFragmentFilter.class),
+                newSax(ATTR_FORMAT_VALUE_DITAMAP, NormalizeTableFilter.class)));
+
+        assertEquals(2, act.size());
+        assertTrue(act.get(0).newFilter() instanceof TopicFragmentFilter);
+        assertTrue(act.get(0).predicate.test(TOPIC));
+        assertFalse(act.get(0).predicate.test(MAP));
+        assertTrue(act.get(1).newFilter() instanceof NormalizeTableFilter);
+        assertFalse(act.get(1).predicate.test(TOPIC));
+        assertTrue(act.get(1).predicate.test(MAP));
+        assertNotSame(act.get(0).newFilter(), act.get(0).newFilter());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testGetSaxPipeSharedFilter() {
+        final AbstractXMLFilter shared = new TopicFragmentFilter();
+        final SaxPipeElem sax = new SaxPipeElem() {
+            @Override
+            public List<FilterPair> getFilters() {
+                return Collections.singletonList(new FilterPair(shared, f -> true));
+            }
+        };
+        sax.setFormat(ATTR_FORMAT_VALUE_DITA);
+
+        final List<FilterPair> act = ExtensibleAntInvoker.getSaxPipe(Arrays.asList(sax, newSax(null, NormalizeTableFilter.class)));
+
+        assertSame(shared, act.get(0).filter);
+        assertSame(shared, act.get(0).newFilter());
+        assertTrue(act.get(0).predicate.test(TOPIC));
+        assertFalse(act.get(0).predicate.test(MAP));
+        assertNull(act.get(1).filter);
+    }
+
+    private static SaxPipeElem newSax(final String format, final Class<? extends AbstractXMLFilter> cls) {
+        final SaxPipeElem sax = new SaxPipeElem();
+        if (format != null) {
+            sax.setFormat(format);
+        }
+        final XmlFilterElem filter = new XmlFilterElem();
+        filter.setClass(cls);
+        sax.addConfiguredFilter(filter);
+        return sax;
+    }
+
+    private static ModuleElem newModule(final Class<? extends org.dita.dost.module.AbstractPipelineModule> cls) {
+        final ModuleElem module = new ModuleElem();
+        module.setClass(cls);
+        return module;
+    }
+
+    private static List<Integer> sizes(final List<List<ModuleElem>> groups) {
+        return groups.stream().map(List::size).collect(Collectors.toList());
+    }
+
+}
@@ -119,6 +119,49 @@ public class IndexTermCollectionTest {
                 i.getTermList());
     }
 
+    @Test
+    public void testAddTermMerge() {
+        final IndexTermCollection i = new IndexTermCollection();
+        for (int j = 0; j < 1000; j++) {
+            final IndexTerm term = new IndexTerm();
+            term.setTermName("term" + (j % 10));
+            term.setTermKey("term" + (j % 10));
+            final IndexTermTarget target = new IndexTermTarget();
+            target.setTargetName("target" + j);
+            target.setTargetURI("target" + j + ".html");
+            term.addTarget(target);
+            i.addTerm(term);
+        }
+        assertEquals(10, i.getTermList().size());
+        for (final IndexTerm term : i.getTermList()) {
+            assertEquals(100, term.getTargetList().size());
+        }
+    }
+
+    @Test
+    public void testSortParallel() {
+        final IndexTermCollection i = new IndexTermCollection();
+        final IndexTerm first = new IndexTerm();
+        first.setTermName("first");
+        first.setTermKey("first");
+        final IndexTerm firstSub = new IndexTerm();
+        firstSub.setTermName("b");
+        firstSub.setTermKey("b");
+        first.addSubTerm(firstSub);
+        final IndexTerm secondSub = new IndexTerm();
+        secondSub.setTermName("a");
+        secondSub.setTermKey("a");
+        first.addSubTerm(secondSub);
+        final IndexTerm second = new IndexTerm();
+        second.setTermName("second");
+        second.setTermKey("second");
+        i.addTerm(second);
+        i.addTerm(first);
+        i.sort(true);
+        assertEquals(Arrays.asList(first, second), i.getTermList());
+        assertEquals(Arrays.asList(secondSub, firstSub), first.getSubTerms());
+    }
+
     @Test
     public void testOutputTerms() throws DITAOTException {
         final IndexTermCollection i = new IndexTermCollection();
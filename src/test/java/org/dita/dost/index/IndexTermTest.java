@@ -176,6 +176,53 @@ public class IndexTermTest {
         new IndexTerm().addSubTerm(null);
     }
 
+    @Test
+    public void testAddSubTermMerge() {
+        IndexTerm.setTermLocale(null);
+        final IndexTerm root = new IndexTerm();
+        root.addSubTerms(construct("sub", 3, 1));
+        root.addSubTerms(construct("sub", 3, 1));
+        final List<IndexTerm> other = construct("sub", 3, 1);
+        final IndexTermTarget target = new IndexTermTarget();
+        target.setTargetName("Other");
+        target.setTargetURI("base/other");
+        other.get(1).addTarget(target);
+        other.get(1).getSubTerms().get(0).addTarget(target);
+        root.addSubTerms(other);
+
+        assertEquals(3, root.getSubTerms().size());
+        final IndexTerm merged = root.getSubTerms().get(1);
+        assertEquals("sub 1", merged.getTermKey());
+        assertEquals(4, merged.getTargetList().size());
+        assertTrue(merged.getTargetList().contains(target));
+        assertEquals(3, merged.getSubTerms().size());
+        assertTrue(merged.getSubTerms().get(0).getTargetList().contains(target));
+    }
+
+    @Test
+    public void testAddSubTermAfterUpdate() {
+        IndexTerm.setTermLocale(null);
+        final IndexTerm root = new IndexTerm();
+        final IndexTerm see = new IndexTerm();
+        see.setTermName("other");
+        see.setTermKey("other");
+        see.setTermPrefix(SEE);
+        root.addSubTerm(see);
+        root.updateSubTerm();
+        final IndexTerm seeAlso = new IndexTerm();
+        seeAlso.setTermName("other");
+        seeAlso.setTermKey("other");
+        seeAlso.setTermPrefix(SEE_ALSO);
+        final IndexTermTarget target = new IndexTermTarget();
+        target.setTargetName("Other");
+        target.setTargetURI("base/other");
+        seeAlso.addTarget(target);
+        root.addSubTerm(seeAlso);
+
+        assertEquals(1, root.getSubTerms().size());
+        assertTrue(see.getTargetList().contains(target));
+    }
+
     @Test
     public void testAddSubTerms() {
         new IndexTerm().addSubTerms(null);
@@ -271,6 +318,23 @@ public class IndexTermTest {
         new IndexTerm().setTermPrefix(null);
     }
 
+    @Test
+    public void testTermLocalePerThread() throws Exception {
+        IndexTerm.setTermLocale(StringUtils.getLocale("ar_EG"));
+        final Locale[] act = new Locale[1];
+        final Thread other = new Thread(() -> {
+            act[0] = IndexTerm.getTermLocale();
+            IndexTerm.setTermLocale(DEFAULT_LOCALE);
+        });
+        other.start();
+        other.join();
+
+        assertNull(act[0]);
+        assertEquals(StringUtils.getLocale("ar_EG"), IndexTerm.getTermLocale());
+        IndexTerm.setTermLocale(null);
+        assertNull(IndexTerm.getTermLocale());
+    }
+
     @Test
     public void testGetTermFullName() {
         IndexTerm.setTermLocale(null);
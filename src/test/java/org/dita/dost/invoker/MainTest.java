@@ -0,0 +1,126 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.invoker;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MainTest {
+
+    private static final File baseDir = new File(System.getProperty("user.dir")).getAbsoluteFile();
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void testRequestRoundTrip() throws IOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final DataOutputStream dst = new DataOutputStream(buf);
+        dst.writeUTF(new File(baseDir, "build.xml").getPath());
+        writeStrings(dst, "init", "dita2html5");
+        final Map<String, String> props = new HashMap<>();
+        props.put("transtype", "html5");
+        props.put("args.input", new File(baseDir, "test.ditamap").getPath());
+        dst.writeInt(props.size());
+        for (final Map.Entry<String, String> prop : props.entrySet()) {
+            dst.writeUTF(prop.getKey());
+            dst.writeUTF(prop.getValue());
+        }
+        writeStrings(dst, "org.example.Listener");
+        dst.writeUTF("org.example.Logger");
+        dst.writeUTF("");
+        dst.writeInt(3);
+        dst.writeInt(7);
+        dst.writeBoolean(true);
+        dst.writeBoolean(false);
+        dst.writeBoolean(true);
+        dst.writeBoolean(false);
+        dst.flush();
+        final byte[] exp = buf.toByteArray();
+
+        final Main main = Main.readRequest(new DataInputStream(new ByteArrayInputStream(exp)));
+
+        final ByteArrayOutputStream act = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(act)) {
+            main.writeRequest(out);
+        }
+        assertArrayEquals(exp, act.toByteArray());
+    }
+
+    @Test
+    public void testRequestRoundTripEmpty() throws IOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final DataOutputStream dst = new DataOutputStream(buf);
+        dst.writeUTF(new File(baseDir, "build.xml").getPath());
+        writeStrings(dst);
+        dst.writeInt(0);
+        writeStrings(dst);
+        dst.writeUTF("");
+        dst.writeUTF("");
+        dst.writeInt(1);
+        dst.writeInt(0);
+        dst.writeBoolean(false);
+        dst.writeBoolean(false);
+        dst.writeBoolean(false);
+        dst.writeBoolean(false);
+        dst.flush();
+        final byte[] exp = buf.toByteArray();
+
+        final Main main = Main.readRequest(new DataInputStream(new ByteArrayInputStream(exp)));
+
+        final ByteArrayOutputStream act = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(act)) {
+            main.writeRequest(out);
+        }
+        assertArrayEquals(exp, act.toByteArray());
+    }
+
+    @Test
+    public void testResolveFileProperties() throws IOException {
+        final File clientDir = tempDir.newFolder("client");
+        new File(clientDir, "style").mkdir();
+        new File(clientDir, "style" + File.separator + "plain.css").createNewFile();
+        final String absolute = new File(baseDir, "abs.xml").getAbsolutePath();
+        final Map<String, Object> props = new HashMap<>();
+        props.put("args.css", "style" + File.separator + "custom.css");
+        props.put("args.xsl", absolute);
+        props.put("args.draft", "yes");
+        props.put("args.path", "relative");
+        props.put("args.cssroot", "style");
+        props.put("args.plain", "style" + File.separator + "plain.css");
+        props.put("args.empty", "");
+
+        Main.resolveFileProperties(props, ImmutableSet.of("args.css", "args.xsl", "args.draft"), clientDir);
+
+        assertEquals(new File(clientDir, "style" + File.separator + "custom.css").getPath(), props.get("args.css"));
+        assertEquals(absolute, props.get("args.xsl"));
+        assertEquals(new File(clientDir, "yes").getPath(), props.get("args.draft"));
+        assertEquals("relative", props.get("args.path"));
+        // Relative paths in properties that are not file parameters are resolved if they exist
+        assertEquals(new File(clientDir, "style").getPath(), props.get("args.cssroot"));
+        assertEquals(new File(clientDir, "style" + File.separator + "plain.css").getPath(), props.get("args.plain"));
+        assertEquals("", props.get("args.empty"));
+    }
+
+    private static void writeStrings(final DataOutputStream dst, final String... values) throws IOException {
+        dst.writeInt(values.length);
+        for (final String value : values) {
+            dst.writeUTF(value);
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import org.dita.dost.TestUtils;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
+import org.dita.dost.pipeline.PipelineHashIO;
+import org.dita.dost.util.Job;
+import org.dita.dost.writer.AbstractXMLFilter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.dita.dost.util.Constants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FilterModuleTest {
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Job job;
+    private File topic;
+    private File map;
+
+    @Before
+    public void setUp() throws IOException {
+        final File tmp = tempDir.getRoot();
+        topic = new File(tmp, "topic.dita");
+        write(topic, "<topic class='- topic/topic ' id='topic' domains=''>" +
+                "<title class='- topic/title '>Title</title>" +
+                "<p class='- topic/p ' audience='internal'>Internal</p>" +
+                "<p class='- topic/p '>Public</p>" +
+                "</topic>");
+        map = new File(tmp, "map.ditamap");
+        write(map, "<map class='- map/map ' domains=''>" +
+                "<topicref class='- map/topicref ' href='topic.dita' audience='internal'/>" +
+                "</map>");
+        write(new File(tmp, FILE_NAME_MERGED_DITAVAL),
+                "<val><prop att='audience' val='internal' action='exclude'/></val>");
+
+        job = new Job(tmp);
+        job.add(new Job.FileInfo.Builder().uri(URI.create("topic.dita")).format(ATTR_FORMAT_VALUE_DITA).build());
+        job.add(new Job.FileInfo.Builder().uri(URI.create("map.ditamap")).format(ATTR_FORMAT_VALUE_DITAMAP).build());
+    }
+
+    @Test
+    public void testProcessingPipe() throws DITAOTException, IOException {
+        final FilterModule module = new FilterModule();
+        module.setLogger(new TestUtils.TestLogger());
+        module.setJob(job);
+        module.setFileInfoFilter(f -> ATTR_FORMAT_VALUE_DITA.equals(f.format));
+        module.setProcessingPipe(Collections.singletonList(new FilterPair(MarkerFilter::new, f -> true)));
+        final PipelineHashIO input = new PipelineHashIO();
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_TRANSTYPE, "xhtml");
+        module.execute(input);
+
+        final String topicAct = read(topic);
+        assertFalse(topicAct.contains("Internal"));
+        assertTrue(topicAct.contains("Public"));
+        assertEquals(1, count(topicAct, "marker=\"topic.dita\""));
+
+        // Map is not selected for profiling, but is processed by the pipe
+        final String mapAct = read(map);
+        assertTrue(mapAct.contains("audience=\"internal\""));
+        assertEquals(1, count(mapAct, "marker=\"map.ditamap\""));
+    }
+
+    @Test
+    public void testWithoutProcessingPipe() throws DITAOTException, IOException {
+        final FilterModule module = new FilterModule();
+        module.setLogger(new TestUtils.TestLogger());
+        module.setJob(job);
+        module.setFileInfoFilter(f -> ATTR_FORMAT_VALUE_DITA.equals(f.format));
+        final PipelineHashIO input = new PipelineHashIO();
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_TRANSTYPE, "xhtml");
+        final String mapExp = read(map);
+        module.execute(input);
+
+        final String topicAct = read(topic);
+        assertFalse(topicAct.contains("Internal"));
+        assertFalse(topicAct.contains("marker"));
+        assertEquals(mapExp, read(map));
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static int count(final String str, final String sub) {
+        int count = 0;
+        for (int i = str.indexOf(sub); i != -1; i = str.indexOf(sub, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /** Filter that adds file name of the current file to the root element. */
+    private static final class MarkerFilter extends AbstractXMLFilter {
+
+        private boolean root;
+
+        @Override
+        public void startDocument() throws SAXException {
+            root = true;
+            super.startDocument();
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes atts)
+                throws SAXException {
+            if (root) {
+                root = false;
+                final AttributesImpl res = new AttributesImpl(atts);
+                final String path = currentFile.getPath();
+                res.addAttribute("", "marker", "marker", "CDATA", path.substring(path.lastIndexOf('/') + 1));
+                super.startElement(uri, localName, qName, res);
+            } else {
+                super.startElement(uri, localName, qName, atts);
+            }
+        }
+    }
+
+}
@@ -10,12 +10,18 @@ package org.dita.dost.module;
 
 import com.google.common.collect.ImmutableMap;
 import org.dita.dost.TestUtils;
+import org.dita.dost.TestUtils.CachingLogger;
 import org.dita.dost.TestUtils.TestLogger;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.log.DITAOTLogger;
 import org.dita.dost.module.KeyrefModule.ResolveTask;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
+import org.dita.dost.pipeline.PipelineHashIO;
 import org.dita.dost.util.Job;
 import org.dita.dost.util.Job.FileInfo.Builder;
 import org.dita.dost.util.KeyDef;
 import org.dita.dost.util.KeyScope;
+import org.dita.dost.writer.AbstractXMLFilter;
 import org.junit.Before;
 import org.junit.Test;
 import org.w3c.dom.Document;
@@ -28,15 +34,24 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.net.URI.create;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
 import static java.util.Collections.*;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
 import static org.dita.dost.TestUtils.assertXMLEqual;
 import static org.dita.dost.TestUtils.createTempDir;
+import static org.dita.dost.util.Constants.ANT_INVOKER_EXT_PARAM_TRANSTYPE;
 import static org.dita.dost.util.Constants.INPUT_DITAMAP_URI;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class KeyrefModuleTest {
 
@@ -117,6 +132,132 @@ public class KeyrefModuleTest {
         assertEquals(exp, act);
     }
 
+    @Test
+    public void testParallel() throws IOException, DITAOTException {
+        final File tempDir = createTempDir(KeyrefModuleTest.class);
+        final File serialDir = new File(tempDir, "serial");
+        final File parallelDir = new File(tempDir, "parallel");
+        try {
+            runKeyrefModule(serialDir, false);
+            runKeyrefModule(parallelDir, true);
+
+            for (final String file : asList("test.ditamap", "topic.dita", "topic-copy.dita", "other.dita",
+                                            "topic-1.dita", "topic-2.dita", "other-1.dita")) {
+                final File exp = new File(serialDir, file);
+                assertTrue(file, exp.exists());
+                assertEquals(file, readFileToString(exp, UTF_8), readFileToString(new File(parallelDir, file), UTF_8));
+            }
+            assertTrue(readFileToString(new File(serialDir, "topic.dita"), UTF_8).contains(">A<"));
+            assertTrue(readFileToString(new File(serialDir, "topic-copy.dita"), UTF_8).contains(">A<"));
+            assertTrue(readFileToString(new File(serialDir, "topic-1.dita"), UTF_8).contains(">B<"));
+            assertTrue(readFileToString(new File(serialDir, "topic-2.dita"), UTF_8).contains(">C<"));
+        } finally {
+            deleteDirectory(serialDir);
+            deleteDirectory(parallelDir);
+        }
+    }
+
+    @Test
+    public void testProcessingPipe() throws IOException, DITAOTException {
+        final File tempDir = createTempDir(KeyrefModuleTest.class);
+        final File dir = new File(tempDir, "pipe");
+        final Map<URI, Integer> counts = new ConcurrentHashMap<>();
+        final CachingLogger logger = new CachingLogger();
+        try {
+            runKeyrefModule(dir, true, logger, singletonList(new FilterPair(() -> new AbstractXMLFilter() {
+                @Override
+                public void startDocument() throws SAXException {
+                    counts.merge(dir.toURI().relativize(currentFile), 1, Integer::sum);
+                    super.startDocument();
+                }
+            }, f -> true)));
+
+            final Map<URI, Integer> exp = new HashMap<>();
+            for (final String file : asList("test.ditamap", "topic.dita", "topic-copy.dita", "other.dita",
+                                            "topic-1.dita", "topic-2.dita", "other-1.dita")) {
+                exp.put(create(file), 1);
+                // Filters run in the key reference pass
+                assertEquals(file, 1, logger.getMessages().stream()
+                        .filter(m -> m.message.startsWith("Processing ") && m.message.endsWith("/" + file))
+                        .count());
+            }
+            assertEquals(exp, counts);
+            assertTrue(readFileToString(new File(dir, "topic-2.dita"), UTF_8).contains(">C<"));
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    private static void runKeyrefModule(final File dir, final boolean parallel) throws IOException, DITAOTException {
+        runKeyrefModule(dir, parallel, new TestLogger(), emptyList());
+    }
+
+    /** Run key reference processing for a map with key scopes and copy-to. */
+    private static void runKeyrefModule(final File dir, final boolean parallel, final DITAOTLogger logger,
+                                        final List<FilterPair> pipe) throws IOException, DITAOTException {
+        final String topicref = "class='- map/topicref '";
+        final String keydef = "class='+ map/topicref mapgroup-d/keydef ' processing-role='resource-only'";
+        final String keyword = "<topicmeta class='- map/topicmeta '><keywords class='- topic/keywords '>" +
+                "<keyword class='- topic/keyword '>%s</keyword></keywords></topicmeta>";
+        write(new File(dir, "test.ditamap"), "<map class='- map/map ' domains=''>" +
+                "<topicref " + topicref + " keyscope='A'>" +
+                "<keydef " + keydef + " keys='name'>" + String.format(keyword, "A") + "</keydef>" +
+                "<topicref " + topicref + " href='topic.dita'/>" +
+                "<topicref " + topicref + " href='topic.dita' copy-to='topic-copy.dita'/>" +
+                "</topicref>" +
+                "<topicref " + topicref + " keyscope='B'>" +
+                "<keydef " + keydef + " keys='name'>" + String.format(keyword, "B") + "</keydef>" +
+                "<topicref " + topicref + " href='topic.dita'/>" +
+                "<topicref " + topicref + " href='other.dita'/>" +
+                "</topicref>" +
+                "<topicref " + topicref + " keyscope='C'>" +
+                "<keydef " + keydef + " keys='name'>" + String.format(keyword, "C") + "</keydef>" +
+                "<topicref " + topicref + " href='topic.dita'/>" +
+                "<topicref " + topicref + " href='other.dita'/>" +
+                "</topicref>" +
+                "</map>");
+        for (final String topic : asList("topic.dita", "topic-copy.dita", "other.dita")) {
+            write(new File(dir, topic), "<topic class='- topic/topic ' id='topic' domains=''>" +
+                    "<title class='- topic/title '>Title</title>" +
+                    "<body class='- topic/body '><p class='- topic/p '>" +
+                    "<ph class='- topic/ph ' keyref='name'/>" +
+                    "</p></body></topic>");
+        }
+
+        final Job job = new Job(dir);
+        job.setInputDir(dir.toURI());
+        job.setInputMap(URI.create("test.ditamap"));
+        job.add(new Job.FileInfo.Builder()
+                .uri(URI.create("test.ditamap"))
+                .src(dir.toURI().resolve("test.ditamap"))
+                .result(dir.toURI().resolve("test.ditamap"))
+                .format("ditamap")
+                .isInput(true)
+                .build());
+        for (final String topic : asList("topic.dita", "topic-copy.dita", "other.dita")) {
+            job.add(new Job.FileInfo.Builder()
+                    .uri(URI.create(topic))
+                    .src(dir.toURI().resolve(topic))
+                    .result(dir.toURI().resolve(topic))
+                    .format("dita")
+                    .hasKeyref(true)
+                    .build());
+        }
+
+        final KeyrefModule module = new KeyrefModule();
+        module.setJob(job);
+        module.setLogger(logger);
+        module.setParallel(parallel);
+        module.setProcessingPipe(pipe);
+        final PipelineHashIO input = new PipelineHashIO();
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_TRANSTYPE, "xhtml");
+        module.execute(input);
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        writeStringToFile(file, content, UTF_8);
+    }
+
     @Test
     public void testWalkMap() throws ParserConfigurationException, IOException, SAXException {
         final DocumentBuilder b = DocumentBuilderFactory.newInstance().newDocumentBuilder();
@@ -0,0 +1,222 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import org.dita.dost.TestUtils;
+import org.dita.dost.TestUtils.CachingLogger;
+import org.dita.dost.TestUtils.CachingLogger.Message;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.log.DITAOTLogger;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
+import org.dita.dost.pipeline.PipelineHashIO;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.Job.FileInfo;
+import org.dita.dost.writer.AbstractXMLFilter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.singletonList;
+import static org.dita.dost.util.Constants.ATTR_FORMAT_VALUE_DITA;
+import static org.junit.Assert.*;
+
+public class XmlFilterModuleTest {
+
+    private static final int FILES = 16;
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Job job;
+
+    @Before
+    public void setUp() throws IOException {
+        final File tmp = tempDir.getRoot();
+        job = new Job(tmp);
+        for (int i = 0; i < FILES; i++) {
+            final String name = "topic" + i + ".dita";
+            write(new File(tmp, name), "<topic class='- topic/topic ' id='topic" + i + "'>" +
+                    "<title class='- topic/title '>Title " + i + "</title>" +
+                    "</topic>");
+            job.add(new FileInfo.Builder().uri(URI.create(name)).format(ATTR_FORMAT_VALUE_DITA).build());
+        }
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        final List<ThreadFilter> instances = Collections.synchronizedList(new ArrayList<>());
+        final XmlFilterModule module = newModule(new TestUtils.TestLogger(), true);
+        module.setProcessingPipe(singletonList(new FilterPair(() -> {
+            final ThreadFilter filter = new ThreadFilter();
+            instances.add(filter);
+            return filter;
+        }, f -> true)));
+
+        module.execute(new PipelineHashIO());
+
+        for (final FileInfo f : job.getFileInfo()) {
+            final String act = read(new File(job.tempDir, f.uri.getPath()));
+            assertEquals(act, 1, count(act, "marker=\"" + f.uri + "\""));
+        }
+        // Each worker thread has its own filter instances
+        assertTrue(instances.size() <= Math.min(AbstractPipelineModuleImpl.getParallelism(), FILES));
+        final Set<Thread> threads = new HashSet<>();
+        for (final ThreadFilter instance : instances) {
+            final Set<Thread> used = instance.threads;
+            assertEquals(1, used.size());
+            assertTrue(threads.addAll(used));
+        }
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testParallelEqualsSerial() throws Exception {
+        final Map<URI, String> exp = new HashMap<>();
+        runMarker(false);
+        for (final FileInfo f : job.getFileInfo()) {
+            exp.put(f.uri, read(new File(job.tempDir, f.uri.getPath())));
+        }
+        setUp();
+
+        runMarker(true);
+
+        for (final FileInfo f : job.getFileInfo()) {
+            assertEquals(exp.get(f.uri), read(new File(job.tempDir, f.uri.getPath())));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testParallelSharedFilter() throws Exception {
+        final ThreadFilter filter = new ThreadFilter();
+        final XmlFilterModule module = newModule(new TestUtils.TestLogger(), true);
+        module.setProcessingPipe(singletonList(new FilterPair(filter, f -> true)));
+
+        module.execute(new PipelineHashIO());
+
+        // Shared filter instance disables parallel processing
+        assertEquals(Collections.singleton(Thread.currentThread()), filter.threads);
+        for (final FileInfo f : job.getFileInfo()) {
+            final String act = read(new File(job.tempDir, f.uri.getPath()));
+            assertEquals(1, count(act, "marker=\"" + f.uri + "\""));
+        }
+    }
+
+    @Test
+    public void testParallelLogOrder() throws Exception {
+        final List<String> exp = new ArrayList<>();
+        final CachingLogger serialLogger = new CachingLogger();
+        final XmlFilterModule serial = newModule(serialLogger, false);
+        serial.setProcessingPipe(singletonList(new FilterPair(LoggingFilter::new, f -> true)));
+        serial.execute(new PipelineHashIO());
+        for (final Message msg : serialLogger.getMessages()) {
+            exp.add(msg.level + " " + msg.message);
+        }
+        setUp();
+
+        final CachingLogger logger = new CachingLogger();
+        final XmlFilterModule module = newModule(logger, true);
+        module.setProcessingPipe(singletonList(new FilterPair(LoggingFilter::new, f -> true)));
+        module.execute(new PipelineHashIO());
+
+        final List<String> act = new ArrayList<>();
+        for (final Message msg : logger.getMessages()) {
+            act.add(msg.level + " " + msg.message);
+        }
+        assertTrue(act.size() >= FILES * 3);
+        assertEquals(exp, act);
+    }
+
+    private void runMarker(final boolean parallel) throws DITAOTException {
+        final XmlFilterModule module = newModule(new TestUtils.TestLogger(), parallel);
+        module.setProcessingPipe(singletonList(new FilterPair(ThreadFilter::new, f -> true)));
+        module.execute(new PipelineHashIO());
+    }
+
+    private XmlFilterModule newModule(final DITAOTLogger logger, final boolean parallel) {
+        final XmlFilterModule module = new XmlFilterModule();
+        module.setLogger(logger);
+        module.setJob(job);
+        module.setFileInfoFilter(f -> true);
+        module.setParallel(parallel);
+        return module;
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static int count(final String str, final String sub) {
+        int count = 0;
+        for (int i = str.indexOf(sub); i != -1; i = str.indexOf(sub, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /** Filter that adds file name of the current file to the root element and records calling threads. */
+    private static final class ThreadFilter extends AbstractXMLFilter {
+
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private boolean root;
+
+        @Override
+        public void startDocument() throws SAXException {
+            threads.add(Thread.currentThread());
+            root = true;
+            super.startDocument();
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes atts)
+                throws SAXException {
+            if (root) {
+                root = false;
+                final AttributesImpl res = new AttributesImpl(atts);
+                final String path = currentFile.getPath();
+                res.addAttribute("", "marker", "marker", "CDATA", path.substring(path.lastIndexOf('/') + 1));
+                super.startElement(uri, localName, qName, res);
+            } else {
+                super.startElement(uri, localName, qName, atts);
+            }
+        }
+    }
+
+    /** Filter that logs the start and end of every document. */
+    private static final class LoggingFilter extends AbstractXMLFilter {
+
+        @Override
+        public void startDocument() throws SAXException {
+            logger.warn("Start " + currentFile);
+            super.startDocument();
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            super.endDocument();
+            logger.error("End " + currentFile);
+        }
+    }
+
+}
@@ -0,0 +1,441 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module;
+
+import net.sf.saxon.om.NodeInfo;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.XMLCatalog;
+import org.dita.dost.TestUtils;
+import org.dita.dost.TestUtils.CachingLogger;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.module.XmlFilterModule.FilterPair;
+import org.dita.dost.pipeline.PipelineHashIO;
+import org.dita.dost.util.Job;
+import org.dita.dost.util.Job.FileInfo;
+import org.dita.dost.writer.AbstractXMLFilter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.dita.dost.util.Constants.ATTR_FORMAT_VALUE_DITA;
+import static org.junit.Assert.*;
+
+public class XsltModuleTest {
+
+    private static final int FILE_COUNT = 8;
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private File srcDir;
+    private File style;
+    private List<File> includes;
+
+    @Before
+    public void setUp() throws IOException {
+        srcDir = tempDir.newFolder("src");
+        includes = new ArrayList<>();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            final File include = new File("topic" + i + ".dita");
+            write(new File(srcDir, include.getPath()), "<topic id='topic" + i + "'><title>Title " + i + "</title></topic>");
+            includes.add(include);
+        }
+        write(new File(tempDir.getRoot(), "common.xml"), "<common>Common</common>");
+        style = new File(tempDir.getRoot(), "style.xsl");
+        write(style, "<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform' version='1.0'>" +
+                "<xsl:param name='p'/>" +
+                "<xsl:template match='/topic'>" +
+                "<html id='{@id}' p='{$p}'><xsl:value-of select='title'/> <xsl:value-of select=\"document('common.xml')\"/></html>" +
+                "</xsl:template>" +
+                "</xsl:stylesheet>");
+    }
+
+    @Test
+    public void testParallelXMLCatalog() throws DITAOTException, IOException {
+        final File serialDir = new File(tempDir.getRoot(), "serial");
+        final File parallelDir = new File(tempDir.getRoot(), "parallel");
+
+        transform(serialDir, false);
+        transform(parallelDir, true);
+
+        for (final File include : includes) {
+            final String exp = read(new File(serialDir, include.getPath()));
+            assertEquals(exp, read(new File(parallelDir, include.getPath())));
+        }
+    }
+
+    @Test
+    public void testParallelXMLCatalogDoctype() throws DITAOTException, IOException {
+        write(new File(tempDir.getRoot(), "common.dtd"), "<!ELEMENT common (#PCDATA)><!ATTLIST common type CDATA 'dtd'>");
+        write(new File(tempDir.getRoot(), "common.xml"), "<!DOCTYPE common SYSTEM 'common.dtd'><common>Common</common>");
+        write(style, "<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform' version='1.0'>" +
+                "<xsl:template match='/topic'>" +
+                "<html id='{@id}' type=\"{document('common.xml')/common/@type}\"/>" +
+                "</xsl:template>" +
+                "</xsl:stylesheet>");
+        final AtomicInteger unlocked = new AtomicInteger();
+        final XMLCatalog catalog = new XMLCatalog() {
+            @Override
+            public InputSource resolveEntity(final String publicId, final String systemId)
+                    throws SAXException, IOException {
+                if (!Thread.holdsLock(this)) {
+                    unlocked.incrementAndGet();
+                }
+                return super.resolveEntity(publicId, systemId);
+            }
+        };
+        final File destDir = new File(tempDir.getRoot(), "parallel");
+
+        transform(destDir, true, catalog);
+
+        for (final File include : includes) {
+            final String act = read(new File(destDir, include.getPath()));
+            assertTrue(act, act.contains("type=\"dtd\""));
+        }
+        // DTD lookups of document() targets go through the synchronized catalog
+        assertEquals(0, unlocked.get());
+    }
+
+    @Test
+    public void testTemplatesCacheEviction() {
+        final XsltModule.TemplatesCache cache = new XsltModule.TemplatesCache(2);
+        final File a = new File("a.xsl");
+        final File b = new File("b.xsl");
+        final File c = new File("c.xsl");
+        cache.put(a, newCachedTemplates(a));
+        cache.put(b, newCachedTemplates(b));
+        assertNotNull(cache.get(a));
+        cache.put(c, newCachedTemplates(c));
+
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+    }
+
+    @Test
+    public void testTemplatesCacheDisabled() {
+        final XsltModule.TemplatesCache cache = new XsltModule.TemplatesCache(0);
+        cache.put(style, newCachedTemplates(style));
+
+        assertNull(cache.get(style));
+    }
+
+    @Test
+    public void testCachedTemplatesRemoved() throws IOException {
+        final File module = new File(tempDir.getRoot(), "module.xsl");
+        write(module, "<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform' version='1.0'/>");
+        final XsltModule.CachedTemplates cached = newCachedTemplates(style, module);
+        assertFalse(cached.isRemoved());
+
+        Files.delete(module.toPath());
+
+        assertTrue(cached.isRemoved());
+    }
+
+    @Test
+    public void testDocumentCache() {
+        final XsltModule.DocumentCache cache = new XsltModule.DocumentCache(100L);
+        final URI a = URI.create("file:/a.xml");
+        final URI b = URI.create("file:/b.xml");
+        final NodeInfo rootA = newNodeInfo();
+        final NodeInfo rootB = newNodeInfo();
+        cache.put(a, rootA, 60L, cache.getGeneration());
+        cache.put(b, rootB, 60L, cache.getGeneration());
+
+        assertNull(cache.get(a));
+        assertSame(rootB, cache.get(b));
+
+        cache.remove(URI.create("file:/dir/../b.xml"));
+
+        assertNull(cache.get(b));
+    }
+
+    @Test
+    public void testDocumentCacheStaleRead() {
+        final XsltModule.DocumentCache cache = new XsltModule.DocumentCache(100L);
+        final URI uri = URI.create("file:/a.xml");
+        final URI other = URI.create("file:/b.xml");
+
+        // Parse starts, then another worker rewrites the file
+        final long generation = cache.getGeneration();
+        cache.remove(uri);
+        cache.put(uri, newNodeInfo(), 10L, generation);
+        assertNull(cache.get(uri));
+
+        // Removal of another file does not prevent caching
+        final long next = cache.getGeneration();
+        cache.remove(other);
+        final NodeInfo root = newNodeInfo();
+        cache.put(uri, root, 10L, next);
+        assertSame(root, cache.get(uri));
+
+        // Parse starts after rewrite
+        cache.remove(uri);
+        final NodeInfo fresh = newNodeInfo();
+        cache.put(uri, fresh, 10L, cache.getGeneration());
+        assertSame(fresh, cache.get(uri));
+    }
+
+    @Test
+    public void testIncremental() throws DITAOTException, IOException {
+        testIncremental(false);
+    }
+
+    @Test
+    public void testIncrementalParallel() throws DITAOTException, IOException {
+        testIncremental(true);
+    }
+
+    private void testIncremental(final boolean parallel) throws DITAOTException, IOException {
+        final File destDir = new File(tempDir.getRoot(), "out");
+        final File manifestDir = new File(tempDir.getRoot(), "manifest");
+
+        assertEquals(FILE_COUNT, transformIncremental(destDir, manifestDir, parallel).size());
+        assertEquals(FILE_COUNT, destDir.list().length);
+        assertEquals(1, manifestDir.list().length);
+        assertEquals(FILE_COUNT, readManifest(manifestDir).size() - 1);
+
+        // Unchanged
+        assertEquals(emptySet(), transformIncremental(destDir, manifestDir, parallel));
+
+        // Changed source, removed output and manually changed output
+        write(new File(srcDir, "topic0.dita"), "<topic id='topic0'><title>Changed</title></topic>");
+        Files.delete(new File(destDir, "topic1.dita").toPath());
+        write(new File(destDir, "topic2.dita"), "<html>Manual</html>");
+        assertEquals(new HashSet<>(asList("topic0.dita", "topic1.dita")),
+                transformIncremental(destDir, manifestDir, parallel));
+        assertTrue(read(new File(destDir, "topic0.dita")).contains("Changed"));
+        assertTrue(new File(destDir, "topic1.dita").exists());
+        assertEquals("<html>Manual</html>", read(new File(destDir, "topic2.dita")));
+
+        // Changed global fingerprint
+        write(new File(srcDir, "topic0.dita"), "<topic id='topic0'><title>Title 0</title></topic>");
+        assertEquals(FILE_COUNT, transformIncremental(destDir, manifestDir, parallel, "other").size());
+    }
+
+    @Test
+    public void testIncrementalDefaultManifestDir() throws DITAOTException, IOException {
+        final File destDir = new File(tempDir.getRoot(), "out");
+        final File manifestDir = new File(tempDir.getRoot(), ".out.incremental");
+        assertEquals(manifestDir, XsltModule.getDefaultManifestDir(destDir));
+
+        assertEquals(FILE_COUNT, transformIncremental(destDir, null, false).size());
+        assertEquals(FILE_COUNT, destDir.list().length);
+        assertEquals(FILE_COUNT, readManifest(manifestDir).size() - 1);
+        assertEquals(emptySet(), transformIncremental(destDir, null, false));
+    }
+
+    @Test
+    public void testIncrementalRetryFailed() throws DITAOTException, IOException {
+        testIncrementalRetryFailed(false);
+    }
+
+    @Test
+    public void testIncrementalRetryFailedParallel() throws DITAOTException, IOException {
+        testIncrementalRetryFailed(true);
+    }
+
+    private void testIncrementalRetryFailed(final boolean parallel) throws DITAOTException, IOException {
+        final File destDir = new File(tempDir.getRoot(), "out");
+        final File manifestDir = new File(tempDir.getRoot(), "manifest");
+        transformIncremental(destDir, manifestDir, parallel);
+        final Set<String> failed = new HashSet<>(asList("topic3.dita", "topic5.dita"));
+        final Map<String, String> previous = new HashMap<>();
+        for (final String name : failed) {
+            previous.put(name, read(new File(destDir, name)));
+            write(new File(srcDir, name), "<topic>");
+        }
+
+        assertEquals(failed, transformIncremental(destDir, manifestDir, parallel));
+        final Properties manifest = readManifest(manifestDir);
+        for (final String name : failed) {
+            assertFalse(new File(destDir, name).exists());
+            assertFalse(manifest.containsKey("file." + name));
+        }
+        assertTrue(manifest.containsKey("file.topic4.dita"));
+
+        // Failed files are transformed again even if output files exist
+        for (final String name : failed) {
+            write(new File(destDir, name), previous.get(name));
+        }
+        assertEquals(failed, transformIncremental(destDir, manifestDir, parallel));
+    }
+
+    @Test
+    public void testProcessingPipe() throws DITAOTException, IOException {
+        testProcessingPipe(false);
+    }
+
+    @Test
+    public void testProcessingPipeParallel() throws DITAOTException, IOException {
+        testProcessingPipe(true);
+    }
+
+    private void testProcessingPipe(final boolean parallel) throws DITAOTException, IOException {
+        final Job job = new Job(srcDir);
+        for (final File include : includes) {
+            job.add(new FileInfo.Builder().uri(URI.create(include.getPath())).format(ATTR_FORMAT_VALUE_DITA).build());
+        }
+        final CachingLogger logger = new CachingLogger();
+        final XsltModule module = new XsltModule();
+        module.setLogger(logger);
+        module.setJob(job);
+        module.setParallel(parallel);
+        module.setStyle(style);
+        module.setParam("p", "value");
+        module.setDestinationDir(srcDir);
+        module.setFileInfoFilter(f -> f.uri.toString().compareTo("topic4.dita") < 0);
+        module.setProcessingPipe(singletonList(new FilterPair(MarkerFilter::new, f -> true)));
+        module.execute(new PipelineHashIO());
+
+        for (int i = 0; i < FILE_COUNT; i++) {
+            final String act = read(new File(srcDir, includes.get(i).getPath()));
+            assertTrue(act, act.contains(i < 4 ? "<html" : "<topic"));
+            assertEquals(act, 1, act.split("marker=", -1).length - 1);
+            // Each file is parsed and serialized once
+            final String name = includes.get(i).getName();
+            assertEquals(name, 1, logger.getMessages().stream()
+                    .filter(m -> m.message.startsWith("Processing ") && m.message.endsWith(name))
+                    .count());
+        }
+    }
+
+    private static NodeInfo newNodeInfo() {
+        return (NodeInfo) Proxy.newProxyInstance(NodeInfo.class.getClassLoader(), new Class<?>[] {NodeInfo.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    } else if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static XsltModule.CachedTemplates newCachedTemplates(final File... dependencies) {
+        final Map<File, Long> deps = new HashMap<>();
+        for (final File dependency : dependencies) {
+            deps.put(dependency, dependency.lastModified());
+        }
+        return new XsltModule.CachedTemplates(null, null, deps);
+    }
+
+    private void transform(final File destDir, final boolean parallel) throws DITAOTException, IOException {
+        transform(destDir, parallel, new XMLCatalog());
+    }
+
+    private void transform(final File destDir, final boolean parallel, final XMLCatalog catalog)
+            throws DITAOTException, IOException {
+        catalog.setProject(new Project());
+        final XsltModule module = new XsltModule();
+        module.setLogger(new TestUtils.TestLogger());
+        module.setJob(new Job(srcDir));
+        module.setParallel(parallel);
+        module.setXMLCatalog(catalog);
+        module.setStyle(style);
+        module.setParam("p", "value");
+        module.setSorceDir(srcDir);
+        module.setDestinationDir(destDir);
+        module.setIncludes(includes);
+        module.execute(new PipelineHashIO());
+    }
+
+    /**
+     * Run incremental transformation.
+     *
+     * @return names of source files that were transformed
+     */
+    private Set<String> transformIncremental(final File destDir, final File manifestDir, final boolean parallel,
+                                             final String... param) throws DITAOTException, IOException {
+        final Set<String> processed = Collections.synchronizedSet(new HashSet<>());
+        final XsltModule module = new XsltModule();
+        module.setLogger(new TestUtils.TestLogger(false) {
+            @Override
+            public void info(final String msg) {
+                if (msg.startsWith("Processing ")) {
+                    processed.add(new File(msg.substring("Processing ".length(), msg.indexOf(" to "))).getName());
+                }
+            }
+        });
+        module.setJob(new Job(srcDir));
+        module.setParallel(parallel);
+        module.setIncremental(true);
+        module.setManifestDir(manifestDir);
+        module.setStyle(style);
+        module.setParam("p", param.length > 0 ? param[0] : "value");
+        module.setSorceDir(srcDir);
+        module.setDestinationDir(destDir);
+        module.setIncludes(includes);
+        module.execute(new PipelineHashIO());
+        return processed;
+    }
+
+    private static Properties readManifest(final File manifestDir) throws IOException {
+        final File[] files = manifestDir.listFiles();
+        assertEquals(1, files.length);
+        final Properties props = new Properties();
+        try (InputStream in = new FileInputStream(files[0])) {
+            props.load(in);
+        }
+        return props;
+    }
+
+    /** Filter that adds a marker attribute to the root element. */
+    private static final class MarkerFilter extends AbstractXMLFilter {
+
+        private boolean root;
+
+        @Override
+        public void startDocument() throws SAXException {
+            root = true;
+            super.startDocument();
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes atts)
+                throws SAXException {
+            if (root) {
+                root = false;
+                final AttributesImpl res = new AttributesImpl(atts);
+                res.addAttribute("", "marker", "marker", "CDATA", "true");
+                super.startElement(uri, localName, qName, res);
+            } else {
+                super.startElement(uri, localName, qName, atts);
+            }
+        }
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.module.reader;
+
+import org.dita.dost.TestUtils;
+import org.dita.dost.exception.DITAOTException;
+import org.dita.dost.pipeline.PipelineHashIO;
+import org.dita.dost.util.Job;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.dita.dost.util.Constants.*;
+import static org.dita.dost.util.Job.Generate.NOT_GENERATEOUTTER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AbstractReaderModuleTest {
+
+    private static final String TOPICREF = "class='- map/topicref '";
+    private static final String KEYDEF = "class='+ map/topicref mapgroup-d/keydef '";
+    private static final String MAPREF = "class='+ map/topicref mapgroup-d/mapref ' format='ditamap'";
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private File srcDir;
+    private File outDir;
+
+    @Before
+    public void setUp() throws IOException {
+        srcDir = tempDir.newFolder("src");
+        outDir = tempDir.newFolder("out");
+        write("root.ditamap", "<map class='- map/map ' domains=''>" +
+                "<keydef " + KEYDEF + " keys='key' href='topics/c.dita'/>" +
+                "<topicref " + TOPICREF + " href='topics/a.dita'>" +
+                "<topicref " + TOPICREF + " href='topics/b.dita' copy-to='topics/b-copy.dita'/>" +
+                "</topicref>" +
+                "<topicref " + TOPICREF + " keyref='key'/>" +
+                "<topicref " + TOPICREF + " href='topics/f.dita' processing-role='resource-only'/>" +
+                "<topicref " + MAPREF + " href='maps/sub.ditamap'/>" +
+                "</map>");
+        write("maps/sub.ditamap", "<map class='- map/map ' domains=''>" +
+                "<keydef " + KEYDEF + " keys='sub' href='../topics/d.dita'/>" +
+                "<topicref " + TOPICREF + " href='../topics/d.dita' copy-to='../topics/d-copy.dita'/>" +
+                "<topicref " + MAPREF + " href='other.ditamap'/>" +
+                "<topicref " + TOPICREF + " href='../topics/g.dita' processing-role='resource-only'/>" +
+                "</map>");
+        write("maps/other.ditamap", "<map class='- map/map ' domains=''>" +
+                "<topicref " + TOPICREF + " href='../topics/a.dita'/>" +
+                "</map>");
+        write("topics/a.dita", topic("a",
+                "<p class='- topic/p ' conref='b.dita#b/p'/>" +
+                "<p class='- topic/p ' conref='c.dita#c/first' conrefend='c.dita#c/last'/>" +
+                "<p class='- topic/p '><xref class='- topic/xref ' href='e.dita'/>" +
+                "<ph class='- topic/ph ' keyref='sub'/></p>"));
+        write("topics/b.dita", topic("b", "<p class='- topic/p ' id='p'>B</p>"));
+        write("topics/c.dita", topic("c",
+                "<p class='- topic/p ' id='first'>First</p><p class='- topic/p ' id='last'>Last</p>"));
+        write("topics/d.dita", topic("d", "<p class='- topic/p '><xref class='- topic/xref ' href='f.dita'/></p>"));
+        write("topics/e.dita", topic("e", "<p class='- topic/p ' conref='f.dita#f/p'/>"));
+        write("topics/f.dita", topic("f", "<p class='- topic/p ' id='p'>F</p>"));
+        write("topics/g.dita", topic("g", "<p class='- topic/p '>G</p>"));
+    }
+
+    @Test
+    public void testMapReaderParallel() throws Exception {
+        final File serialDir = tempDir.newFolder("serial");
+        final File parallelDir = tempDir.newFolder("parallel");
+
+        runModule(new MapReaderModule(), serialDir, false);
+        runModule(new MapReaderModule(), parallelDir, true);
+
+        assertTrue(new File(serialDir, "maps" + File.separator + "other.ditamap").exists());
+        assertTempDirEquals(serialDir, parallelDir);
+    }
+
+    @Test
+    public void testTopicReaderParallel() throws Exception {
+        final File serialDir = tempDir.newFolder("serial");
+        final File parallelDir = tempDir.newFolder("parallel");
+
+        runModule(new MapReaderModule(), serialDir, false);
+        runModule(new TopicReaderModule(), serialDir, false);
+        runModule(new MapReaderModule(), parallelDir, false);
+        runModule(new TopicReaderModule(), parallelDir, true);
+
+        // Map references have not been resolved, so topics are only read from the root map
+        for (final String topic : new String[] {"a", "b", "c", "e", "f"}) {
+            assertTrue(topic, new File(serialDir, "topics" + File.separator + topic + ".dita").exists());
+        }
+        assertTempDirEquals(serialDir, parallelDir);
+    }
+
+    private void runModule(final AbstractReaderModule module, final File temp, final boolean parallel)
+            throws IOException, DITAOTException {
+        final PipelineHashIO input = new PipelineHashIO();
+        input.setAttribute(ANT_INVOKER_PARAM_INPUTMAP, new File(srcDir, "root.ditamap").getAbsolutePath());
+        input.setAttribute(ANT_INVOKER_PARAM_BASEDIR, srcDir.getAbsolutePath());
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_DITADIR, new File("src" + File.separator + "main").getAbsolutePath());
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_OUTPUTDIR, outDir.getAbsolutePath());
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_TRANSTYPE, "html5");
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_VALIDATE, Boolean.FALSE.toString());
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_GENERATECOPYOUTTER, Integer.toString(NOT_GENERATEOUTTER.type));
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_OUTTERCONTROL, Job.OutterControl.WARN.toString());
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_CRAWL, ANT_INVOKER_EXT_PARAM_CRAWL_VALUE_TOPIC);
+        input.setAttribute(ANT_INVOKER_EXT_PARAM_ONLYTOPICINMAP, Boolean.FALSE.toString());
+        input.setAttribute(ANT_INVOKER_PARAM_PROFILING_ENABLED, Boolean.FALSE.toString());
+        module.setLogger(new TestUtils.TestLogger());
+        module.setJob(new Job(temp));
+        module.setParallel(parallel);
+        module.execute(input);
+    }
+
+    private static void assertTempDirEquals(final File exp, final File act) throws IOException {
+        final Map<String, String> expFiles = readTempDir(exp);
+        final Map<String, String> actFiles = readTempDir(act);
+        assertEquals(expFiles.keySet(), actFiles.keySet());
+        for (final Map.Entry<String, String> file : expFiles.entrySet()) {
+            assertEquals(file.getKey(), file.getValue(), actFiles.get(file.getKey()));
+        }
+    }
+
+    /** Read temporary directory files keyed by relative path, with temporary directory path normalized. */
+    private static Map<String, String> readTempDir(final File dir) throws IOException {
+        final Map<String, String> res = new TreeMap<>();
+        final Path root = dir.toPath();
+        try (Stream<Path> files = Files.walk(root)) {
+            for (final Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                final String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8)
+                        .replace(dir.toURI().toString(), "temp:/")
+                        .replace(dir.getAbsolutePath(), "temp");
+                res.put(root.relativize(file).toString(), content);
+            }
+        }
+        return res;
+    }
+
+    private static String topic(final String id, final String body) {
+        return "<topic class='- topic/topic ' id='" + id + "' domains=''>" +
+                "<title class='- topic/title '>" + id + "</title>" +
+                "<body class='- topic/body '>" + body + "</body>" +
+                "</topic>";
+    }
+
+    private void write(final String path, final String content) throws IOException {
+        final File file = new File(srcDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -10,6 +10,8 @@ package org.dita.dost.util;
 import static org.dita.dost.util.Constants.ATTRIBUTE_NAME_CLASS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -65,12 +67,30 @@ public class DitaClassTest {
     public void testMatchesDitaClass() {
         assertTrue(new DitaClass("- foo/bar ").matches(new DitaClass("- foo/bar baz/qux ")));
         assertTrue(new DitaClass("- foo/bar baz/qux ").matches(new DitaClass("- foo/bar baz/qux ")));
+        assertTrue(new DitaClass("- foo/bar ").matches(new DitaClass("  -  foo/bar  baz/qux")));
+        assertFalse(new DitaClass("- bar/baz ").matches(new DitaClass("- foo/bar baz/qux ")));
+        assertFalse(new DitaClass("- foo/ba ").matches(new DitaClass("- foo/bar baz/qux ")));
+        assertFalse(new DitaClass("- foo/bar ").matches((DitaClass) null));
+    }
+
+    @Test
+    public void testGetInstance() {
+        final AttributesImpl atts = new AttributesImpl();
+        atts.addAttribute("", ATTRIBUTE_NAME_CLASS, ATTRIBUTE_NAME_CLASS, "CDATA", "- foo/bar baz/qux ");
+        final DitaClass cls = DitaClass.getInstance(atts);
+        assertEquals(new DitaClass("- foo/bar baz/qux "), cls);
+        assertSame(cls, DitaClass.getInstance(atts));
+        assertNull(DitaClass.getInstance(new AttributesImpl()));
     }
 
     @Test
     public void testMatchesString() {
         assertTrue(new DitaClass("- foo/bar ").matches("- foo/bar baz/qux "));
         assertTrue(new DitaClass("- foo/bar baz/qux ").matches("- foo/bar baz/qux "));
+        assertTrue(new DitaClass("- baz/qux ").matches("  -  foo/bar  baz/qux"));
+        assertFalse(new DitaClass("- foo/ba ").matches("- foo/bar baz/qux "));
+        assertFalse(new DitaClass("- bar/baz ").matches("- foo/bar baz/qux "));
+        assertFalse(new DitaClass("- foo/bar ").matches((String) null));
     }
 
     @Test
@@ -80,6 +100,7 @@ public class DitaClassTest {
         assertTrue(new DitaClass("- foo/bar ").matches(atts));
         assertTrue(new DitaClass("- foo/bar baz/qux ").matches(atts));
         assertFalse(new DitaClass("- bar/baz ").matches(atts));
+        assertFalse(new DitaClass("- foo/bar ").matches(new AttributesImpl()));
     }
 
     @Test
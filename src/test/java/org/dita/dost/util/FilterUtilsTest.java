@@ -134,6 +134,20 @@ public class FilterUtilsTest {
         assertTrue(f.needExclude(attr(PLATFORM, "windows"), new QName[0][0]));
     }
 
+    @Test
+    public void testNeedExcludeRepeated() {
+        final FilterUtils f = new FilterUtils(false, filterMap, null, null);
+        f.setLogger(new TestUtils.TestLogger());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(f.needExclude(attr(PLATFORM, "windows"), new QName[0][0]));
+            assertFalse(f.needExclude(attr(AUDIENCE, "windows"), new QName[0][0]));
+            assertFalse(f.needExclude(attr(PLATFORM, "amiga windows"), new QName[0][0]));
+            assertTrue(f.needExclude(attr(AUDIENCE, "novice"), new QName[0][0]));
+            assertTrue(f.needExclude(attr(PLATFORM, "os(windows)"), new QName[0][0]));
+        }
+    }
+
     @Test
     public void testNeedExcludeMultipleAttributes() {
         final FilterUtils f = new FilterUtils(false, filterMap, null, null);
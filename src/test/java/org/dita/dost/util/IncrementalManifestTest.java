@@ -0,0 +1,90 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalManifestTest {
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void testMissing() throws IOException {
+        final IncrementalManifest manifest = IncrementalManifest.read(new File(tempDir.getRoot(), "missing"), "global");
+        assertFalse(manifest.isUnchanged("topic.dita", "abc"));
+    }
+
+    @Test
+    public void testReadWrite() throws IOException {
+        final File file = new File(tempDir.getRoot(), "out" + File.separator + ".manifest");
+        final IncrementalManifest first = IncrementalManifest.read(file, "global");
+        first.put("topic.dita", "abc");
+        first.put("sub/topic=a.dita", "def");
+        first.write();
+
+        final IncrementalManifest second = IncrementalManifest.read(file, "global");
+        assertTrue(second.isUnchanged("topic.dita", "abc"));
+        assertTrue(second.isUnchanged("sub/topic=a.dita", "def"));
+        assertFalse(second.isUnchanged("topic.dita", "def"));
+        assertFalse(second.isUnchanged("other.dita", "abc"));
+    }
+
+    @Test
+    public void testGlobalFingerprintChanged() throws IOException {
+        final File file = tempDir.newFile(".manifest");
+        final IncrementalManifest first = IncrementalManifest.read(file, "global");
+        first.put("topic.dita", "abc");
+        first.write();
+
+        final IncrementalManifest second = IncrementalManifest.read(file, "changed");
+        assertFalse(second.isUnchanged("topic.dita", "abc"));
+    }
+
+    @Test
+    public void testOnlyRecordedEntriesWritten() throws IOException {
+        final File file = tempDir.newFile(".manifest");
+        final IncrementalManifest first = IncrementalManifest.read(file, "global");
+        first.put("a.dita", "abc");
+        first.put("b.dita", "def");
+        first.write();
+
+        final IncrementalManifest second = IncrementalManifest.read(file, "global");
+        second.put("a.dita", "abc");
+        second.write();
+
+        final IncrementalManifest third = IncrementalManifest.read(file, "global");
+        assertTrue(third.isUnchanged("a.dita", "abc"));
+        assertFalse(third.isUnchanged("b.dita", "def"));
+    }
+
+    @Test
+    public void testGetFingerprint() throws IOException {
+        final File a = tempDir.newFile("a.dita");
+        final File b = tempDir.newFile("b.dita");
+        Files.write(a.toPath(), "<topic/>".getBytes(StandardCharsets.UTF_8));
+        Files.write(b.toPath(), "<topic/>".getBytes(StandardCharsets.UTF_8));
+        assertEquals(IncrementalManifest.getFingerprint(a), IncrementalManifest.getFingerprint(b));
+
+        Files.write(b.toPath(), "<topic id='b'/>".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(IncrementalManifest.getFingerprint(a), IncrementalManifest.getFingerprint(b));
+    }
+
+}
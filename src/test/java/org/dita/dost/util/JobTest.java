@@ -15,7 +15,9 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.AfterClass;
@@ -61,6 +63,107 @@ public final class JobTest {
         assertNull(job.getFileInfo((URI) null));
     }
 
+    @Test
+    public void testGetFileInfoBySrcAndResult() throws URISyntaxException {
+        final URI src = new URI("file:/foo/src/baz.dita");
+        final URI result = new URI("file:/foo/out/baz.html");
+        final Job.FileInfo fi = new Job.FileInfo.Builder().uri(new URI("baz.dita")).src(src).result(result).build();
+        job.add(fi);
+        assertSame(fi, job.getFileInfo(src));
+        assertSame(fi, job.getFileInfo(result));
+
+        final URI moved = new URI("file:/foo/out/moved.html");
+        final Job.FileInfo replacement = new Job.FileInfo.Builder(fi).result(moved).build();
+        job.add(replacement);
+        assertSame(replacement, job.getFileInfo(src));
+        assertSame(replacement, job.getFileInfo(moved));
+        assertNull(job.getFileInfo(result));
+
+        job.remove(replacement);
+        assertNull(job.getFileInfo(src));
+        assertNull(job.getFileInfo(moved));
+    }
+
+    @Test
+    public void testGetFileInfoAfterRead() throws IOException, URISyntaxException {
+        final File dir = new File(tempDir, "read");
+        assertTrue(dir.mkdirs());
+        try {
+            final Job write = new Job(dir);
+            final List<Job.FileInfo> fis = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                fis.add(new Job.FileInfo.Builder()
+                        .uri(new URI("topic" + i + ".dita"))
+                        .src(new URI("file:/foo/src/topic" + i + ".dita"))
+                        .result(new URI("file:/foo/out/topic" + i + ".html"))
+                        .build());
+            }
+            write.addAll(fis);
+            write.write();
+
+            final Job read = new Job(dir);
+            for (int i = 0; i < 10; i++) {
+                final URI uri = new URI("topic" + i + ".dita");
+                assertEquals(uri, read.getFileInfo(new URI("file:/foo/src/topic" + i + ".dita")).uri);
+                assertEquals(uri, read.getFileInfo(new URI("file:/foo/out/topic" + i + ".html")).uri);
+            }
+        } finally {
+            TestUtils.forceDelete(dir);
+        }
+    }
+
+    /** Lookups by source and result URI must not scan all files. */
+    @Test(timeout = 10000)
+    public void testGetFileInfoLarge() throws IOException, URISyntaxException {
+        final File dir = new File(tempDir, "large");
+        assertTrue(dir.mkdirs());
+        try {
+            final Job large = new Job(dir);
+            final int count = 100000;
+            for (int i = 0; i < count; i++) {
+                large.add(new Job.FileInfo.Builder()
+                        .uri(new URI("dir" + (i % 100) + "/topic" + i + ".dita"))
+                        .src(new URI("file:/foo/src/dir" + (i % 100) + "/topic" + i + ".dita"))
+                        .result(new URI("file:/foo/out/dir" + (i % 100) + "/topic" + i + ".dita"))
+                        .build());
+            }
+            for (int i = 0; i < count; i++) {
+                final URI src = new URI("file:/foo/src/dir" + (i % 100) + "/topic" + i + ".dita");
+                assertEquals(src, large.getFileInfo(src).src);
+                final URI result = new URI("file:/foo/out/dir" + (i % 100) + "/topic" + i + ".dita");
+                assertEquals(result, large.getFileInfo(result).result);
+            }
+        } finally {
+            TestUtils.forceDelete(dir);
+        }
+    }
+
+    @Test
+    public void testWriteUnmodified() throws IOException, URISyntaxException {
+        final File dir = new File(tempDir, "write");
+        assertTrue(dir.mkdirs());
+        try {
+            final File jobFile = new File(dir, ".job.xml");
+            final Job write = new Job(dir);
+            final Job.FileInfo fi = new Job.FileInfo.Builder().uri(new URI("topic.dita")).build();
+            write.add(fi);
+            write.write();
+            assertTrue(jobFile.exists());
+
+            final long past = jobFile.lastModified() - 10000L;
+            assertTrue(jobFile.setLastModified(past));
+            write.write();
+            assertEquals(past, jobFile.lastModified());
+
+            fi.hasConref = true;
+            write.write();
+            assertNotEquals(past, jobFile.lastModified());
+            assertTrue(new Job(dir).getFileInfo(new URI("topic.dita")).hasConref);
+        } finally {
+            TestUtils.forceDelete(dir);
+        }
+    }
+
     @Test
     public void testGetInputMap() {
         assertEquals(toURI("foo"), job.getInputMap());
@@ -0,0 +1,77 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import static java.net.URI.create;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class KeyScopeTest {
+
+    private static final KeyDef PARENT_A = new KeyDef("a", create("parent-a.dita"), null, null, null, null);
+    private static final KeyDef PARENT_B = new KeyDef("b", create("parent-b.dita"), null, null, null, null);
+    private static final KeyDef CHILD_A = new KeyDef("a", create("child-a.dita"), null, null, null, null);
+    private static final KeyDef CHILD_C = new KeyDef("c", create("child-c.dita"), null, null, null, null);
+
+    @Test
+    public void testLayered() {
+        final KeyScope act = new KeyScope("child", "child",
+                ImmutableMap.of("a", CHILD_A, "c", CHILD_C),
+                ImmutableMap.of("a", PARENT_A, "b", PARENT_B),
+                emptyList());
+
+        assertSame(PARENT_A, act.get("a"));
+        assertSame(PARENT_B, act.get("b"));
+        assertSame(CHILD_C, act.get("c"));
+        assertNull(act.get("d"));
+        assertEquals(ImmutableSet.of("a", "b", "c"), act.keySet());
+        assertEquals(3, act.keyDefinition.size());
+    }
+
+    @Test
+    public void testLayeredEquals() {
+        final KeyScope layered = new KeyScope("child", "child",
+                ImmutableMap.of("a", CHILD_A, "c", CHILD_C),
+                ImmutableMap.of("a", PARENT_A, "b", PARENT_B),
+                emptyList());
+        final KeyScope flat = new KeyScope("child", "child",
+                ImmutableMap.of("a", PARENT_A, "b", PARENT_B, "c", CHILD_C),
+                emptyList());
+
+        assertEquals(flat, layered);
+        assertEquals(layered, flat);
+        assertEquals(flat.hashCode(), layered.hashCode());
+    }
+
+    @Test
+    public void testLayeredEmpty() {
+        final KeyScope act = new KeyScope("child", "child",
+                ImmutableMap.of("c", CHILD_C),
+                emptyMap(),
+                emptyList());
+
+        assertEquals(ImmutableMap.of("c", CHILD_C), act.keyDefinition);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testLayeredUnmodifiable() {
+        final KeyScope act = new KeyScope("child", "child",
+                ImmutableMap.of("a", CHILD_A, "c", CHILD_C),
+                ImmutableMap.of("a", PARENT_A, "b", PARENT_B),
+                emptyList());
+
+        act.keyDefinition.entrySet().iterator().next().setValue(CHILD_C);
+    }
+}
@@ -7,9 +7,15 @@
  */
 package org.dita.dost.util;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import org.dita.dost.util.DITAOTCollator;
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
 public class TestDITAOTCollator {
     @Test
@@ -19,4 +25,29 @@ public class TestDITAOTCollator {
         assertNotSame(DITAOTCollator.getInstance(Locale.US),DITAOTCollator.getInstance(Locale.UK));
     }
 
+    @Test
+    public void testParallel() {
+        final DITAOTCollator collator = DITAOTCollator.getInstance(Locale.GERMANY);
+        final List<String> terms = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            terms.add((i % 2 == 0 ? "\u00e4pfel " : "Apfel ") + Integer.toString(i, 36));
+        }
+        final List<String> exp = new ArrayList<>(terms);
+        exp.sort(collator);
+
+        final List<Comparable> keys = terms.parallelStream()
+                .map(collator::getCollationKey)
+                .collect(Collectors.toList());
+        final List<String> act = IntStream.range(0, terms.size()).boxed()
+                .sorted((a, b) -> keys.get(a).compareTo(keys.get(b)))
+                .map(terms::get)
+                .collect(Collectors.toList());
+        assertEquals(exp, act);
+
+        final long unordered = IntStream.range(1, act.size()).parallel()
+                .filter(i -> collator.compare(act.get(i - 1), act.get(i)) > 0)
+                .count();
+        assertEquals(0, unordered);
+    }
+
 }
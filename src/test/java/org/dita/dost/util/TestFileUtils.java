@@ -11,6 +11,8 @@ import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -273,6 +275,17 @@ public class TestFileUtils {
         assertFalse(FileUtils.directoryContains(srcDir, new File(srcDir, ".." + File.separator + "test.txt")));
     }
     
+    @Test
+    public void testReplaceFile() throws IOException {
+        final File src = new File(tempDir, "replace.tmp");
+        final File dst = new File(tempDir, "replace.txt");
+        Files.write(dst.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+        Files.write(src.toPath(), "new".getBytes(StandardCharsets.UTF_8));
+        FileUtils.replaceFile(src, dst);
+        assertFalse(src.exists());
+        assertEquals("new", new String(Files.readAllBytes(dst.toPath()), StandardCharsets.UTF_8));
+    }
+
     @AfterClass
     public static void tearDown() throws IOException {
         TestUtils.forceDelete(tempDir);
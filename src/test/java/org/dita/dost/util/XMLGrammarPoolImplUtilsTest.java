@@ -0,0 +1,115 @@
+/*
+ * This file is part of the DITA Open Toolkit project.
+ *
+ * Copyright 2018 Jarno Elovirta
+ *
+ * See the accompanying LICENSE file for applicable license.
+ */
+package org.dita.dost.util;
+
+import org.apache.xerces.impl.dtd.DTDGrammar;
+import org.apache.xerces.impl.dtd.XMLDTDDescription;
+import org.apache.xerces.util.SymbolTable;
+import org.junit.Test;
+
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class XMLGrammarPoolImplUtilsTest {
+
+    private static final String PUBLIC_ID = "-//OASIS//DTD DITA Topic//EN";
+
+    @Test
+    public void testHitMissCount() {
+        final XMLGrammarPoolImplUtils pool = new XMLGrammarPoolImplUtils();
+        final DTDGrammar grammar = newGrammar(PUBLIC_ID, "file:/a/topic.dtd");
+
+        assertNull(pool.retrieveGrammar(newDescription(PUBLIC_ID, "file:/a/topic.dtd")));
+        pool.putGrammar(grammar);
+        assertSame(grammar, pool.retrieveGrammar(newDescription(PUBLIC_ID, "file:/a/topic.dtd")));
+        assertSame(grammar, pool.retrieveGrammar(newDescription(PUBLIC_ID, "file:/a/topic.dtd")));
+
+        assertEquals(2L, pool.getHitCount());
+        assertEquals(1L, pool.getMissCount());
+    }
+
+    @Test
+    public void testLock() {
+        final XMLGrammarPoolImplUtils pool = new XMLGrammarPoolImplUtils();
+        final DTDGrammar first = newGrammar(PUBLIC_ID, "file:/a/topic.dtd");
+        pool.putGrammar(first);
+
+        pool.lockPool();
+        pool.putGrammar(newGrammar("-//OASIS//DTD DITA Map//EN", "file:/a/map.dtd"));
+        assertNull(pool.retrieveGrammar(newDescription("-//OASIS//DTD DITA Map//EN", "file:/a/map.dtd")));
+        assertSame(first, pool.retrieveGrammar(newDescription(PUBLIC_ID, "file:/a/topic.dtd")));
+
+        pool.unlockPool();
+        final DTDGrammar map = newGrammar("-//OASIS//DTD DITA Map//EN", "file:/a/map.dtd");
+        pool.putGrammar(map);
+        assertSame(map, pool.retrieveGrammar(newDescription("-//OASIS//DTD DITA Map//EN", "file:/a/map.dtd")));
+    }
+
+    @Test
+    public void testPublicIdIdentity() {
+        final XMLGrammarPoolImplUtils pool = new XMLGrammarPoolImplUtils();
+        pool.addPublicIds(singleton(PUBLIC_ID));
+        final DTDGrammar grammar = newGrammar(PUBLIC_ID, "file:/a/topic.dtd");
+        pool.putGrammar(grammar);
+
+        assertSame(grammar, pool.retrieveGrammar(newDescription(PUBLIC_ID, "file:/b/topic.dtd")));
+        assertNull(pool.retrieveGrammar(newDescription("-//OASIS//DTD DITA Concept//EN", "file:/a/topic.dtd")));
+    }
+
+    @Test
+    public void testPublicIdIdentityUnregistered() {
+        final XMLGrammarPoolImplUtils pool = new XMLGrammarPoolImplUtils();
+        final DTDGrammar grammar = newGrammar(PUBLIC_ID, "file:/a/topic.dtd");
+        pool.putGrammar(grammar);
+
+        assertNull(pool.retrieveGrammar(newDescription(PUBLIC_ID, "file:/b/topic.dtd")));
+        assertSame(grammar, pool.retrieveGrammar(newDescription(PUBLIC_ID, "file:/a/topic.dtd")));
+    }
+
+    @Test
+    public void testRemoveTransientGrammars() {
+        final XMLGrammarPoolImplUtils pool = new XMLGrammarPoolImplUtils();
+        pool.addPublicIds(singleton(PUBLIC_ID));
+        final DTDGrammar preloaded = newGrammar(PUBLIC_ID, "file:/a/topic.dtd");
+        pool.putGrammar(preloaded);
+        pool.retainGrammars();
+        pool.putGrammar(newGrammar(null, "file:/a/local.dtd"));
+        pool.putGrammar(newGrammar(null, "file:/a/other.dtd"));
+
+        assertEquals(2, pool.removeTransientGrammars());
+
+        assertSame(preloaded, pool.retrieveGrammar(newDescription(PUBLIC_ID, "file:/b/topic.dtd")));
+        assertNull(pool.retrieveGrammar(newDescription(null, "file:/a/local.dtd")));
+        assertNull(pool.retrieveGrammar(newDescription(null, "file:/a/other.dtd")));
+        assertEquals(0, pool.removeTransientGrammars());
+    }
+
+    @Test
+    public void testRemoveTransientGrammarsReplaced() {
+        final XMLGrammarPoolImplUtils pool = new XMLGrammarPoolImplUtils();
+        pool.putGrammar(newGrammar(null, "file:/a/local.dtd"));
+        pool.retainGrammars();
+        final DTDGrammar replacement = newGrammar(null, "file:/a/local.dtd");
+        pool.putGrammar(replacement);
+
+        assertEquals(1, pool.removeTransientGrammars());
+
+        assertNull(pool.retrieveGrammar(newDescription(null, "file:/a/local.dtd")));
+    }
+
+    private static DTDGrammar newGrammar(final String publicId, final String systemId) {
+        return new DTDGrammar(new SymbolTable(), newDescription(publicId, systemId));
+    }
+
+    private static XMLDTDDescription newDescription(final String publicId, final String systemId) {
+        return new XMLDTDDescription(publicId, systemId, null, systemId, "topic");
+    }
+
+}
@@ -10,8 +10,13 @@ package org.dita.dost.util;
 import static javax.xml.XMLConstants.*;
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
+import org.dita.dost.TestUtils;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import org.w3c.dom.Element;
@@ -19,7 +24,10 @@ import org.w3c.dom.Document;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Attr;
 import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.XMLFilterImpl;
 import org.junit.Test;
 
 public class XMLUtilsTest {
@@ -207,4 +215,52 @@ public class XMLUtilsTest {
         assertTrue(XMLUtils.nonDitaContext(classes));
     }
 
+    @Test
+    public void testTransformReusesReader() throws Exception {
+        final File tempDir = TestUtils.createTempDir(XMLUtilsTest.class);
+        try {
+            final XMLUtils xmlUtils = new XMLUtils();
+            final XMLFilterImpl filter = new XMLFilterImpl() {
+                @Override
+                public void startElement(final String uri, final String localName, final String qName,
+                                         final Attributes atts) throws SAXException {
+                    final AttributesImpl res = new AttributesImpl(atts);
+                    XMLUtils.addOrSetAttribute(res, "filtered", "true");
+                    super.startElement(uri, localName, qName, res);
+                }
+            };
+            for (int i = 0; i < 3; i++) {
+                final File file = new File(tempDir, "test" + i + ".xml");
+                Files.write(file.toPath(), ("<root id='" + i + "'/>").getBytes(StandardCharsets.UTF_8));
+                xmlUtils.transform(file, Collections.singletonList(filter));
+                final Element root = XMLUtils.getDocumentBuilder().parse(file).getDocumentElement();
+                assertEquals(Integer.toString(i), root.getAttribute("id"));
+                assertEquals("true", root.getAttribute("filtered"));
+
+                xmlUtils.transform(file, Collections.emptyList());
+                assertEquals("true", XMLUtils.getDocumentBuilder().parse(file).getDocumentElement().getAttribute("filtered"));
+            }
+        } finally {
+            TestUtils.forceDelete(tempDir);
+        }
+    }
+
+    @Test
+    public void testTransformResetsLexicalHandler() throws Exception {
+        final File tempDir = TestUtils.createTempDir(XMLUtilsTest.class);
+        try {
+            final XMLUtils xmlUtils = new XMLUtils();
+            final XMLFilterImpl filter = new XMLFilterImpl();
+            final File file = new File(tempDir, "test.xml");
+            Files.write(file.toPath(), "<root><!-- comment --></root>".getBytes(StandardCharsets.UTF_8));
+            xmlUtils.transform(file, Collections.singletonList(filter));
+            assertTrue(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).contains("<!-- comment -->"));
+
+            final XMLReader reader = filter.getParent();
+            assertNull(reader.getProperty("http://xml.org/sax/properties/lexical-handler"));
+        } finally {
+            TestUtils.forceDelete(tempDir);
+        }
+    }
+
 }